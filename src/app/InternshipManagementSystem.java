@@ -2,23 +2,74 @@ package app;
 
 import boundary.CommandLineInterface;
 import boundary.AuthenticationInterface;
+import boundary.ApiServer;
+import control.DataStore;
+
+import java.io.IOException;
 
 /**
  * Entry point for the Internship Placement Management System.
  * <p>
  * Initializes the authentication command-line interface and starts the
- * interactive display loop.
+ * interactive display loop. Started with {@code --serve [port]}, it instead runs the
+ * HTTP/JSON API ({@link ApiServer}) until the process is stopped.
  * </p>
   */
 public class InternshipManagementSystem {
     /**
-     * Main method. Creates the authentication interface and starts the UI.
+     * Port of the HTTP API when none is given.
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Main method. Creates the authentication interface, starts the UI and flushes pending
+     * changes when the user exits; or, with {@code --serve [port]}, starts the HTTP API.
      *
-     * @param args command line arguments (not used)
+     * @param args command line arguments ({@code --serve [port]} for service mode)
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? args[1] : null);
+            return;
+        }
+
         CommandLineInterface authInterface = new AuthenticationInterface();
 
         authInterface.display();
+
+        // Make sure deferred (write-behind) changes reach the disk before exiting
+        if (!DataStore.getInstance().flush()) {
+            System.err.println("Some changes could not be saved.");
+        }
+    }
+
+    /**
+     * Run the HTTP API until the process is stopped; pending changes are flushed on shutdown.
+     *
+     * @param portArgument port to listen on (null for the default)
+     */
+    private static void serve(String portArgument) {
+        int port;
+        try {
+            port = portArgument == null ? DEFAULT_PORT : Integer.parseInt(portArgument);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid port: " + portArgument);
+            return;
+        }
+        ApiServer server;
+        try {
+            server = new ApiServer(port);
+        } catch (IOException e) {
+            System.err.println("Cannot start the HTTP API on port " + port + ": " + e.getMessage());
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            if (!DataStore.getInstance().flush()) {
+                System.err.println("Some changes could not be saved.");
+            }
+        }, "ipms-api-shutdown"));
+        server.start();
+        System.out.println("HTTP API listening on port " + server.getPort() + " (Ctrl+C to stop)");
     }
 }
@@ -0,0 +1,1040 @@
+package boundary;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import control.ApplicationDecision;
+import control.AuthenticationController;
+import control.CareerCenterStaffController;
+import control.CompanyRepresentativeController;
+import control.ImportResult;
+import control.Page;
+import control.ReportFormat;
+import control.StudentController;
+import entity.Application;
+import entity.CareerCenterStaff;
+import entity.CompanyRepresentative;
+import entity.Internship;
+import entity.Student;
+import entity.User;
+import entity.Withdrawal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * HTTP/JSON front end serving many users from one shared in-memory state.
+ * <p>
+ * Built on the JDK's {@code com.sun.net.httpserver}; every request runs on its own virtual thread,
+ * so thousands of slow clients do not tie up platform threads. Clients log in with
+ * {@code POST /api/login} and send the returned token as {@code Authorization: Bearer <token>};
+ * the session identifies the user, so the password is hashed once per session. The login's
+ * password check runs on the bounded hashing pool rather than on the request thread; when that
+ * pool's queue is full the login is refused with 503 so the client can retry. Requests carry
+ * parameters in the query string (GET) or as a JSON object body (POST), and responses are JSON.
+ * The student import takes the roster itself as a {@code text/csv} body. Request bodies larger than
+ * {@code ipms.maxRequestBytes} bytes (default 8 MiB) are refused with 413.
+ * </p>
+ * <p>
+ * The routes expose the operations of the student, company representative and career centre staff
+ * controllers, each restricted to its role, with the same checks as the console menus. Requests
+ * run concurrently: reads of the shared {@link control.DataStore} do not lock, and the controllers take the
+ * store's per-internship and per-student locks for their changes, so requests touching different
+ * postings do not wait for each other.
+ * </p>
+ */
+public class ApiServer {
+    /**
+     * Page size used when a request does not give one.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Largest request body accepted, in bytes.
+     */
+    private static final int MAX_BODY_BYTES =
+            Math.min(Integer.MAX_VALUE - 1, Math.max(1, Integer.getInteger("ipms.maxRequestBytes", 8 << 20)));
+
+    /**
+     * Underlying HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Virtual-thread-per-request executor.
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Controllers invoked by the routes.
+     */
+    private final AuthenticationController authController = new AuthenticationController();
+    private final StudentController studentController = new StudentController();
+    private final CompanyRepresentativeController repController = new CompanyRepresentativeController();
+    private final CareerCenterStaffController staffController = new CareerCenterStaffController();
+
+    /**
+     * "METHOD /path" -> route.
+     */
+    private final Map<String, Route> routes = new HashMap<>();
+
+    /**
+     * Work done for one route.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * Handle a request.
+         *
+         * @param request parsed request
+         * @return value sent back as JSON, or a {@link RawBody}
+         */
+        Object handle(Request request);
+    }
+
+    /**
+     * A route: the role allowed to call it and its handler.
+     *
+     * @param role    user type required (null for routes that need no session)
+     * @param handler work to do
+     */
+    private record Route(Class<? extends User> role, Handler handler) {
+    }
+
+    /**
+     * A response body that is sent as is instead of as JSON.
+     *
+     * @param contentType content type of the body
+     * @param body        response text
+     */
+    private record RawBody(String contentType, String body) {
+    }
+
+    /**
+     * A request that cannot be served, with the HTTP status to answer.
+     */
+    private static final class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * HTTP status code.
+         */
+        private final int status;
+
+        /**
+         * Create the exception.
+         *
+         * @param status  HTTP status code
+         * @param message message sent to the client
+         */
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Parameters and caller of one request.
+     */
+    private static final class Request {
+        /**
+         * Query string parameters (each may repeat).
+         */
+        private final Map<String, List<String>> query;
+
+        /**
+         * Members of the JSON body.
+         */
+        private final Map<String, Object> body;
+
+        /**
+         * Body text of a {@code text/csv} request (null for JSON bodies).
+         */
+        private final String text;
+
+        /**
+         * Session token presented by the client (null if none).
+         */
+        private final String token;
+
+        /**
+         * User of the session (null for routes that need none).
+         */
+        private User user;
+
+        /**
+         * Create a request.
+         *
+         * @param query query parameters
+         * @param body  JSON body members
+         * @param text  text of a {@code text/csv} body (null if none)
+         * @param token session token
+         */
+        Request(Map<String, List<String>> query, Map<String, Object> body, String text, String token) {
+            this.query = query;
+            this.body = body;
+            this.text = text;
+            this.token = token;
+        }
+
+        /**
+         * Get all values of a query parameter; comma-separated values are split.
+         *
+         * @param name parameter name
+         * @return values (empty if absent)
+         */
+        List<String> params(String name) {
+            List<String> values = new ArrayList<>();
+            for (String value : query.getOrDefault(name, List.of())) {
+                for (String part : value.split(",")) {
+                    if (!part.isBlank()) {
+                        values.add(part.trim());
+                    }
+                }
+            }
+            return values;
+        }
+
+        /**
+         * Get a single query parameter.
+         *
+         * @param name parameter name
+         * @return value, or null if absent
+         */
+        String param(String name) {
+            List<String> values = query.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        /**
+         * Get an optional string member of the body.
+         *
+         * @param name member name
+         * @return value as a string, or null if absent
+         */
+        String optional(String name) {
+            Object value = body.get(name);
+            return value == null ? null : value.toString();
+        }
+
+        /**
+         * Get a required, non-blank string member of the body.
+         *
+         * @param name member name
+         * @return value as a string
+         */
+        String required(String name) {
+            String value = optional(name);
+            if (value == null || value.isBlank()) {
+                throw new ApiException(400, "Missing field '" + name + "'.");
+            }
+            return value;
+        }
+
+        /**
+         * Get an integer member of the body.
+         *
+         * @param name         member name
+         * @param defaultValue value if absent
+         * @return value
+         */
+        int integer(String name, int defaultValue) {
+            Object value = body.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return value instanceof Number n ? Math.toIntExact(n.longValue()) : Integer.parseInt(value.toString());
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new ApiException(400, "Field '" + name + "' must be an integer.");
+            }
+        }
+
+        /**
+         * Get a required array of objects from the body, each wrapped as a request of the same caller
+         * so its members are read with the same checks.
+         *
+         * @param name member name
+         * @return one request per object, in order
+         */
+        List<Request> objects(String name) {
+            if (!(body.get(name) instanceof List<?> values)) {
+                throw new ApiException(400, "Field '" + name + "' must be an array.");
+            }
+            List<Request> objects = new ArrayList<>();
+            for (Object value : values) {
+                if (!(value instanceof Map<?, ?> members)) {
+                    throw new ApiException(400, "Field '" + name + "' must contain objects.");
+                }
+                Map<String, Object> object = new LinkedHashMap<>();
+                members.forEach((key, member) -> object.put(key.toString(), member));
+                Request request = new Request(Map.of(), object, null, token);
+                request.user = user;
+                objects.add(request);
+            }
+            return objects;
+        }
+
+        /**
+         * Get the requested page size.
+         *
+         * @return page size between 1 and {@value #MAX_PAGE_SIZE}
+         */
+        int pageSize() {
+            String value = param("pageSize");
+            if (value == null) {
+                return DEFAULT_PAGE_SIZE;
+            }
+            try {
+                int size = Integer.parseInt(value);
+                if (size >= 1 && size <= MAX_PAGE_SIZE) {
+                    return size;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw new ApiException(400, "pageSize must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Create a server listening on a port and register its routes.
+     *
+     * @param port TCP port (0 picks a free port)
+     * @throws IOException if the port cannot be bound
+     */
+    public ApiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::dispatch);
+        registerRoutes();
+    }
+
+    /**
+     * Start accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, give running requests up to a second to finish, and release the port.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Get the port the server listens on.
+     *
+     * @return bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Register all routes.
+     */
+    private void registerRoutes() {
+        // Sessions
+        route("POST", "/api/login", null, this::login);
+        route("POST", "/api/logout", User.class,
+                r -> Map.of("loggedOut", authController.endSession(r.token)));
+        route("GET", "/api/me", User.class, r -> userJson(r.user));
+
+        // Students
+        route("GET", "/api/student/internships", Student.class, r -> pageJson(
+                studentController.getAvailableInternshipsPage((Student) r.user, r.params("level"),
+                        r.params("company"), r.param("q"), r.param("cursor"), r.pageSize()),
+                ApiServer::internshipJson));
+        route("POST", "/api/student/applications", Student.class, this::apply);
+        route("GET", "/api/student/applications", Student.class, this::myApplications);
+        route("POST", "/api/student/offers/accept", Student.class, this::acceptOffer);
+        route("POST", "/api/student/withdrawals", Student.class, this::requestWithdrawal);
+        route("GET", "/api/student/notifications", Student.class,
+                r -> studentController.checkNotifications((Student) r.user));
+
+        // Company representatives
+        route("GET", "/api/rep/internships", CompanyRepresentative.class, r -> pageJson(
+                repController.viewMyInternshipsPage(((CompanyRepresentative) r.user).getCompanyName(),
+                        r.params("status"), r.params("level"), r.params("major"), r.param("cursor"), r.pageSize()),
+                ApiServer::internshipJson));
+        route("POST", "/api/rep/internships", CompanyRepresentative.class, this::createInternship);
+        route("POST", "/api/rep/internships/edit", CompanyRepresentative.class, this::editInternship);
+        route("POST", "/api/rep/internships/delete", CompanyRepresentative.class, r -> result(
+                repController.deleteInternship(ownInternship(r).getUUID().toString()),
+                "Only pending or rejected internships can be deleted."));
+        route("POST", "/api/rep/internships/visibility", CompanyRepresentative.class, r -> result(
+                repController.toggleInternshipVisibility(ownInternship(r).getUUID().toString(),
+                        Boolean.parseBoolean(r.required("visible")) ? 1 : 2),
+                "Only approved internships can change visibility."));
+        route("GET", "/api/rep/applications", CompanyRepresentative.class, r -> pageJson(
+                repController.getInternshipsWithApplicationsPage(((CompanyRepresentative) r.user).getCompanyName(),
+                        r.params("status"), r.params("level"), r.params("major"), r.param("cursor"), r.pageSize()),
+                e -> {
+                    Map<String, Object> json = internshipJson(e.getKey());
+                    json.put("applications", e.getValue().stream().map(ApiServer::applicationJson).toList());
+                    return json;
+                }));
+        route("POST", "/api/rep/applications/status", CompanyRepresentative.class, this::decideApplication);
+        route("POST", "/api/rep/applications/status/batch", CompanyRepresentative.class, this::decideApplications);
+        route("POST", "/api/rep/applications/reject-pending", CompanyRepresentative.class, r -> {
+            int rejected = repController.rejectPendingApplications(ownInternship(r).getUUID().toString());
+            if (rejected < 0) {
+                throw new ApiException(409, "Applications could not be updated.");
+            }
+            return Map.of("success", true, "changed", rejected);
+        });
+        route("GET", "/api/rep/notifications", CompanyRepresentative.class,
+                r -> repController.checkNotifications((CompanyRepresentative) r.user));
+
+        // Career centre staff
+        route("GET", "/api/staff/registrations", CareerCenterStaff.class,
+                r -> staffController.getPendingRegistrations().stream().map(ApiServer::userJson).toList());
+        route("POST", "/api/staff/registrations/approve", CareerCenterStaff.class,
+                r -> result(staffController.approveRegistration(pendingRegistration(r)), "Approval failed."));
+        route("POST", "/api/staff/registrations/reject", CareerCenterStaff.class,
+                r -> result(staffController.rejectRegistration(pendingRegistration(r)), "Rejection failed."));
+        route("GET", "/api/staff/internships/pending", CareerCenterStaff.class,
+                r -> staffController.getPendingInternships().stream().map(ApiServer::internshipJson).toList());
+        route("POST", "/api/staff/internships/approve", CareerCenterStaff.class,
+                r -> result(staffController.approveInternship(pendingInternship(r)), "Approval failed."));
+        route("POST", "/api/staff/internships/reject", CareerCenterStaff.class,
+                r -> result(staffController.rejectInternship(pendingInternship(r)), "Rejection failed."));
+        route("GET", "/api/staff/withdrawals", CareerCenterStaff.class,
+                r -> staffController.getPendingWithdrawals().stream().map(ApiServer::withdrawalJson).toList());
+        route("POST", "/api/staff/withdrawals/approve", CareerCenterStaff.class,
+                r -> result(staffController.approveWithdrawal(pendingWithdrawal(r)), "Approval failed."));
+        route("POST", "/api/staff/withdrawals/reject", CareerCenterStaff.class,
+                r -> result(staffController.rejectWithdrawal(pendingWithdrawal(r)), "Rejection failed."));
+        route("GET", "/api/staff/internships", CareerCenterStaff.class, r -> pageJson(
+                staffController.viewAllInternshipsPage(r.params("status"), r.params("level"), r.params("company"),
+                        r.params("major"), r.param("q"), r.param("cursor"), r.pageSize()),
+                ApiServer::internshipJson));
+        route("GET", "/api/staff/report", CareerCenterStaff.class, this::report);
+        route("POST", "/api/staff/students/import", CareerCenterStaff.class, this::importStudents);
+    }
+
+    /**
+     * Register one route.
+     *
+     * @param method  HTTP method
+     * @param path    exact request path
+     * @param role    user type required (null if no session is needed)
+     * @param handler work to do
+     */
+    private void route(String method, String path, Class<? extends User> role, Handler handler) {
+        routes.put(method + " " + path, new Route(role, handler));
+    }
+
+    /**
+     * Serve one HTTP exchange: route it, check the caller's session and role, run the handler and
+     * send its result.
+     *
+     * @param exchange the exchange
+     * @throws IOException if the response cannot be sent
+     */
+    private void dispatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status = 200;
+            Object result;
+            try {
+                Route route = routes.get(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+                if (route == null) {
+                    throw new ApiException(404, "No such endpoint.");
+                }
+                Request request = readRequest(exchange);
+                if (route.role() != null) {
+                    request.user = authController.getSessionUser(request.token);
+                    if (request.user == null) {
+                        throw new ApiException(401, "Log in first (missing, invalid or expired session).");
+                    }
+                    if (!route.role().isInstance(request.user)) {
+                        throw new ApiException(403, "Not allowed for your role.");
+                    }
+                }
+                result = route.handler().handle(request);
+            } catch (ApiException e) {
+                status = e.status;
+                result = Map.of("error", e.getMessage());
+            } catch (RuntimeException e) {
+                // Details stay in the server log; they may reveal internals to the client
+                System.err.println("Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath()
+                        + " failed: " + e);
+                e.printStackTrace();
+                status = 500;
+                result = Map.of("error", "Internal error.");
+            }
+
+            String contentType = "application/json; charset=utf-8";
+            String body;
+            if (result instanceof RawBody raw) {
+                contentType = raw.contentType();
+                body = raw.body();
+            } else {
+                body = Json.write(result);
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------ Handlers
+
+    /**
+     * Verify credentials on the hashing pool and start a session.
+     *
+     * @param r request with userId and password
+     * @return token and user
+     */
+    private Object login(Request r) {
+        String token;
+        try {
+            // PBKDF2 runs on the bounded hashing pool, not on this virtual thread
+            token = authController.startSessionAsync(r.required("userId"), r.required("password")).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new ApiException(503, "Too many logins in progress, please try again.");
+            }
+            throw e;
+        }
+        User user = authController.getSessionUser(token);
+        if (user == null) {
+            throw new ApiException(401, "Invalid user ID or password, or account not approved.");
+        }
+        Map<String, Object> json = userJson(user);
+        json.put("token", token);
+        return json;
+    }
+
+    /**
+     * Apply for an internship as the calling student.
+     *
+     * @param r request with internshipId
+     * @return success marker
+     */
+    private Object apply(Request r) {
+        Student student = (Student) r.user;
+        if (!studentController.canApply(student)) {
+            throw new ApiException(409, "You cannot apply: an offer is already accepted or you have 3 active applications.");
+        }
+        Internship internship = studentController.findAvailableInternship(student, r.required("internshipId"));
+        if (internship == null) {
+            throw new ApiException(404, "Internship not found or not open to you.");
+        }
+        return result(studentController.applyForInternship(student, internship), "Application could not be saved.");
+    }
+
+    /**
+     * List the calling student's applications.
+     *
+     * @param r request
+     * @return applications with their internships
+     */
+    private Object myApplications(Request r) {
+        Student student = (Student) r.user;
+        Set<String> pendingWithdrawals = studentController.getPendingWithdrawalRequests(student);
+        List<Map<String, Object>> json = new ArrayList<>();
+        studentController.getMyApplications(student).forEach((application, internship) -> {
+            Map<String, Object> item = applicationJson(application);
+            item.put("internship", internshipJson(internship));
+            item.put("withdrawalPending", pendingWithdrawals.contains(internship.getUUID().toString()));
+            json.add(item);
+        });
+        return json;
+    }
+
+    /**
+     * Accept a successful application of the calling student.
+     *
+     * @param r request with internshipId
+     * @return success marker
+     */
+    private Object acceptOffer(Request r) {
+        Student student = (Student) r.user;
+        Application application = myApplication(student, r.required("internshipId"));
+        if (!"Successful".equalsIgnoreCase(application.getStatus())) {
+            throw new ApiException(409, "Only 'Successful' applications can be accepted.");
+        }
+        return result(studentController.acceptOffer(student, application),
+                "Offer could not be accepted (another offer may already be accepted, or no slots are left).");
+    }
+
+    /**
+     * Request withdrawal from an application of the calling student.
+     *
+     * @param r request with internshipId
+     * @return success marker
+     */
+    private Object requestWithdrawal(Request r) {
+        Student student = (Student) r.user;
+        String internshipId = r.required("internshipId");
+        Application application = myApplication(student, internshipId);
+        String status = application.getStatus();
+        if (!"Pending".equalsIgnoreCase(status) && !"Successful".equalsIgnoreCase(status)
+                && !"Accepted".equalsIgnoreCase(status)) {
+            throw new ApiException(409, "This application cannot be withdrawn.");
+        }
+        if (studentController.getPendingWithdrawalRequests(student).contains(internshipId)) {
+            throw new ApiException(409, "A withdrawal request for this application is already pending.");
+        }
+        return result(studentController.requestWithdrawal(application), "Withdrawal request could not be saved.");
+    }
+
+    /**
+     * Create an internship for the calling representative's company.
+     *
+     * @param r request with title, description, level, preferredMajor, openingDate, closingDate, slots
+     * @return success marker
+     */
+    private Object createInternship(Request r) {
+        CompanyRepresentative rep = (CompanyRepresentative) r.user;
+        if (!repController.canCreateMoreInternships(rep.getCompanyName())) {
+            throw new ApiException(409, "Your company has reached the maximum number of internships.");
+        }
+        int slots = r.integer("slots", -1);
+        if (slots < 1 || slots > 10) {
+            throw new ApiException(400, "slots must be between 1 and 10.");
+        }
+        return result(repController.createInternship(r.required("title"), r.required("description"),
+                        level(r.required("level")), r.required("preferredMajor"), r.required("openingDate"),
+                        r.required("closingDate"), rep.getCompanyName(), rep.getUserID(), slots),
+                "Internship could not be created (check the dates).");
+    }
+
+    /**
+     * Edit a pending internship of the calling representative's company; absent fields are kept.
+     *
+     * @param r request with internshipId and any fields to change
+     * @return success marker
+     */
+    private Object editInternship(Request r) {
+        Internship internship = ownInternship(r);
+        String level = r.optional("level");
+        return result(repController.editInternship(internship.getUUID().toString(), r.optional("title"),
+                        r.optional("description"), level == null ? null : level(level), r.optional("preferredMajor"),
+                        r.optional("openingDate"), r.optional("closingDate"), r.integer("slots", 0)),
+                "Only pending internships can be edited (and dates must be yyyy-MM-dd).");
+    }
+
+    /**
+     * Mark an application to one of the calling representative's internships as successful or not.
+     *
+     * @param r request with internshipId, studentId and status
+     * @return success marker
+     */
+    private Object decideApplication(Request r) {
+        Internship internship = ownInternship(r);
+        return result(repController.updateApplicationStatus(internship.getUUID().toString(),
+                r.required("studentId"), decisionStatus(r.required("status"))), "Application not found.");
+    }
+
+    /**
+     * Apply decisions on several applications to the calling representative's internships at once;
+     * either all are applied or none is.
+     *
+     * @param r request with decisions, an array of objects with internshipId, studentId and status
+     * @return success marker and the number of applications whose status changed
+     */
+    private Object decideApplications(Request r) {
+        List<ApplicationDecision> decisions = new ArrayList<>();
+        for (Request decision : r.objects("decisions")) {
+            decisions.add(new ApplicationDecision(ownInternship(decision).getUUID().toString(),
+                    decision.required("studentId"), decisionStatus(decision.required("status"))));
+        }
+        int changed = repController.updateApplicationStatuses(decisions);
+        if (changed < 0) {
+            throw new ApiException(409, "Decisions not applied: an application was not found or was listed twice.");
+        }
+        return Map.of("success", true, "changed", changed);
+    }
+
+    /**
+     * Normalize an application decision.
+     *
+     * @param status status given by the client
+     * @return Successful or Unsuccessful
+     */
+    private static String decisionStatus(String status) {
+        if (!"Successful".equalsIgnoreCase(status) && !"Unsuccessful".equalsIgnoreCase(status)) {
+            throw new ApiException(400, "status must be Successful or Unsuccessful.");
+        }
+        return "Successful".equalsIgnoreCase(status) ? "Successful" : "Unsuccessful";
+    }
+
+    /**
+     * Produce the staff report.
+     *
+     * @param r request with optional format (txt, csv or jsonl)
+     * @return the report body
+     */
+    private Object report(Request r) {
+        String extension = r.param("format") == null ? "txt" : r.param("format");
+        for (ReportFormat format : ReportFormat.values()) {
+            if (format.getExtension().equalsIgnoreCase(extension)) {
+                StringBuilder out = new StringBuilder();
+                try {
+                    staffController.writeReport(out, format);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e); // Appending to a StringBuilder does not fail
+                }
+                String contentType = switch (format) {
+                    case CSV -> "text/csv; charset=utf-8";
+                    case JSON_LINES -> "application/jsonl; charset=utf-8";
+                    default -> "text/plain; charset=utf-8";
+                };
+                return new RawBody(contentType, out.toString());
+            }
+        }
+        throw new ApiException(400, "format must be txt, csv or jsonl.");
+    }
+
+    /**
+     * Import students from a roster uploaded as the request body. The roster is never read from a
+     * server path, so clients cannot make the server open its own files.
+     *
+     * @param r request with a {@code text/csv} body holding the roster
+     * @return import outcome
+     */
+    private Object importStudents(Request r) {
+        if (r.text == null) {
+            throw new ApiException(415, "Send the roster as a text/csv request body.");
+        }
+        ImportResult result = staffController.importStudents(new StringReader(r.text));
+        if (result == null) {
+            throw new ApiException(409, "Import failed. No students were added.");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("rowsRead", result.getRowsRead());
+        json.put("imported", result.getImported());
+        json.put("rejected", result.getRejections());
+        json.put("elapsedMillis", result.getElapsedMillis());
+        json.put("rowsPerSecond", result.getRowsPerSecond());
+        return json;
+    }
+
+    // ------------------------------------------------------------------ Lookups
+
+    /**
+     * Find an application of a student by internship.
+     *
+     * @param student      the student
+     * @param internshipId internship UUID string
+     * @return the application
+     */
+    private Application myApplication(Student student, String internshipId) {
+        for (Application application : studentController.getMyApplications(student).keySet()) {
+            if (application.getUUID().toString().equals(internshipId)) {
+                return application;
+            }
+        }
+        throw new ApiException(404, "You have no application for this internship.");
+    }
+
+    /**
+     * Find an internship of the calling representative's company.
+     *
+     * @param r request with internshipId
+     * @return the internship
+     */
+    private Internship ownInternship(Request r) {
+        String internshipId = r.required("internshipId");
+        String company = ((CompanyRepresentative) r.user).getCompanyName();
+        for (Internship internship : repController.viewMyInternships(company, null, null, null)) {
+            if (internship.getUUID().toString().equals(internshipId)) {
+                return internship;
+            }
+        }
+        throw new ApiException(404, "Internship not found in your company.");
+    }
+
+    /**
+     * Find a pending company representative registration.
+     *
+     * @param r request with email
+     * @return the representative
+     */
+    private CompanyRepresentative pendingRegistration(Request r) {
+        String email = r.required("email");
+        for (CompanyRepresentative rep : staffController.getPendingRegistrations()) {
+            if (rep.getUserID().equalsIgnoreCase(email)) {
+                return rep;
+            }
+        }
+        throw new ApiException(404, "No pending registration for " + email + ".");
+    }
+
+    /**
+     * Find an internship awaiting approval.
+     *
+     * @param r request with internshipId
+     * @return the internship
+     */
+    private Internship pendingInternship(Request r) {
+        String internshipId = r.required("internshipId");
+        for (Internship internship : staffController.getPendingInternships()) {
+            if (internship.getUUID().toString().equals(internshipId)) {
+                return internship;
+            }
+        }
+        throw new ApiException(404, "No pending internship " + internshipId + ".");
+    }
+
+    /**
+     * Find a pending withdrawal request.
+     *
+     * @param r request with internshipId and studentId
+     * @return the withdrawal
+     */
+    private Withdrawal pendingWithdrawal(Request r) {
+        String internshipId = r.required("internshipId");
+        String studentId = r.required("studentId");
+        for (Withdrawal withdrawal : staffController.getPendingWithdrawals()) {
+            if (withdrawal.getUUID().toString().equals(internshipId) && withdrawal.getUserId().equals(studentId)) {
+                return withdrawal;
+            }
+        }
+        throw new ApiException(404, "No pending withdrawal request for this internship and student.");
+    }
+
+    /**
+     * Normalize an internship level.
+     *
+     * @param level level given by the client
+     * @return Basic, Intermediate or Advanced
+     */
+    private static String level(String level) {
+        for (String known : List.of("Basic", "Intermediate", "Advanced")) {
+            if (known.equalsIgnoreCase(level.trim())) {
+                return known;
+            }
+        }
+        throw new ApiException(400, "level must be Basic, Intermediate or Advanced.");
+    }
+
+    /**
+     * Turn a controller's success flag into a response.
+     *
+     * @param success     controller result
+     * @param failureText message if it failed
+     * @return success marker
+     */
+    private static Object result(boolean success, String failureText) {
+        if (!success) {
+            throw new ApiException(409, failureText);
+        }
+        return Map.of("success", true);
+    }
+
+    // ------------------------------------------------------------------ JSON shapes
+
+    /**
+     * Convert a page to JSON.
+     *
+     * @param page   page from a controller (null if the cursor or page size was invalid)
+     * @param toJson conversion of one item
+     * @param <T>    item type
+     * @return items and next cursor
+     */
+    private static <T> Object pageJson(Page<T> page, Function<T, Object> toJson) {
+        if (page == null) {
+            throw new ApiException(400, "Invalid cursor.");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("items", page.getItems().stream().map(toJson).toList());
+        json.put("nextCursor", page.getNextCursor());
+        return json;
+    }
+
+    /**
+     * Convert an internship to JSON.
+     *
+     * @param i internship
+     * @return JSON object
+     */
+    private static Map<String, Object> internshipJson(Internship i) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", i.getUUID().toString());
+        json.put("title", i.getTitle());
+        json.put("description", i.getDescription());
+        json.put("level", i.getLevel());
+        json.put("preferredMajor", i.getPreferredMajor());
+        json.put("openingDate", i.getOpeningDate());
+        json.put("closingDate", i.getClosingDate());
+        json.put("status", i.getStatus());
+        json.put("companyName", i.getCompanyName());
+        json.put("slots", i.getNumberOfSlots());
+        json.put("visible", i.isVisible());
+        return json;
+    }
+
+    /**
+     * Convert an application to JSON.
+     *
+     * @param a application
+     * @return JSON object
+     */
+    private static Map<String, Object> applicationJson(Application a) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("internshipId", a.getUUID().toString());
+        json.put("studentId", a.getUserId());
+        json.put("name", a.getName());
+        json.put("email", a.getEmail());
+        json.put("major", a.getMajor());
+        json.put("year", a.getYear());
+        json.put("submittedDate", a.getSubmittedDate());
+        json.put("status", a.getStatus());
+        return json;
+    }
+
+    /**
+     * Convert a withdrawal request to JSON.
+     *
+     * @param w withdrawal request
+     * @return JSON object
+     */
+    private static Map<String, Object> withdrawalJson(Withdrawal w) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("internshipId", w.getUUID().toString());
+        json.put("studentId", w.getUserId());
+        json.put("name", w.getName());
+        json.put("submittedDate", w.getSubmittedDate());
+        json.put("status", w.getStatus());
+        return json;
+    }
+
+    /**
+     * Convert a user to JSON (without the password hash).
+     *
+     * @param user user
+     * @return JSON object
+     */
+    private static Map<String, Object> userJson(User user) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("userId", user.getUserID());
+        json.put("name", user.getName());
+        json.put("email", user.getEmail());
+        switch (user) {
+            case Student s -> {
+                json.put("role", "student");
+                json.put("major", s.getMajor());
+                json.put("year", s.getYearOfStudy());
+            }
+            case CompanyRepresentative rep -> {
+                json.put("role", "companyRepresentative");
+                json.put("companyName", rep.getCompanyName());
+                json.put("department", rep.getDepartment());
+                json.put("position", rep.getPosition());
+                json.put("status", rep.getStatus());
+            }
+            case CareerCenterStaff staff -> json.put("role", "staff");
+            default -> json.put("role", "unknown");
+        }
+        return json;
+    }
+
+    // ------------------------------------------------------------------ HTTP helpers
+
+    /**
+     * Read the session token from the Authorization header.
+     *
+     * @param exchange the exchange
+     * @return token, or null if none was sent
+     */
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return null;
+        }
+        return header.substring(7).trim();
+    }
+
+    /**
+     * Parse the query, body and session token of a request. A POST body is parsed as a JSON object,
+     * or kept as text if it is sent as {@code text/csv}.
+     *
+     * @param exchange the exchange
+     * @return parsed request
+     * @throws IOException if the body cannot be read
+     */
+    private static Request readRequest(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String token = bearerToken(exchange);
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            return new Request(query, Map.of(), null, token);
+        }
+        String body = readBody(exchange);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.regionMatches(true, 0, "text/csv", 0, 8)) {
+            return new Request(query, Map.of(), body, token);
+        }
+        try {
+            return new Request(query, Json.parseObject(body), null, token);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, e.getMessage());
+        }
+    }
+
+    /**
+     * Read a request body of at most {@link #MAX_BODY_BYTES} bytes.
+     *
+     * @param exchange the exchange
+     * @return body text
+     * @throws IOException if the body cannot be read
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes.");
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Parse a URL query string.
+     *
+     * @param rawQuery raw (still encoded) query, or null
+     * @return parameter name -> values
+     */
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+        return query;
+    }
+}
@@ -24,7 +24,7 @@ public class AuthenticationInterface implements CommandLineInterface {
     /**
      * Controller responsible for authentication operations (login/register/change password).
      */
-    private AuthenticationController authController = new AuthenticationController();
+    private final AuthenticationController authController = new AuthenticationController();
 
     /**
      * Displays the main authentication menu and handles user input until the user exits.
@@ -65,7 +65,7 @@ public class AuthenticationInterface implements CommandLineInterface {
 
     /**
      * Prompts for credentials and attempts to log the user in.
-     * On success, shows the role-specific menu.
+     * On success, shows the role-specific menu and ends the session when the user logs out of it.
      */
     private void handleLogin() {
         System.out.print("Enter User ID: ");
@@ -73,14 +73,21 @@ public class AuthenticationInterface implements CommandLineInterface {
         System.out.print("Enter Password: ");
         String password = scanner.nextLine();
 
-        User loggedInUser = authController.login(userID, password);
+        String token = authController.startSession(userID, password);
+        User loggedInUser = token == null ? null : authController.getSessionUser(token);
 
         if (loggedInUser == null) {
             System.err.println("Login failed.");
         } else {
             System.out.println("Login successful! Welcome, " + loggedInUser.getName());
             // Now, show the correct menu based on the user's role
-            showUserMenu(loggedInUser);
+            try {
+                showUserMenu(loggedInUser);
+            } finally {
+                // Logging out of the role menu ends the session, so the next person at this
+                // console cannot act as this user
+                authController.endSession(token);
+            }
         }
     }
 
@@ -142,6 +149,7 @@ public class AuthenticationInterface implements CommandLineInterface {
 
     /**
      * Prompts for current credentials and a new password, and attempts to change the user's password.
+     * The current password is always required, since this menu is shown to whoever is at the console.
      */
     private void handleChangePassword() {
         System.out.print("Enter User ID: ");
@@ -185,25 +193,18 @@ public class AuthenticationInterface implements CommandLineInterface {
             System.out.println("Student login successful!");
 
             studentMenu.display();
-
-            authController = new AuthenticationController();
-
         } else if (user instanceof CareerCenterStaff) {
             CommandLineInterface staffMenu = new CareerCenterStaffInterface((CareerCenterStaff) user);
 
             System.out.println("Staff login successful!");
 
             staffMenu.display();
-
-            authController = new AuthenticationController();
         } else if (user instanceof CompanyRepresentative) {
             CommandLineInterface repMenu = new CompanyRepresentativeInterface((CompanyRepresentative) user);
 
             System.out.println("Company representative login successful!");
 
             repMenu.display();
-
-            authController = new AuthenticationController();
         }
     }
 }
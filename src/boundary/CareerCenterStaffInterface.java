@@ -1,11 +1,16 @@
 package boundary;
 
 import control.CareerCenterStaffController;
+import control.ImportResult;
+import control.Page;
+import control.ReportFormat;
 import entity.CareerCenterStaff;
 import entity.CompanyRepresentative;
 import entity.Internship;
 import entity.Withdrawal;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -42,6 +47,16 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
     private final List<String> companyFilters = new ArrayList<>();
     private final List<String> majorFilters = new ArrayList<>();
 
+    /**
+     * Number of internships shown per page.
+     */
+    private static final int PAGE_SIZE = 10;
+
+    /**
+     * Keyword search applied when viewing internships (empty = none).
+     */
+    private String keywords = "";
+
     /**
      * Construct the staff interface for a given staff user.
      *
@@ -67,7 +82,8 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
             System.out.println("4. Generate Internship Reports");
             System.out.println("5. Set Internship Filters");
             System.out.println("6. View All Internships (with filters)");
-            System.out.println("7. Logout");
+            System.out.println("7. Import Students from Roster");
+            System.out.println("8. Logout");
             System.out.print("Enter your choice: ");
 
             String choice = scanner.nextLine();
@@ -92,6 +108,9 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
                     handleViewAllInternships(); // Updated method
                     break;
                 case "7":
+                    handleImportStudents();
+                    break;
+                case "8":
                     running = false; // Exits the while loop
                     break;
                 default:
@@ -361,10 +380,71 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
         // Display the generated report
         System.out.println(report);
 
-        // Pause for user to read
         System.out.println("========================================");
-        System.out.print("\nPress Enter to return to the menu...");
-        scanner.nextLine();
+        handleExportReport();
+    }
+
+    /**
+     * Offers to export the report to a file in text, CSV or JSON Lines format.
+     */
+    private void handleExportReport() {
+        System.out.println("\nExport this report to a file?");
+        System.out.println("1. Text");
+        System.out.println("2. CSV");
+        System.out.println("3. JSON Lines");
+        System.out.println("0. No, return to the menu");
+        System.out.print("Enter your choice: ");
+        ReportFormat format;
+        switch (scanner.nextLine().trim()) {
+            case "1":
+                format = ReportFormat.TEXT;
+                break;
+            case "2":
+                format = ReportFormat.CSV;
+                break;
+            case "3":
+                format = ReportFormat.JSON_LINES;
+                break;
+            default:
+                return;
+        }
+
+        String defaultName = "internship_report." + format.getExtension();
+        System.out.print("Enter file name (Enter for " + defaultName + "): ");
+        String fileName = scanner.nextLine().trim();
+        Path file = Paths.get(fileName.isEmpty() ? defaultName : fileName);
+        if (staffController.exportReport(file, format)) {
+            System.out.println("Report exported to " + file.toAbsolutePath());
+        } else {
+            System.out.println("Failed to export report.");
+        }
+    }
+
+    /**
+     * Prompts for a roster file, imports its students and prints the outcome with any rejected rows.
+     */
+    private void handleImportStudents() {
+        System.out.println("\n--- Import Students from Roster ---");
+        System.out.println("Expected columns: StudentID,Name,Major,Year,Email[,Password] (blank password = default)");
+        System.out.print("Enter roster file path (or press Enter to cancel): ");
+        String fileName = scanner.nextLine().trim();
+        if (fileName.isEmpty()) {
+            return;
+        }
+
+        ImportResult result = staffController.importStudents(Paths.get(fileName));
+        if (result == null) {
+            System.out.println("Import failed. No students were added.");
+            return;
+        }
+        System.out.printf("Imported %d of %d rows in %.1f ms (%.0f rows/s).%n",
+                result.getImported(), result.getRowsRead(), result.getElapsedMillis(), result.getRowsPerSecond());
+        if (!result.getRejections().isEmpty()) {
+            System.out.println("Rejected rows (" + result.getRejections().size() + "):");
+            for (String rejection : result.getRejections()) {
+                System.out.println(" - " + rejection);
+            }
+        }
     }
 
     /**
@@ -441,10 +521,29 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
         manageFilterList("Level", levelFilters);
         manageFilterList("Company", companyFilters);
         manageFilterList("Major", majorFilters);
+        manageKeywords();
 
         System.out.println("\nAll filters updated successfully.");
     }
 
+    /**
+     * Prompts for the keyword search applied when listing internships.
+     */
+    private void manageKeywords() {
+        System.out.println("\n--- Managing 'Keywords' Filter ---");
+        System.out.println("Current keywords: " + (keywords.isEmpty() ? "[None]" : keywords));
+        System.out.println("Matches words in the title or description that start with each keyword.");
+        System.out.print("Enter keywords (Enter to keep, '-' to clear): ");
+        String input = scanner.nextLine().trim();
+        if (input.equals("-")) {
+            keywords = "";
+            System.out.println("Keywords cleared.");
+        } else if (!input.isEmpty()) {
+            keywords = input;
+            System.out.println("Keywords set to: " + keywords);
+        }
+    }
+
     /**
      * Views all internships using the currently set filters and displays summary information.
      */
@@ -457,30 +556,49 @@ public class CareerCenterStaffInterface implements CommandLineInterface {
         System.out.println("  Level: " + (levelFilters.isEmpty() ? "[Any]" : levelFilters));
         System.out.println("  Company: " + (companyFilters.isEmpty() ? "[Any]" : companyFilters));
         System.out.println("  Major: " + (majorFilters.isEmpty() ? "[Any]" : majorFilters));
+        System.out.println("  Keywords: " + (keywords.isEmpty() ? "[Any]" : keywords));
         System.out.println("---------------------------------");
 
-        // 2. Call the controller with the saved filter lists
-        List<Internship> filteredInternships = staffController.viewAllInternships(
-                statusFilters, levelFilters, companyFilters, majorFilters
-        );
+        // 2. Call the controller with the saved filters, one page at a time
+        //    (ranked by relevance when searching by keywords)
+        String cursor = null;
+        int index = 1;
+        while (true) {
+            Page<Internship> page = staffController.viewAllInternshipsPage(
+                    statusFilters, levelFilters, companyFilters, majorFilters, keywords, cursor, PAGE_SIZE
+            );
+            if (page == null) {
+                System.out.println("Unable to list internships. Please try again.");
+                return;
+            }
 
-        // 3. Display the results
-        if (filteredInternships.isEmpty()) {
-            System.out.println("No internships found matching the current filters.");
-            return;
-        }
+            // 3. Display the results
+            if (page.getItems().isEmpty()) {
+                if (cursor == null) {
+                    System.out.println("No internships found matching the current filters.");
+                }
+                return;
+            }
 
-        System.out.println("Found " + filteredInternships.size() + " internship(s):");
-        int index = 1;
-        for (Internship internship : filteredInternships) {
-            System.out.println("\n--- Internship #" + index++ + " ---");
-            System.out.println("Title: " + internship.getTitle() + " @ " + internship.getCompanyName());
-            System.out.println("Status: " + internship.getStatus() + " | Level: " + internship.getLevel());
-            System.out.println("Major: " + internship.getPreferredMajor() + " | Slots: " + internship.getNumberOfSlots());
-            System.out.println("Application Period: " + internship.getOpeningDate() + " -> " + internship.getClosingDate());
-            String visibilityDisplay = internship.isVisible() ? "ON" : "OFF";
-            System.out.println("Visibility: " + visibilityDisplay);
+            for (Internship internship : page.getItems()) {
+                System.out.println("\n--- Internship #" + index++ + " ---");
+                System.out.println("Title: " + internship.getTitle() + " @ " + internship.getCompanyName());
+                System.out.println("Status: " + internship.getStatus() + " | Level: " + internship.getLevel());
+                System.out.println("Major: " + internship.getPreferredMajor() + " | Slots: " + internship.getNumberOfSlots());
+                System.out.println("Application Period: " + internship.getOpeningDate() + " -> " + internship.getClosingDate());
+                String visibilityDisplay = internship.isVisible() ? "ON" : "OFF";
+                System.out.println("Visibility: " + visibilityDisplay);
+            }
+            System.out.println("==============================================");
+
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("Press Enter for the next page (or 0 to stop): ");
+            if (scanner.nextLine().trim().equals("0")) {
+                return;
+            }
+            cursor = page.getNextCursor();
         }
-        System.out.println("==============================================");
     }
 }
@@ -1,6 +1,8 @@
 package boundary;
 
+import control.ApplicationDecision;
 import control.CompanyRepresentativeController;
+import control.Page;
 import entity.Application;
 import entity.CompanyRepresentative;
 import entity.Internship;
@@ -23,6 +25,11 @@ public class CompanyRepresentativeInterface implements CommandLineInterface {
      */
     private final Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Number of internships shown per page.
+     */
+    private static final int PAGE_SIZE = 10;
+
     /**
      * Controller that encapsulates company representative operations.
      */
@@ -529,7 +536,7 @@ public class CompanyRepresentativeInterface implements CommandLineInterface {
     /**
      * Deletes a selected internship after confirmation.
      * <p>
-     * Only pending internships can be deleted. Displays filtered internships and prompts
+     * Only pending or rejected internships can be deleted. Displays filtered internships and prompts
      * for selection before deletion.
      * </p>
      */
@@ -596,58 +603,69 @@ public class CompanyRepresentativeInterface implements CommandLineInterface {
         System.out.println("  Major: " + (majorFilters.isEmpty() ? "[Any]" : majorFilters));
         System.out.println("---------------------------------");
 
-        // Use the new controller method to get structured data: Map<Internship UUID, List<Application>>
-        Map<String, List<Application>> applicationsByInternship =
-                companyRepController.getInternshipsWithApplications(companyRep.getCompanyName());
-
-        if (applicationsByInternship.isEmpty()) {
-            System.out.println("No internships found for " + companyRep.getCompanyName() + ", or unable to read application data.");
-            return;
-        }
-
-        // Get the list of the company's internship objects to iterate in order
-        List<Internship> myInternships = companyRepController.viewMyInternships(companyRep.getCompanyName(), statusFilters, levelFilters, majorFilters);
-
-        // 1. Iterate through each internship posted by the company
+        // Fetch the company's internships with their applications one page at a time
+        String cursor = null;
         int index = 1;
-        for (Internship internship : myInternships) {
-            String internshipUUID = internship.getUUID().toString();
-            List<Application> applications = applicationsByInternship.getOrDefault(internshipUUID, List.of());
+        while (true) {
+            Page<Map.Entry<Internship, List<Application>>> page = companyRepController.getInternshipsWithApplicationsPage(
+                    companyRep.getCompanyName(), statusFilters, levelFilters, majorFilters, cursor, PAGE_SIZE);
 
-            // A. Print Internship Details
-            System.out.println("\n-----------------------------------------");
-            System.out.println("Internship #" + index++ + " - " + internship.getTitle());
-            System.out.println("UUID: " + internship.getUUID());
-            System.out.println("Status: " + internship.getStatus());
-            System.out.println("-----------------------------------------");
+            if (page == null || (cursor == null && page.getItems().isEmpty())) {
+                System.out.println("No internships found for " + companyRep.getCompanyName() + ", or unable to read application data.");
+                return;
+            }
 
-            // B. Print Applications for This Internship
-            if (applications.isEmpty()) {
-                System.out.println("--> No applications received yet for this posting.");
-            } else {
-                System.out.println("APPLICATIONS (" + applications.size() + " Total):");
-                int appIndex = 1;
-                for (Application app : applications) {
-                    System.out.printf("   %d. Name: %s | Major: %s | Year: %d | Submitted: %s | Status: %s%n",
-                            appIndex++,
-                            app.getName(),
-                            app.getMajor(),
-                            app.getYear(),
-                            app.getSubmittedDate(),
-                            app.getStatus()
-                    );
+            // 1. Iterate through each internship posted by the company
+            for (Map.Entry<Internship, List<Application>> entry : page.getItems()) {
+                Internship internship = entry.getKey();
+                List<Application> applications = entry.getValue();
+
+                // A. Print Internship Details
+                System.out.println("\n-----------------------------------------");
+                System.out.println("Internship #" + index++ + " - " + internship.getTitle());
+                System.out.println("UUID: " + internship.getUUID());
+                System.out.println("Status: " + internship.getStatus());
+                System.out.println("-----------------------------------------");
+
+                // B. Print Applications for This Internship
+                if (applications.isEmpty()) {
+                    System.out.println("--> No applications received yet for this posting.");
+                } else {
+                    System.out.println("APPLICATIONS (" + applications.size() + " Total):");
+                    int appIndex = 1;
+                    for (Application app : applications) {
+                        System.out.printf("   %d. Name: %s | Major: %s | Year: %d | Submitted: %s | Status: %s%n",
+                                appIndex++,
+                                app.getName(),
+                                app.getMajor(),
+                                app.getYear(),
+                                app.getSubmittedDate(),
+                                app.getStatus()
+                        );
+                    }
                 }
             }
-        }
 
-        System.out.println("\n==========================================");
+            System.out.println("\n==========================================");
+
+            if (!page.hasNext()) {
+                return;
+            }
+            System.out.print("Press Enter for the next page (or 0 to stop): ");
+            if (scanner.nextLine().trim().equals("0")) {
+                return;
+            }
+            cursor = page.getNextCursor();
+        }
     }
 
     /**
-     * Allows the representative to manage (approve/reject) individual applications.
+     * Allows the representative to manage (approve/reject) applications.
      * <p>
      * First prompts to select an internship, then displays its applications and allows
-     * updating individual application statuses to "Successful" or "Unsuccessful".
+     * updating one application's status to "Successful" or "Unsuccessful", deciding several
+     * at once, or marking all remaining pending applications as "Unsuccessful". Batch decisions
+     * are applied together and saved once.
      * </p>
      */
     private void handleManageApplications() {
@@ -698,6 +716,19 @@ public class CompanyRepresentativeInterface implements CommandLineInterface {
         }
         System.out.println("-------------------------------------------------");
 
+        switch (promptForDecisionMode()) {
+            case "2":
+                handleDecideSeveralApplications(internshipUUID, applications);
+                return;
+            case "3":
+                handleRejectRemainingApplications(internshipUUID);
+                return;
+            case "0":
+                return;
+            default:
+                break; // Decide one application below
+        }
+
         int studentNumber = promptForStudentNumber(applications.size());
         if (studentNumber == -1) return;
 
@@ -727,6 +758,135 @@ public class CompanyRepresentativeInterface implements CommandLineInterface {
         }
     }
 
+    /**
+     * Prompts for how to decide the listed applications.
+     *
+     * @return "1" (one application), "2" (several at once), "3" (reject all remaining pending) or "0" (cancel)
+     */
+    private String promptForDecisionMode() {
+        while (true) {
+            System.out.println("\n1. Decide one application");
+            System.out.println("2. Decide several applications at once");
+            System.out.println("3. Mark all remaining Pending applications as Unsuccessful");
+            System.out.println("0. Cancel");
+            System.out.print("Enter your choice: ");
+            String choice = scanner.nextLine().trim();
+            if (choice.equals("0")) {
+                System.out.println("Cancelled Operation.");
+                return choice;
+            }
+            if (choice.equals("1") || choice.equals("2") || choice.equals("3")) {
+                return choice;
+            }
+            System.out.println("Invalid choice. Please enter 1, 2, 3, or 0.");
+        }
+    }
+
+    /**
+     * Decides several applications of one internship in a single batch: the representative lists the
+     * applications to approve and those to reject, and all decisions are applied together.
+     *
+     * @param internshipUUID internship whose applications are decided
+     * @param applications   applications as listed to the representative
+     */
+    private void handleDecideSeveralApplications(String internshipUUID, List<Application> applications) {
+        Set<Integer> approve = promptForApplicationNumbers("approve", applications.size());
+        if (approve == null) return;
+        Set<Integer> reject = promptForApplicationNumbers("reject", applications.size());
+        if (reject == null) return;
+
+        for (Integer number : approve) {
+            if (reject.contains(number)) {
+                System.err.println("Error: Application " + number + " cannot be both approved and rejected.");
+                return;
+            }
+        }
+        if (approve.isEmpty() && reject.isEmpty()) {
+            System.out.println("No applications selected.");
+            return;
+        }
+
+        List<ApplicationDecision> decisions = new ArrayList<>();
+        for (Integer number : approve) {
+            decisions.add(new ApplicationDecision(internshipUUID, applications.get(number - 1).getUserId(), "Successful"));
+        }
+        for (Integer number : reject) {
+            decisions.add(new ApplicationDecision(internshipUUID, applications.get(number - 1).getUserId(), "Unsuccessful"));
+        }
+
+        int changed = companyRepController.updateApplicationStatuses(decisions);
+        if (changed >= 0) {
+            System.out.println("\nSuccess: " + approve.size() + " application(s) approved and " + reject.size()
+                    + " rejected (" + changed + " status change(s)).");
+        } else {
+            System.err.println("\nError: Failed to update the applications. No status was changed.");
+        }
+    }
+
+    /**
+     * Marks every application of an internship that is still pending as unsuccessful, after confirmation.
+     *
+     * @param internshipUUID internship whose pending applications are rejected
+     */
+    private void handleRejectRemainingApplications(String internshipUUID) {
+        System.out.print("Mark all remaining Pending applications as Unsuccessful? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println("Cancelled Operation.");
+            return;
+        }
+        int rejected = companyRepController.rejectPendingApplications(internshipUUID);
+        if (rejected >= 0) {
+            System.out.println("\nSuccess: " + rejected + " pending application(s) marked as Unsuccessful.");
+        } else {
+            System.err.println("\nError: Failed to update the applications.");
+        }
+    }
+
+    /**
+     * Prompts for a selection of application numbers such as "1,3,5-7".
+     *
+     * @param action word describing what happens to the selection (shown in the prompt)
+     * @param max    highest valid application number
+     * @return selected numbers in ascending order (empty if none), or null if the user cancels
+     */
+    private Set<Integer> promptForApplicationNumbers(String action, int max) {
+        while (true) {
+            System.out.print("Enter application numbers to " + action + " (e.g. 1,3,5-7; blank for none; 0 to Cancel): ");
+            String input = scanner.nextLine().trim();
+            if (input.equals("0")) {
+                System.out.println("Cancelled Operation.");
+                return null;
+            }
+            Set<Integer> numbers = new TreeSet<>();
+            boolean valid = true;
+            for (String part : input.split(",")) {
+                part = part.trim();
+                if (part.isEmpty()) {
+                    continue;
+                }
+                try {
+                    int dash = part.indexOf('-');
+                    int from = Integer.parseInt((dash < 0 ? part : part.substring(0, dash)).trim());
+                    int to = dash < 0 ? from : Integer.parseInt(part.substring(dash + 1).trim());
+                    if (from < 1 || to > max || from > to) {
+                        valid = false;
+                        break;
+                    }
+                    for (int number = from; number <= to; number++) {
+                        numbers.add(number);
+                    }
+                } catch (NumberFormatException e) {
+                    valid = false;
+                    break;
+                }
+            }
+            if (valid) {
+                return numbers;
+            }
+            System.out.println("Invalid input. Please enter numbers or ranges between 1 and " + max + ".");
+        }
+    }
+
     /**
      * Toggles the visibility of an approved internship posting.
      * <p>
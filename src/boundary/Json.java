@@ -0,0 +1,357 @@
+package boundary;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader and writer for the HTTP API.
+ * <p>
+ * Writes maps (as objects), collections (as arrays), strings, numbers, booleans, dates (as ISO
+ * strings) and null. Reads any JSON value into the same shapes: objects become insertion-ordered
+ * maps, arrays lists, numbers {@link Long} or {@link Double}.
+ * </p>
+ */
+final class Json {
+    /**
+     * Text being parsed.
+     */
+    private final String text;
+
+    /**
+     * Next unread position in {@link #text}.
+     */
+    private int position;
+
+    /**
+     * Create a parser over a JSON text.
+     *
+     * @param text JSON text
+     */
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Serialize a value.
+     *
+     * @param value map, collection, string, number, boolean, date or null
+     * @return JSON text
+     */
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+
+    /**
+     * Serialize a value into a buffer.
+     *
+     * @param value value to write
+     * @param out   buffer to append to
+     */
+    private static void write(Object value, StringBuilder out) {
+        switch (value) {
+            case null -> out.append("null");
+            case String s -> writeString(s, out);
+            case Number n -> out.append(n);
+            case Boolean b -> out.append(b);
+            case TemporalAccessor t -> writeString(t.toString(), out);
+            case Map<?, ?> map -> {
+                out.append('{');
+                boolean first = true;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    first = false;
+                    writeString(String.valueOf(entry.getKey()), out);
+                    out.append(':');
+                    write(entry.getValue(), out);
+                }
+                out.append('}');
+            }
+            case Collection<?> collection -> {
+                out.append('[');
+                boolean first = true;
+                for (Object item : collection) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    first = false;
+                    write(item, out);
+                }
+                out.append(']');
+            }
+            default -> writeString(value.toString(), out);
+        }
+    }
+
+    /**
+     * Write a string literal with JSON escaping.
+     *
+     * @param s   string to write
+     * @param out buffer to append to
+     */
+    private static void writeString(String s, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Parse a JSON object.
+     *
+     * @param text JSON text (blank is read as an empty object)
+     * @return the object's members in document order
+     * @throws IllegalArgumentException if the text is not a single JSON object
+     */
+    static Map<String, Object> parseObject(String text) {
+        if (text == null || text.isBlank()) {
+            return new LinkedHashMap<>();
+        }
+        Json parser = new Json(text);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("unexpected trailing characters");
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Request body must be a JSON object.");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) value;
+        return object;
+    }
+
+    /**
+     * Read the value at the current position.
+     *
+     * @return parsed value
+     */
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("unexpected end of input");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("unexpected character '" + c + "'");
+        }
+    }
+
+    /**
+     * Read an object starting at '{'.
+     *
+     * @return members in document order
+     */
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    /**
+     * Read an array starting at '['.
+     *
+     * @return elements in document order
+     */
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    /**
+     * Read a string literal starting at '"'.
+     *
+     * @return unescaped string
+     */
+    private String readString() {
+        StringBuilder s = new StringBuilder();
+        position++;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return s.toString();
+            }
+            if (c != '\\') {
+                s.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("unterminated string");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> s.append(escaped);
+                case 'b' -> s.append('\b');
+                case 'f' -> s.append('\f');
+                case 'n' -> s.append('\n');
+                case 'r' -> s.append('\r');
+                case 't' -> s.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("invalid unicode escape");
+                    }
+                    try {
+                        s.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("invalid unicode escape");
+                    }
+                    position += 4;
+                }
+                default -> throw error("invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    /**
+     * Read a number.
+     *
+     * @return {@link Long} for integers, {@link Double} otherwise
+     */
+    private Number readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        String number = text.substring(start, position);
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                return Long.parseLong(number);
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("invalid number '" + number + "'");
+        }
+    }
+
+    /**
+     * Read a keyword literal.
+     *
+     * @param literal expected keyword
+     * @param value   value it stands for
+     * @return the value
+     */
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("unexpected token");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    /**
+     * Skip whitespace between tokens.
+     */
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Look at the next character without consuming it.
+     *
+     * @return next character, or 0 at the end of input
+     */
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    /**
+     * Consume an expected character.
+     *
+     * @param c expected character
+     */
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Build a parse error at the current position.
+     *
+     * @param message what went wrong
+     * @return exception to throw
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + ": " + message);
+    }
+}
@@ -1,5 +1,6 @@
 package boundary;
 
+import control.Page;
 import control.StudentController;
 import entity.Application;
 import entity.Internship;
@@ -16,12 +17,15 @@ import java.util.stream.Collectors;
  * </p>
  */
 public class StudentInterface implements CommandLineInterface {
+    private static final int PAGE_SIZE = 10;
+
     private final Scanner scanner = new Scanner(System.in);
     private final StudentController studentController = new StudentController();
     private final Student student;
 
     private final List<String> levelFilters = new ArrayList<>();
     private final List<String> companyFilters = new ArrayList<>();
+    private String keywords = "";
 
     /**
      * Construct a student interface bound to the given student.
@@ -97,34 +101,58 @@ public class StudentInterface implements CommandLineInterface {
         System.out.println("Active Filters:");
         System.out.println("  Level: " + (levelFilters.isEmpty() ? "[Any]" : levelFilters));
         System.out.println("  Company: " + (companyFilters.isEmpty() ? "[Any]" : companyFilters));
+        System.out.println("  Keywords: " + (keywords.isEmpty() ? "[Any]" : keywords));
         System.out.println("---------------------------------");
 
-        // Get filtered list of internships
-        List<Internship> available = studentController.getAvailableInternships(student, levelFilters, companyFilters);
-
-        if (available.isEmpty()) {
-            System.out.println("No internships are currently available that match your profile or active filters.");
-            return;
-        }
+        // Fetch one page of the filtered internships at a time (ranked by relevance when searching by keywords)
+        String cursor = null;
+        int pageNumber = 1;
+        List<Internship> available;
+        int choice;
+        while (true) {
+            Page<Internship> page = studentController.getAvailableInternshipsPage(
+                    student, levelFilters, companyFilters, keywords, cursor, PAGE_SIZE);
+            if (page == null) {
+                System.out.println("Unable to list internships. Please try again.");
+                return;
+            }
+            available = page.getItems();
 
-        // Display them in a numbered list
-        System.out.println("Internships matching your profile:");
-        for (int i = 0; i < available.size(); i++) {
-            Internship internship = available.get(i);
-            System.out.printf("%d. %s @ %s\n", (i + 1), internship.getTitle(), internship.getCompanyName());
-            System.out.printf("   Level: %s | Major: %s | Slots: %d\n",
-                    internship.getLevel(), internship.getPreferredMajor(), internship.getNumberOfSlots());
-        }
-        System.out.println("0. Go Back");
+            if (available.isEmpty()) {
+                System.out.println("No internships are currently available that match your profile or active filters.");
+                return;
+            }
 
-        // Prompt user to apply
-        System.out.print("\nSelect an internship to apply for (or 0 to go back): ");
-        int choice;
-        try {
-            choice = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Please enter a number.");
-            return;
+            // Display them in a numbered list
+            System.out.println("Internships matching your profile (page " + pageNumber + "):");
+            for (int i = 0; i < available.size(); i++) {
+                Internship internship = available.get(i);
+                System.out.printf("%d. %s @ %s\n", (i + 1), internship.getTitle(), internship.getCompanyName());
+                System.out.printf("   Level: %s | Major: %s | Slots: %d\n",
+                        internship.getLevel(), internship.getPreferredMajor(), internship.getNumberOfSlots());
+            }
+            if (page.hasNext()) {
+                System.out.println("N. Next page");
+            }
+            System.out.println("0. Go Back");
+
+            // Prompt user to apply
+            System.out.print(page.hasNext()
+                    ? "\nSelect an internship to apply for (N for the next page, or 0 to go back): "
+                    : "\nSelect an internship to apply for (or 0 to go back): ");
+            String input = scanner.nextLine().trim();
+            if (page.hasNext() && input.equalsIgnoreCase("N")) {
+                cursor = page.getNextCursor();
+                pageNumber++;
+                continue;
+            }
+            try {
+                choice = Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a number.");
+                return;
+            }
+            break;
         }
 
         if (choice == 0) {
@@ -223,9 +251,28 @@ public class StudentInterface implements CommandLineInterface {
         // Only manage filters relevant to the student
         manageFilterList("Level", levelFilters);
         manageFilterList("Company", companyFilters);
+        manageKeywords();
         System.out.println("\nAll filters updated successfully.");
     }
 
+    /**
+     * Prompts for the keyword search applied when listing internships.
+     */
+    private void manageKeywords() {
+        System.out.println("\n--- Managing 'Keywords' Filter ---");
+        System.out.println("Current keywords: " + (keywords.isEmpty() ? "[None]" : keywords));
+        System.out.println("Matches words in the title or description that start with each keyword.");
+        System.out.print("Enter keywords (Enter to keep, '-' to clear): ");
+        String input = scanner.nextLine().trim();
+        if (input.equals("-")) {
+            keywords = "";
+            System.out.println("Keywords cleared.");
+        } else if (!input.isEmpty()) {
+            keywords = input;
+            System.out.println("Keywords set to: " + keywords);
+        }
+    }
+
     /**
      * Shows all applications for the student, grouped by status, and provides actions to accept offers or request withdrawals.
      */
@@ -375,7 +422,7 @@ public class StudentInterface implements CommandLineInterface {
                 System.out.println("Offer accepted successfully!");
                 System.out.println("All other pending applications have been automatically withdrawn.");
             } else {
-                System.out.println("Failed to accept offer. You may have already accepted another internship.");
+                System.out.println("Failed to accept offer. You may have already accepted another internship, or it has no slots left.");
             }
         } else {
             System.out.println("Invalid choice.");
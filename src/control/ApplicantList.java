@@ -0,0 +1,187 @@
+package control;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Insertion-ordered list of the applications (or withdrawal requests) of one internship, with
+ * constant-time lookup by student id.
+ * <p>
+ * Used as the per-internship list in the application and withdrawal tables. It behaves like an
+ * ordinary list for display and index-based selection, while {@link #findByStudent(String)}
+ * replaces linear scans over popular postings. If a student appears more than once, the first
+ * occurrence is returned, as a scan would.
+ * </p>
+ * <p>
+ * The list is copy-on-write: every mutation publishes a new immutable snapshot of the records and
+ * the student lookup, so readers (listings, reports, the write-behind flusher) never lock and never
+ * see a half-applied change, and iteration walks the snapshot taken when it started. Mutations are
+ * serialized on the list; they are rare compared to reads and cost one copy of one internship's
+ * applicants.
+ * </p>
+ *
+ * @param <T> record type (Application or Withdrawal)
+ */
+class ApplicantList<T> extends AbstractList<T> implements RandomAccess {
+    /**
+     * Records in insertion order and the student lookup over them; both are never modified once published.
+     *
+     * @param records   records in insertion order
+     * @param byStudent student id -> first record of that student
+     * @param <T>       record type
+     */
+    private record Snapshot<T>(List<T> records, Map<String, T> byStudent) {
+    }
+
+    /**
+     * Extracts the student id of a record.
+     */
+    private final Function<T, String> studentId;
+
+    /**
+     * Current contents.
+     */
+    private volatile Snapshot<T> snapshot = new Snapshot<>(List.of(), Map.of());
+
+    /**
+     * Create an empty list.
+     *
+     * @param studentId function returning a record's student id
+     */
+    ApplicantList(Function<T, String> studentId) {
+        this.studentId = studentId;
+    }
+
+    /**
+     * Create a list holding the given records, building the student lookup once. Loaders use this
+     * instead of adding records one at a time, which would copy the list on every add.
+     *
+     * @param studentId function returning a record's student id
+     * @param records   initial records in order
+     */
+    ApplicantList(Function<T, String> studentId, Collection<? extends T> records) {
+        this.studentId = studentId;
+        publish(new ArrayList<>(records));
+    }
+
+    /**
+     * Find the record submitted by a student.
+     *
+     * @param student student user id
+     * @return the student's record, or null if there is none
+     */
+    T findByStudent(String student) {
+        return snapshot.byStudent().get(student);
+    }
+
+    @Override
+    public T get(int index) {
+        return snapshot.records().get(index);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.records().size();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot.records().iterator();
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return snapshot.records().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        snapshot.records().forEach(action);
+    }
+
+    @Override
+    public synchronized void add(int index, T record) {
+        List<T> records = copy();
+        records.add(index, record);
+        publish(records);
+        modCount++;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends T> added) {
+        if (added.isEmpty()) {
+            return false;
+        }
+        List<T> records = copy();
+        records.addAll(added);
+        publish(records);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized T set(int index, T record) {
+        List<T> records = copy();
+        T previous = records.set(index, record);
+        publish(records);
+        return previous;
+    }
+
+    @Override
+    public synchronized T remove(int index) {
+        List<T> records = copy();
+        T removed = records.remove(index);
+        publish(records);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean remove(Object record) {
+        List<T> records = copy();
+        if (!records.remove(record)) {
+            return false;
+        }
+        publish(records);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        snapshot = new Snapshot<>(List.of(), Map.of());
+        modCount++;
+    }
+
+    /**
+     * Copy the current records for modification.
+     *
+     * @return mutable copy
+     */
+    private List<T> copy() {
+        return new ArrayList<>(snapshot.records());
+    }
+
+    /**
+     * Publish new contents, rebuilding the student lookup so each student maps to their first record.
+     *
+     * @param records new records in order
+     */
+    private void publish(List<T> records) {
+        Map<String, T> byStudent = new HashMap<>();
+        for (T record : records) {
+            byStudent.putIfAbsent(studentId.apply(record), record);
+        }
+        snapshot = new Snapshot<>(Collections.unmodifiableList(records), Collections.unmodifiableMap(byStudent));
+    }
+}
@@ -0,0 +1,73 @@
+package control;
+
+/**
+ * A company representative's decision on one application: the internship, the student and the
+ * status to set. Decisions are applied together by
+ * {@link CompanyRepresentativeController#updateApplicationStatuses(java.util.Collection)}.
+ */
+public final class ApplicationDecision {
+    /**
+     * Internship UUID string.
+     */
+    private final String internshipId;
+
+    /**
+     * Student user id.
+     */
+    private final String studentId;
+
+    /**
+     * New application status (e.g., "Successful", "Unsuccessful").
+     */
+    private final String status;
+
+    /**
+     * Create a decision.
+     *
+     * @param internshipId internship UUID string
+     * @param studentId    student user id
+     * @param status       new application status
+     */
+    public ApplicationDecision(String internshipId, String studentId, String status) {
+        this.internshipId = internshipId;
+        this.studentId = studentId;
+        this.status = status;
+    }
+
+    /**
+     * Get the internship the application is for.
+     *
+     * @return internship UUID string
+     */
+    public String getInternshipId() {
+        return internshipId;
+    }
+
+    /**
+     * Get the student who applied.
+     *
+     * @return student user id
+     */
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * Get the status to set.
+     *
+     * @return new application status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * One-line description for error messages.
+     *
+     * @return human readable decision
+     */
+    @Override
+    public String toString() {
+        return studentId + " @ " + internshipId + " -> " + status;
+    }
+}
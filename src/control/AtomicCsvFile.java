@@ -0,0 +1,245 @@
+package control;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe writing and verified reading of CSV tables.
+ * <p>
+ * A table is written to a temporary file, forced to disk and then renamed over the live file, so
+ * readers and a crash only ever see the old or the new contents, never a partial file. Before the
+ * rename the live file is kept as the previous generation ({@code <csv>.prev}). After the rename a
+ * sidecar ({@code <csv>.crc}) records the CRC32C, length and modification time of the new file.
+ * </p>
+ * <p>
+ * Loaders call {@link #resolveForRead(Path)}: a file whose checksum does not match is replaced by
+ * the previous generation if that one is intact. A file without a sidecar, or whose modification
+ * time differs from the recorded one (edited by hand), is read as is.
+ * </p>
+ */
+final class AtomicCsvFile {
+    /**
+     * Outcome of checking a file against its sidecar.
+     */
+    private enum Verification {
+        /** Checksum matches. */
+        VERIFIED,
+        /** No sidecar, or the file was modified outside the application. */
+        UNVERIFIED,
+        /** Same modification time as recorded, but different length or checksum. */
+        CORRUPT
+    }
+
+    /**
+     * Utility class; not instantiable.
+     */
+    private AtomicCsvFile() {
+    }
+
+    /**
+     * Atomically replace a CSV file with the given lines.
+     *
+     * @param csvPath file to write
+     * @param lines   lines to write (each followed by the platform line separator)
+     * @throws IOException if the new contents could not be written; the old file is then unchanged
+     */
+    static void write(Path csvPath, List<String> lines) throws IOException {
+        byte[] data = encode(lines);
+        Path temp = sibling(csvPath, ".tmp");
+        writeDurably(temp, data);
+
+        Path checksum = sibling(csvPath, ".crc");
+        if (Files.exists(csvPath)) {
+            keepPreviousGeneration(csvPath, checksum);
+        }
+
+        Files.move(temp, csvPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(csvPath);
+
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        String sidecar = String.format("CRC32C %08x %d %d%n",
+                crc.getValue(), data.length, Files.getLastModifiedTime(csvPath).toMillis());
+        Path checksumTemp = sibling(checksum, ".tmp");
+        writeDurably(checksumTemp, sidecar.getBytes(StandardCharsets.UTF_8));
+        Files.move(checksumTemp, checksum, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(csvPath);
+    }
+
+    /**
+     * Choose the file a loader should read for the given table.
+     *
+     * @param csvPath path of the CSV table
+     * @return the table itself, or its previous generation when the table fails verification
+     */
+    static Path resolveForRead(Path csvPath) {
+        if (!Files.exists(csvPath) || verify(csvPath) != Verification.CORRUPT) {
+            return csvPath;
+        }
+        Path previous = sibling(csvPath, ".prev");
+        if (Files.exists(previous) && verify(previous) != Verification.CORRUPT) {
+            System.err.println("Checksum mismatch in " + csvPath + "; loading previous version " + previous);
+            return previous;
+        }
+        System.err.println("Checksum mismatch in " + csvPath + " and no intact previous version; loading it anyway");
+        return csvPath;
+    }
+
+    /**
+     * Keep the live file and its sidecar as the previous generation, unless the live file is corrupt
+     * (then the existing previous generation is the better fallback and is left alone).
+     * <p>
+     * The previous generation is a hard link where supported, so no data is copied.
+     * </p>
+     *
+     * @param csvPath  live file
+     * @param checksum sidecar of the live file
+     * @throws IOException if the previous generation cannot be created
+     */
+    private static void keepPreviousGeneration(Path csvPath, Path checksum) throws IOException {
+        if (verify(csvPath) == Verification.CORRUPT) {
+            Files.deleteIfExists(checksum);
+            return;
+        }
+        Path previous = sibling(csvPath, ".prev");
+        Path previousTemp = sibling(previous, ".tmp");
+        Files.deleteIfExists(previousTemp);
+        try {
+            Files.createLink(previousTemp, csvPath);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(csvPath, previousTemp, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        Files.move(previousTemp, previous, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        Path previousChecksum = sibling(previous, ".crc");
+        if (Files.exists(checksum)) {
+            Files.move(checksum, previousChecksum, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(previousChecksum);
+        }
+    }
+
+    /**
+     * Check a file against its sidecar.
+     *
+     * @param file file to check
+     * @return verification outcome (unreadable files count as corrupt)
+     */
+    private static Verification verify(Path file) {
+        Path checksum = sibling(file, ".crc");
+        if (!Files.exists(checksum)) {
+            return Verification.UNVERIFIED;
+        }
+        try {
+            String[] parts = Files.readString(checksum, StandardCharsets.UTF_8).trim().split(" ");
+            if (parts.length != 4 || !parts[0].equals("CRC32C")) {
+                return Verification.UNVERIFIED;
+            }
+            long expectedCrc = Long.parseLong(parts[1], 16);
+            long expectedLength = Long.parseLong(parts[2]);
+            long expectedModified = Long.parseLong(parts[3]);
+
+            if (Files.getLastModifiedTime(file).toMillis() != expectedModified) {
+                return Verification.UNVERIFIED; // Edited outside the application
+            }
+            if (Files.size(file) != expectedLength || checksumOf(file) != expectedCrc) {
+                return Verification.CORRUPT;
+            }
+            return Verification.VERIFIED;
+        } catch (NumberFormatException e) {
+            return Verification.UNVERIFIED;
+        } catch (IOException e) {
+            System.err.println("Failed to verify " + file + ": " + e.getMessage());
+            return Verification.CORRUPT;
+        }
+    }
+
+    /**
+     * Compute the CRC32C of a file's contents.
+     *
+     * @param file file to read
+     * @return checksum value
+     * @throws IOException if the file cannot be read
+     */
+    private static long checksumOf(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Encode lines the same way {@link Files#write(Path, Iterable, java.nio.file.OpenOption...)} does.
+     *
+     * @param lines lines to encode
+     * @return UTF-8 bytes, each line followed by the platform line separator
+     */
+    private static byte[] encode(List<String> lines) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(lines.size() * 64);
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        for (String line : lines) {
+            out.writeBytes(line.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(separator);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Write a file and force its contents to the storage device.
+     *
+     * @param file file to create or truncate
+     * @param data contents
+     * @throws IOException if writing fails
+     */
+    private static void writeDurably(Path file, byte[] data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Force the directory entry of a renamed file to disk. Not every platform allows opening a
+     * directory; there the rename is left to the file system.
+     *
+     * @param file file whose parent directory should be synced
+     */
+    private static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here (e.g. on Windows)
+        }
+    }
+
+    /**
+     * Get a file next to the given one with a suffix appended to its name.
+     *
+     * @param file   base file
+     * @param suffix suffix to append
+     * @return sibling path
+     */
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
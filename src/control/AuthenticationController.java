@@ -5,12 +5,11 @@ import entity.CompanyRepresentative;
 import entity.Student;
 import entity.User;
 
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-import java.nio.file.Paths;
 import java.security.SecureRandom;
-import java.security.spec.KeySpec;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 import java.nio.file.Path;
 import java.util.Base64;
@@ -19,33 +18,46 @@ import java.util.Arrays;
 /**
  * Controller responsible for authentication-related operations.
  * <p>
- * Loads user data from CSV sources and provides helper methods for validating
+ * Works on the shared user tables of the {@link DataStore} and provides helper methods for validating
  * credentials, registering company representatives, and changing passwords.
- * Uses PBKDF2 with HMAC-SHA256 for secure password hashing.
+ * Uses PBKDF2 with HMAC-SHA256 for secure password hashing. The asynchronous variants of
+ * {@link #login(String, String)} and {@link #changePassword(User, String)} run the hashing on a
+ * dedicated bounded pool, so a burst of logins is spread over all cores instead of one thread.
+ * </p>
+ * <p>
+ * The iteration count of new hashes is configurable and can be calibrated to a target verification
+ * time ({@link #calibrateIterations(long)}). Each stored hash records its own count, so existing
+ * users keep logging in; a user whose hash uses a different count is rehashed on the next successful
+ * login, and the upgraded hashes are written to disk in batches.
+ * </p>
+ * <p>
+ * {@link #startSession(String, String)} verifies a password once and returns a session token;
+ * {@link #getSessionUser(String)} then identifies the user without hashing again. Changing a
+ * password ends all of that user's sessions.
  * </p>
  */
 public class AuthenticationController extends BaseController {
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
-    private static final int PBKDF2_ITERATIONS = 65536;
     private static final int PBKDF2_KEY_LENGTH = 256; // bits
 
     private final Map<String, Student> students;
     private final Map<String, CompanyRepresentative> companyReps;
     private final Map<String, CareerCenterStaff> staffs;
 
-    private static final Path studentPath = Paths.get("data/sample_student_list.csv");
-    private static final Path companyRepPath = Paths.get("data/sample_company_representative_list.csv");
-    private static final Path staffPath = Paths.get("data/sample_staff_list.csv");
+    private static final Path studentPath = DataStore.studentPath;
+    private static final Path companyRepPath = DataStore.companyRepPath;
+    private static final Path staffPath = DataStore.staffPath;
 
-    private static final Pattern Email_PATTERN = Pattern.compile("^[A-Za-z0-9+_.\\-]+@[A-Za-z0-9.\\-]+$");
+    static final Pattern Email_PATTERN = Pattern.compile("^[A-Za-z0-9+_.\\-]+@[A-Za-z0-9.\\-]+$");
 
     /**
-     * Create a controller and pre-load users from CSV files.
+     * Create a controller over the shared user tables of the {@link DataStore}.
      */
     public AuthenticationController() {
-        students = loadStudents(studentPath);
-        companyReps = loadCompanyReps(companyRepPath);
-        staffs = loadStaffs(staffPath);
+        DataStore store = DataStore.getInstance();
+        students = store.getStudents();
+        companyReps = store.getCompanyReps();
+        staffs = store.getStaffs();
     }
 
     /**
@@ -95,6 +107,8 @@ public class AuthenticationController extends BaseController {
      * Role is determined by membership in the corresponding in-memory maps; email format is not used here.
      * Company representatives must have status "Approved" to log in; students and staff have no status gate.
      * Passwords are verified against PBKDF2 (HMAC-SHA256) hashes using constant-time comparison.
+     * If the stored hash uses a different iteration count than new hashes, a successful login
+     * rehashes the password in the background (see {@link #upgradeHash}).
      * On failure, a brief message is written to stderr ("Invalid password.", "Account not approved by staff yet.", or "Invalid user ID.").
      * This method performs no rate limiting or account lockout.
      * </p>
@@ -107,6 +121,7 @@ public class AuthenticationController extends BaseController {
         // Check Student
         if (isValidStudentId(userID)) {
             if (verifyPassword(password, students.get(userID).getPasswordHash())) {
+                upgradeHash(students.get(userID), password);
                 return students.get(userID);
             } else {
                 System.err.println("Invalid password.");
@@ -118,6 +133,7 @@ public class AuthenticationController extends BaseController {
         if (isValidCompanyRepEmail(userID)) {
             if (verifyPassword(password, companyReps.get(userID).getPasswordHash())) {
                 if (Objects.equals(companyReps.get(userID).getStatus(), "Approved")) {
+                    upgradeHash(companyReps.get(userID), password);
                     return companyReps.get(userID);
                 } else {
                     System.err.println("Account not approved by staff yet.");
@@ -132,6 +148,7 @@ public class AuthenticationController extends BaseController {
         // Check Career Center Staff
         if (isValidStaffId(userID)) {
             if (verifyPassword(password, staffs.get(userID).getPasswordHash())) {
+                upgradeHash(staffs.get(userID), password);
                 return staffs.get(userID);
             } else {
                 System.err.println("Invalid password.");
@@ -144,9 +161,158 @@ public class AuthenticationController extends BaseController {
         return null;
     }
 
+    /**
+     * Rehash a just-verified password if its stored hash uses a different iteration count.
+     * <p>
+     * The new hash is computed on the hashing pool so the login is not slowed down. It replaces the
+     * in-memory hash under the user's account lock only if the password was not changed in the
+     * meantime, and is then queued for a batched write. If the pool is busy the upgrade is skipped
+     * and retried on a later login.
+     * </p>
+     *
+     * @param user     user who just logged in
+     * @param password the verified plain-text password
+     */
+    private void upgradeHash(User user, String password) {
+        String stored = user.getPasswordHash();
+        if (storedIterations(stored) == PasswordHasher.getIterations()) {
+            return;
+        }
+        DataStore store = DataStore.getInstance();
+        PasswordHasher.submit(() -> hashPassword(password))
+                .thenAccept(hash -> store.withUserLock(user.getUserID(), () -> {
+                    if (!Objects.equals(user.getPasswordHash(), stored)) {
+                        return null; // Password changed meanwhile
+                    }
+                    user.setPasswordHash(hash);
+                    RehashBatcher.getInstance().add(user);
+                    return null;
+                }));
+    }
+
+    /**
+     * Read the iteration count recorded in a stored hash.
+     *
+     * @param stored stored hash in "iterations:salt:hash" format
+     * @return iteration count, or -1 if the hash is malformed
+     */
+    private static int storedIterations(String stored) {
+        int separator = stored == null ? -1 : stored.indexOf(':');
+        if (separator <= 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(stored, 0, separator, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Get the iteration count used for new password hashes.
+     *
+     * @return PBKDF2 iterations
+     */
+    public static int getIterations() {
+        return PasswordHasher.getIterations();
+    }
+
+    /**
+     * Calibrate the iteration count of new password hashes to a target verification time.
+     * <p>
+     * Times a few trial hashes on this machine and picks the count that makes one hash take about
+     * {@code targetMillis}. Users with hashes of another count are rehashed on their next login.
+     * </p>
+     *
+     * @param targetMillis desired time of one password verification in milliseconds (at least 1)
+     * @return the iteration count now in use, or -1 if the target is invalid
+     */
+    public static int calibrateIterations(long targetMillis) {
+        if (targetMillis < 1) {
+            System.err.println("Calibration target must be at least 1 ms.");
+            return -1;
+        }
+        return PasswordHasher.calibrate(targetMillis);
+    }
+
+    /**
+     * Authenticate a user on the hashing pool.
+     * <p>
+     * Same as {@link #login(String, String)}, but the password verification runs on a hashing
+     * thread and the caller is not blocked. If the hashing queue is full the login is refused.
+     * </p>
+     *
+     * @param userID   the login identifier (student id, staff id, or company rep email)
+     * @param password plain-text password to verify against stored hash
+     * @return future completed with the authenticated User, or with null on failure
+     */
+    public CompletableFuture<User> loginAsync(String userID, String password) {
+        return PasswordHasher.submit(() -> login(userID, password))
+                .exceptionally(e -> {
+                    System.err.println("Login could not be processed: " + failureReason(e));
+                    return null;
+                });
+    }
+
+    /**
+     * Log a user in and start a session for them.
+     * <p>
+     * The password is verified as in {@link #login(String, String)}; later requests present the
+     * returned token to {@link #getSessionUser(String)} instead of the password.
+     * </p>
+     *
+     * @param userID   the login identifier (student id, staff id, or company rep email)
+     * @param password plain-text password to verify against stored hash
+     * @return session token, or null if the login failed
+     */
+    public String startSession(String userID, String password) {
+        User user = login(userID, password);
+        return user == null ? null : SessionManager.getInstance().create(user);
+    }
+
+    /**
+     * Log a user in on the hashing pool and start a session for them.
+     * <p>
+     * Same as {@link #startSession(String, String)}, but the password verification runs on a
+     * hashing thread and the caller is not blocked; the session is created only once the password
+     * has been verified. Unlike {@link #loginAsync(String, String)}, a full hashing queue is not
+     * turned into a failed login, so callers can tell "try again later" from "wrong password".
+     * </p>
+     *
+     * @param userID   the login identifier (student id, staff id, or company rep email)
+     * @param password plain-text password to verify against stored hash
+     * @return future completed with the session token, or with null if the login failed; completed
+     *         exceptionally with a {@link RejectedExecutionException} if the hashing queue is full
+     */
+    public CompletableFuture<String> startSessionAsync(String userID, String password) {
+        return PasswordHasher.submit(() -> login(userID, password))
+                .thenApply(user -> user == null ? null : SessionManager.getInstance().create(user));
+    }
+
+    /**
+     * Get the user of a session and keep the session alive.
+     *
+     * @param token session token from {@link #startSession(String, String)} (nullable)
+     * @return the session's user, or null if the session is unknown, ended or expired
+     */
+    public User getSessionUser(String token) {
+        return SessionManager.getInstance().validate(token);
+    }
+
+    /**
+     * End a session (log out).
+     *
+     * @param token session token (nullable)
+     * @return true if the session was active
+     */
+    public boolean endSession(String token) {
+        return SessionManager.getInstance().revoke(token);
+    }
+
     /**
      * Register a new company representative account (initial status "Pending").
-     * The new account is put into the in-memory map and the company CSV is rewritten.
+     * The new account is put into the in-memory map and persisted to the company CSV under the
+     * account lock of its email.
      * Password is securely hashed using PBKDF2 before storage.
      *
      * @param email       account email (also used as id)
@@ -159,15 +325,20 @@ public class AuthenticationController extends BaseController {
      */
     public Boolean register(String email, String name, String password, String companyName, String department, String position) {
         CompanyRepresentative companyRep = new CompanyRepresentative(email, name, hashPassword(password), email, companyName, department, position, "Pending");
-        companyReps.put(email, companyRep);
-        return rewriteCompanyRepCSV(companyRepPath, companyReps);
+        DataStore store = DataStore.getInstance();
+        return store.withUserLock(email, () -> {
+            store.addCompanyRep(companyRep);
+            return saveCompanyRep(companyRepPath, companyReps, companyRep);
+        });
     }
 
     /**
      * Change the password for the given logged-in user.
      * <p>
      * Updates the in-memory object with a newly hashed password and persists
-     * the change to the corresponding CSV.
+     * the change to the corresponding CSV. All sessions of the user are ended.
+     * The hash is stored under the user's account lock, so a background rehash of the
+     * old password cannot overwrite it.
      * </p>
      *
      * @param loggedInUser the user object whose password will be changed
@@ -177,18 +348,79 @@ public class AuthenticationController extends BaseController {
     public boolean changePassword(User loggedInUser, String newPassword) {
         // Update the password in the in-memory user object
         // This also updates the object within the 'students', 'companyReps', or 'staff' map
-        loggedInUser.setPasswordHash(hashPassword(newPassword));
+        String hash = hashPassword(newPassword);
+        return DataStore.getInstance().withUserLock(loggedInUser.getUserID(), () -> {
+            loggedInUser.setPasswordHash(hash);
+            SessionManager.revokeAllIfStarted(loggedInUser.getUserID());
+            return savePassword(loggedInUser);
+        });
+    }
 
+    /**
+     * Change the password for the given logged-in user, hashing it on the hashing pool.
+     * <p>
+     * The new hash is computed without blocking the caller; storing it and persisting the change
+     * are then done under the user's account lock. If the hashing queue is full the change is refused.
+     * </p>
+     *
+     * @param loggedInUser the user object whose password will be changed
+     * @param newPassword  the new plain-text password (will be hashed before storage)
+     * @return future completed with true if the update and persistence succeeded, false otherwise
+     */
+    public CompletableFuture<Boolean> changePasswordAsync(User loggedInUser, String newPassword) {
+        DataStore store = DataStore.getInstance();
+        return PasswordHasher.submit(() -> hashPassword(newPassword))
+                .thenApply(hash -> store.withUserLock(loggedInUser.getUserID(), () -> {
+                    loggedInUser.setPasswordHash(hash);
+                    SessionManager.revokeAllIfStarted(loggedInUser.getUserID());
+                    return savePassword(loggedInUser);
+                }))
+                .exceptionally(e -> {
+                    System.err.println("Password change could not be processed: " + failureReason(e));
+                    return false;
+                });
+    }
+
+    /**
+     * Describe why asynchronous hashing work failed.
+     *
+     * @param e failure of the future
+     * @return short message for the user
+     */
+    private static String failureReason(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return "too many requests in progress, please try again.";
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * Get statistics of the password hashing pool (queue depth, waiting and hashing times).
+     *
+     * @return metrics snapshot
+     */
+    public static HashingMetrics getHashingMetrics() {
+        return PasswordHasher.getMetrics();
+    }
+
+    /**
+     * Persist a user's changed password hash to the CSV of the user's role.
+     *
+     * @param loggedInUser user whose password hash changed
+     * @return true if persistence succeeded, false otherwise
+     */
+    private boolean savePassword(User loggedInUser) {
         // Determine user type and call the appropriate write method
         switch (loggedInUser) {
             case Student student -> {
-                return rewriteStudentCSV(studentPath, students);
+                return saveStudent(studentPath, students, student);
             }
             case CompanyRepresentative companyRepresentative -> {
-                return rewriteCompanyRepCSV(companyRepPath, companyReps);
+                return saveCompanyRep(companyRepPath, companyReps, companyRepresentative);
             }
             case CareerCenterStaff staff -> {
-                return rewriteStaffCSV(staffPath, staffs);
+                return saveStaff(staffPath, staffs, staff);
             }
             default -> {
                 // Handle unknown user types
@@ -201,8 +433,8 @@ public class AuthenticationController extends BaseController {
     /**
      * Hash a plain-text password using PBKDF2 with HMAC-SHA256.
      * <p>
-     * Generates a random 16-byte salt and applies 65,536 iterations to produce
-     * a 256-bit hash. The result is formatted as "iterations:salt:hash" with
+     * Generates a random 16-byte salt and applies the current iteration count
+     * ({@link #getIterations()}) to produce a 256-bit hash. The result is formatted as "iterations:salt:hash" with
      * salt and hash Base64-encoded. Each invocation uses a fresh salt.
      * </p>
      *
@@ -212,8 +444,9 @@ public class AuthenticationController extends BaseController {
     protected String hashPassword(String password) {
         byte[] salt = new byte[16];
         SECURE_RANDOM.nextBytes(salt);
-        byte[] hash = pbkdf2(password.toCharArray(), salt, PBKDF2_ITERATIONS, PBKDF2_KEY_LENGTH);
-        return PBKDF2_ITERATIONS + ":" + Base64.getEncoder().encodeToString(salt) + ":" + Base64.getEncoder().encodeToString(hash);
+        int iterations = PasswordHasher.getIterations();
+        byte[] hash = pbkdf2(password.toCharArray(), salt, iterations, PBKDF2_KEY_LENGTH);
+        return iterations + ":" + Base64.getEncoder().encodeToString(salt) + ":" + Base64.getEncoder().encodeToString(hash);
     }
 
     /**
@@ -242,7 +475,8 @@ public class AuthenticationController extends BaseController {
      * Generate a PBKDF2 hash using the specified parameters.
      * <p>
      * Uses PBKDF2 with HMAC-SHA256 algorithm to derive a key from the password
-     * and salt with the given iteration count and key length.
+     * and salt with the given iteration count and key length. Runs on the calling thread,
+     * reusing that thread's cached key factory.
      * </p>
      *
      * @param password       password characters to hash
@@ -253,12 +487,6 @@ public class AuthenticationController extends BaseController {
      * @throws RuntimeException if hashing fails due to algorithm unavailability or other errors
      */
     protected byte[] pbkdf2(char[] password, byte[] salt, int iterations, int keyLengthBits) {
-        try {
-            KeySpec spec = new PBEKeySpec(password, salt, iterations, keyLengthBits);
-            SecretKeyFactory skf = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-            return skf.generateSecret(spec).getEncoded();
-        } catch (Exception e) {
-            throw new RuntimeException("Error while hashing a password: " + e.getMessage(), e);
-        }
+        return PasswordHasher.pbkdf2(password, salt, iterations, keyLengthBits);
     }
 }
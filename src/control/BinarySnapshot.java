@@ -0,0 +1,472 @@
+package control;
+
+import entity.*;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Compact binary copy of a loaded table, kept next to its CSV ("&lt;table&gt;.csv.snap").
+ * <p>
+ * The CSV files stay the interchange format; a snapshot only saves re-parsing them. A snapshot
+ * holds the table as it was after loading (CSV plus any journal records) and is used only while it
+ * is newer than both the CSV and the journal. Layout: magic, version, table id, a dictionary of
+ * every distinct string (UTF-8), the row count, then fixed-layout rows in which strings are
+ * dictionary indexes, UUIDs are two longs and dates are epoch days.
+ * </p>
+ */
+final class BinarySnapshot {
+    /**
+     * File signature ("IPMS").
+     */
+    private static final int MAGIC = 0x49504D53;
+
+    /**
+     * Format version; bump when a codec layout changes.
+     */
+    private static final byte VERSION = 1;
+
+    /**
+     * Codec for student rows.
+     */
+    static final Codec<Student> STUDENTS = new Codec<>(1) {
+        @Override
+        void write(Student s, Encoder out) throws IOException {
+            out.string(s.getUserID());
+            out.string(s.getName());
+            out.string(s.getPasswordHash());
+            out.string(s.getEmail());
+            out.integer(s.getYearOfStudy());
+            out.string(s.getMajor());
+        }
+
+        @Override
+        Student read(Decoder in) {
+            return new Student(in.string(), in.string(), in.string(), in.string(), in.integer(), in.string());
+        }
+    };
+
+    /**
+     * Codec for career centre staff rows.
+     */
+    static final Codec<CareerCenterStaff> STAFFS = new Codec<>(2) {
+        @Override
+        void write(CareerCenterStaff s, Encoder out) throws IOException {
+            out.string(s.getUserID());
+            out.string(s.getName());
+            out.string(s.getPasswordHash());
+            out.string(s.getEmail());
+            out.string(s.getStaffDepartment());
+            out.string(s.getRole());
+        }
+
+        @Override
+        CareerCenterStaff read(Decoder in) {
+            return new CareerCenterStaff(in.string(), in.string(), in.string(), in.string(), in.string(), in.string());
+        }
+    };
+
+    /**
+     * Codec for company representative rows.
+     */
+    static final Codec<CompanyRepresentative> COMPANY_REPS = new Codec<>(3) {
+        @Override
+        void write(CompanyRepresentative r, Encoder out) throws IOException {
+            out.string(r.getUserID());
+            out.string(r.getName());
+            out.string(r.getPasswordHash());
+            out.string(r.getEmail());
+            out.string(r.getCompanyName());
+            out.string(r.getDepartment());
+            out.string(r.getPosition());
+            out.string(r.getStatus());
+        }
+
+        @Override
+        CompanyRepresentative read(Decoder in) {
+            return new CompanyRepresentative(in.string(), in.string(), in.string(), in.string(),
+                    in.string(), in.string(), in.string(), in.string());
+        }
+    };
+
+    /**
+     * Codec for internship rows.
+     */
+    static final Codec<Internship> INTERNSHIPS = new Codec<>(4) {
+        @Override
+        void write(Internship i, Encoder out) throws IOException {
+            out.uuid(i.getUUID());
+            out.string(i.getTitle());
+            out.string(i.getDescription());
+            out.string(i.getLevel());
+            out.string(i.getPreferredMajor());
+            out.date(i.getOpeningDate());
+            out.date(i.getClosingDate());
+            out.string(i.getStatus());
+            out.string(i.getCompanyName());
+            out.string(i.getRepresentatives());
+            out.integer(i.getNumberOfSlots());
+            out.bool(i.isVisible());
+        }
+
+        @Override
+        Internship read(Decoder in) {
+            return new Internship(in.uuid(), in.string(), in.string(), in.string(), in.string(),
+                    in.date(), in.date(), in.string(), in.string(), in.string(), in.integer(), in.bool());
+        }
+    };
+
+    /**
+     * Codec for application rows.
+     */
+    static final Codec<Application> APPLICATIONS = new Codec<>(5) {
+        @Override
+        void write(Application a, Encoder out) throws IOException {
+            out.uuid(a.getUUID());
+            out.string(a.getStatus());
+            out.string(a.getSubmittedDate());
+            out.string(a.getUserId());
+            out.string(a.getName());
+            out.string(a.getEmail());
+            out.string(a.getMajor());
+            out.integer(a.getYear());
+        }
+
+        @Override
+        Application read(Decoder in) {
+            return new Application(in.uuid(), in.string(), in.string(), in.string(), in.string(),
+                    in.string(), in.string(), in.integer());
+        }
+    };
+
+    /**
+     * Codec for withdrawal rows.
+     */
+    static final Codec<Withdrawal> WITHDRAWALS = new Codec<>(6) {
+        @Override
+        void write(Withdrawal w, Encoder out) throws IOException {
+            out.uuid(w.getUUID());
+            out.string(w.getStatus());
+            out.string(w.getSubmittedDate());
+            out.string(w.getUserId());
+            out.string(w.getName());
+            out.string(w.getEmail());
+            out.string(w.getMajor());
+            out.integer(w.getYear());
+        }
+
+        @Override
+        Withdrawal read(Decoder in) {
+            return new Withdrawal(in.uuid(), in.string(), in.string(), in.string(), in.string(),
+                    in.string(), in.string(), in.integer());
+        }
+    };
+
+    /**
+     * Utility class; not instantiable.
+     */
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Get the snapshot location for a CSV table.
+     *
+     * @param csvPath path of the CSV table
+     * @return path of its snapshot file
+     */
+    static Path snapshotPath(Path csvPath) {
+        return csvPath.resolveSibling(csvPath.getFileName() + ".snap");
+    }
+
+    /**
+     * Read a table's snapshot if it is newer than the CSV and its journal.
+     *
+     * @param csvPath path of the CSV table
+     * @param codec   codec of the table
+     * @param <T>     row type
+     * @return the rows, or null if there is no usable snapshot
+     * @throws IOException if the snapshot exists but cannot be read or is malformed
+     */
+    static <T> List<T> readIfFresh(Path csvPath, Codec<T> codec) throws IOException {
+        Path snapshot = snapshotPath(csvPath);
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+        FileTime snapshotTime = Files.getLastModifiedTime(snapshot);
+        if (snapshotTime.compareTo(Files.getLastModifiedTime(csvPath)) <= 0) {
+            return null;
+        }
+        Path journal = ChangeJournal.forTable(csvPath).getPath();
+        if (Files.exists(journal) && snapshotTime.compareTo(Files.getLastModifiedTime(journal)) <= 0) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION || buffer.get() != codec.tableId) {
+                return null;
+            }
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            Decoder in = new Decoder(buffer, dictionary);
+            int rowCount = buffer.getInt();
+            List<T> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                rows.add(codec.read(in));
+            }
+            return rows;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt buffer contents
+            throw new IOException("Malformed snapshot " + snapshot + ": " + e, e);
+        }
+    }
+
+    /**
+     * Write a table's snapshot, replacing any previous one.
+     * <p>
+     * The file is written to a temporary name and moved into place, so a reader never sees a
+     * partially written snapshot.
+     * </p>
+     *
+     * @param csvPath path of the CSV table
+     * @param codec   codec of the table
+     * @param rows    rows to store
+     * @param <T>     row type
+     * @throws IOException if the snapshot cannot be written
+     */
+    static <T> void write(Path csvPath, Codec<T> codec, Collection<T> rows) throws IOException {
+        // Rows are encoded first so the dictionary is complete before it is written
+        ByteArrayOutputStream rowBytes = new ByteArrayOutputStream();
+        Encoder out = new Encoder(new DataOutputStream(rowBytes));
+        for (T row : rows) {
+            codec.write(row, out);
+        }
+        out.data.flush();
+
+        Path snapshot = snapshotPath(csvPath);
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            data.writeInt(MAGIC);
+            data.writeByte(VERSION);
+            data.writeByte(codec.tableId);
+            data.writeInt(out.dictionary.size());
+            for (String s : out.dictionary.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                data.writeInt(bytes.length);
+                data.write(bytes);
+            }
+            data.writeInt(rows.size());
+            rowBytes.writeTo(data);
+        }
+        try {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Encodes and decodes one table's rows.
+     *
+     * @param <T> row type
+     */
+    abstract static class Codec<T> {
+        /**
+         * Table identifier stored in the header, guarding against reading the wrong file.
+         */
+        private final byte tableId;
+
+        /**
+         * Create a codec.
+         *
+         * @param tableId table identifier
+         */
+        Codec(int tableId) {
+            this.tableId = (byte) tableId;
+        }
+
+        /**
+         * Write one row.
+         *
+         * @param value row to write
+         * @param out   encoder
+         * @throws IOException if writing fails
+         */
+        abstract void write(T value, Encoder out) throws IOException;
+
+        /**
+         * Read one row, in the order written by {@link #write}.
+         *
+         * @param in decoder
+         * @return the row
+         */
+        abstract T read(Decoder in);
+    }
+
+    /**
+     * Field writer that interns strings into the snapshot dictionary.
+     */
+    static final class Encoder {
+        /**
+         * Row output.
+         */
+        private final DataOutputStream data;
+
+        /**
+         * Distinct strings in first-seen order, mapped to their index.
+         */
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+        /**
+         * Create an encoder over the given row output.
+         *
+         * @param data row output
+         */
+        private Encoder(DataOutputStream data) {
+            this.data = data;
+        }
+
+        /**
+         * Write a string as a dictionary index (-1 for null).
+         *
+         * @param s string value (nullable)
+         * @throws IOException if writing fails
+         */
+        void string(String s) throws IOException {
+            data.writeInt(s == null ? -1 : dictionary.computeIfAbsent(s, k -> dictionary.size()));
+        }
+
+        /**
+         * Write a UUID as two longs.
+         *
+         * @param uuid UUID value
+         * @throws IOException if writing fails
+         */
+        void uuid(UUID uuid) throws IOException {
+            data.writeLong(uuid.getMostSignificantBits());
+            data.writeLong(uuid.getLeastSignificantBits());
+        }
+
+        /**
+         * Write a date as its epoch day.
+         *
+         * @param date date value
+         * @throws IOException if writing fails
+         */
+        void date(LocalDate date) throws IOException {
+            data.writeLong(date.toEpochDay());
+        }
+
+        /**
+         * Write an int.
+         *
+         * @param value int value
+         * @throws IOException if writing fails
+         */
+        void integer(int value) throws IOException {
+            data.writeInt(value);
+        }
+
+        /**
+         * Write a boolean as one byte.
+         *
+         * @param value boolean value
+         * @throws IOException if writing fails
+         */
+        void bool(boolean value) throws IOException {
+            data.writeBoolean(value);
+        }
+    }
+
+    /**
+     * Field reader over a mapped snapshot.
+     */
+    static final class Decoder {
+        /**
+         * Mapped snapshot positioned at the next field.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Strings by dictionary index.
+         */
+        private final String[] dictionary;
+
+        /**
+         * Create a decoder.
+         *
+         * @param buffer     mapped snapshot positioned at the first row
+         * @param dictionary decoded string dictionary
+         */
+        private Decoder(ByteBuffer buffer, String[] dictionary) {
+            this.buffer = buffer;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * Read a dictionary string.
+         *
+         * @return string value (nullable)
+         */
+        String string() {
+            int index = buffer.getInt();
+            return index < 0 ? null : dictionary[index];
+        }
+
+        /**
+         * Read a UUID.
+         *
+         * @return UUID value
+         */
+        UUID uuid() {
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+
+        /**
+         * Read a date.
+         *
+         * @return date value
+         */
+        LocalDate date() {
+            return LocalDate.ofEpochDay(buffer.getLong());
+        }
+
+        /**
+         * Read an int.
+         *
+         * @return int value
+         */
+        int integer() {
+            return buffer.getInt();
+        }
+
+        /**
+         * Read a boolean.
+         *
+         * @return boolean value
+         */
+        boolean bool() {
+            return buffer.get() != 0;
+        }
+    }
+}
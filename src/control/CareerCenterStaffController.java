@@ -5,9 +5,16 @@ import entity.CompanyRepresentative;
 import entity.Internship;
 import entity.Withdrawal;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,6 +25,10 @@ import java.util.stream.Stream;
  * withdrawal management and reporting features. Manages approval workflows
  * and generates system-wide reports.
  * </p>
+ * <p>
+ * Internship and withdrawal decisions run under the store's locks for the internship (and the
+ * student), so they are serialized with the students and representatives acting on the same records.
+ * </p>
  */
 public class CareerCenterStaffController extends BaseController {
     /**
@@ -40,34 +51,40 @@ public class CareerCenterStaffController extends BaseController {
      */
     private final Map<String, List<Application>> applications;
 
+    /**
+     * Shared data store, used for index-maintaining mutations.
+     */
+    private final DataStore store;
+
     /**
      * Path to the company representative CSV data file.
      */
-    private static final Path companyRepPath = Paths.get("data/sample_company_representative_list.csv");
+    private static final Path companyRepPath = DataStore.companyRepPath;
 
     /**
      * Path to the internship CSV data file.
      */
-    private static final Path internshipPath = Paths.get("data/sample_internship_list.csv");
+    private static final Path internshipPath = DataStore.internshipPath;
 
     /**
      * Path to the withdrawal CSV data file.
      */
-    private static final Path withdrawalPath  = Paths.get("data/sample_withdrawal_list.csv");
+    private static final Path withdrawalPath  = DataStore.withdrawalPath;
 
     /**
      * Path to the application CSV data file.
      */
-    private static final Path applicationPath = Paths.get("data/sample_application_list.csv");
+    private static final Path applicationPath = DataStore.applicationPath;
 
     /**
-     * Construct controller and load relevant CSV-backed data into memory.
+     * Construct controller over the shared company representative, internship, withdrawal and application tables.
      */
     public CareerCenterStaffController() {
-        companyReps = loadCompanyReps(companyRepPath);
-        internships = loadInternships(internshipPath);
-        withdrawals = loadWithdrawals(withdrawalPath);
-        applications = loadApplications(applicationPath);
+        store = DataStore.getInstance();
+        companyReps = store.getCompanyReps();
+        internships = store.getInternships();
+        withdrawals = store.getWithdrawals();
+        applications = store.getApplications();
     }
 
     /**
@@ -82,29 +99,36 @@ public class CareerCenterStaffController extends BaseController {
     }
 
     /**
-     * Approve a pending company representative registration and persist the change.
+     * Approve a pending company representative registration and persist the change, under the
+     * representative's account lock.
      *
      * @param repToApprove the CompanyRepresentative to approve
      * @return true on success, false otherwise
      */
     public boolean approveRegistration(CompanyRepresentative repToApprove) {
         if (repToApprove != null) {
-            repToApprove.setStatus("Approved");
-            return rewriteCompanyRepCSV(companyRepPath, companyReps); // Write changes to file
+            // The account lock orders the change with registration, password changes and rehashing
+            return store.withUserLock(repToApprove.getUserID(), () -> {
+                store.setCompanyRepStatus(repToApprove, "Approved");
+                return saveCompanyRep(companyRepPath, companyReps, repToApprove); // Write changes to file
+            });
         }
         return false; // Rep not found
     }
 
     /**
-     * Reject a company representative registration and persist the change.
+     * Reject a company representative registration and persist the change, under the
+     * representative's account lock.
      *
      * @param repToReject the CompanyRepresentative to reject
      * @return true on success, false otherwise
      */
     public boolean rejectRegistration(CompanyRepresentative repToReject) {
         if (repToReject != null) {
-            repToReject.setStatus("Rejected");
-            return rewriteCompanyRepCSV(companyRepPath, companyReps); // Write changes to file
+            return store.withUserLock(repToReject.getUserID(), () -> {
+                store.setCompanyRepStatus(repToReject, "Rejected");
+                return saveCompanyRep(companyRepPath, companyReps, repToReject); // Write changes to file
+            });
         }
         return false; // Rep not found
     }
@@ -129,8 +153,10 @@ public class CareerCenterStaffController extends BaseController {
      */
     public boolean approveInternship(Internship internshipToApprove) {
         if (internshipToApprove != null) {
-            internshipToApprove.setStatus("Approved");
-            return rewriteInternshipCSV(internshipPath, internships); // Write changes to file
+            return store.withInternshipLock(internshipToApprove.getUUID().toString(), () -> {
+                store.setInternshipStatus(internshipToApprove, "Approved");
+                return saveInternshipChanges(internshipPath, internships, List.of(internshipToApprove), List.of()); // Write changes to file
+            });
         }
         return false; // Internship not found
     }
@@ -143,8 +169,17 @@ public class CareerCenterStaffController extends BaseController {
      */
     public boolean rejectInternship(Internship internshipToReject) {
         if (internshipToReject != null) {
-            internshipToReject.setStatus("Rejected");
-            return rewriteInternshipCSV(internshipPath, internships); // Write changes to file
+            return store.withInternshipLock(internshipToReject.getUUID().toString(), () -> {
+                store.setInternshipStatus(internshipToReject, "Rejected");
+                boolean saved = saveInternshipChanges(internshipPath, internships, List.of(internshipToReject), List.of()); // Write changes to file
+                String message = NotificationInbox.internshipRejected(internshipToReject.getTitle());
+                List<NotificationInbox.Notification> notifications = new ArrayList<>();
+                for (String repId : store.getRepresentativeIdsOf(internshipToReject.getCompanyName())) {
+                    notifications.add(new NotificationInbox.Notification(repId, message));
+                }
+                store.getInbox().postAll(notifications);
+                return saved;
+            });
         }
         return false; // Internship not found
     }
@@ -163,79 +198,117 @@ public class CareerCenterStaffController extends BaseController {
     }
 
     /**
-     * Approve a withdrawal request and persist the change.
+     * Approve a withdrawal request, notify the student and persist the change.
      * <p>
      * If the original application was "Accepted", increments the internship slot count
-     * and changes status from "Filled" back to "Approved" if necessary.
+     * and changes status from "Filled" back to "Approved" if necessary. The resolved withdrawal
+     * and the withdrawn application are removed.
      * </p>
      *
      * @param withdrawalToApprove the Withdrawal to approve
-     * @return true on success, false if withdrawal not found or on error
+     * @return true on success, false if withdrawal not found, already decided or on error
      */
     public boolean approveWithdrawal(Withdrawal withdrawalToApprove) {
         if (withdrawalToApprove == null) {
             return false; // Withdrawal not found
         }
+        return store.withLocks(withdrawalToApprove.getUserId(), List.of(withdrawalToApprove.getUUID().toString()), () -> {
+            // Re-check under the locks so a slot is returned only once
+            if (!isPending(withdrawalToApprove)) {
+                return false;
+            }
+            return approvePendingWithdrawal(withdrawalToApprove);
+        });
+    }
 
+    /**
+     * Check that a withdrawal request still awaits a decision, reporting it otherwise.
+     *
+     * @param withdrawal withdrawal request
+     * @return true if its status is "Pending"
+     */
+    private boolean isPending(Withdrawal withdrawal) {
+        if (!"Pending".equalsIgnoreCase(withdrawal.getStatus())) {
+            System.err.println("Error: The withdrawal request has already been " + withdrawal.getStatus().toLowerCase() + ".");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Approve a pending withdrawal request; the caller holds the student and internship locks.
+     *
+     * @param withdrawalToApprove the Withdrawal to approve
+     * @return true on success, false on error
+     */
+    private boolean approvePendingWithdrawal(Withdrawal withdrawalToApprove) {
         // Set withdrawal status to "Approved"
         withdrawalToApprove.setStatus("Approved");
-        boolean internshipChanged = false;
+        Internship changedInternship = null;
 
         // Get the IDs for finding the related objects
         String internshipId = withdrawalToApprove.getUUID().toString();
         String studentId = withdrawalToApprove.getUserId();
 
-        // Find the original Application to check its status
-        Application originalApplication = null;
-        List<Application> appList = applications.get(internshipId);
-        if (appList != null) {
-            // Find the specific application from this student for this internship
-            originalApplication = appList.stream()
-                    .filter(app -> app.getUserId().equals(studentId))
-                    .findFirst()
-                    .orElse(null);
-        }
+        // Find the original Application (from this student for this internship) to check its status
+        Application originalApplication = store.findApplication(internshipId, studentId);
 
         // If the original application was "Accepted", update the internship
         if (originalApplication != null && "Accepted".equalsIgnoreCase(originalApplication.getStatus())) {
 
             Internship internship = internships.get(internshipId);
             if (internship != null) {
-                int currentSlots = internship.getNumberOfSlots();
-
-                internship.setNumberOfSlots(currentSlots + 1);
+                // Return the slot with the same atomic counter acceptances reserve from
+                internship.releaseSlot();
 
                 // If status was "Filled", a slot has opened,
                 // so it must be "Approved" again.
                 if ("Filled".equalsIgnoreCase(internship.getStatus())) {
-                    internship.setStatus("Approved");
+                    store.setInternshipStatus(internship, "Approved");
                 }
 
-                internshipChanged = true;
+                changedInternship = internship;
             }
         }
 
-        // Save all changes to the relevant CSV files
-        boolean wthSave = rewriteWithdrawalCSV(withdrawalPath, withdrawals);
+        // The outcome is delivered to the student's inbox, so both records are resolved now
+        store.removeWithdrawal(withdrawalToApprove);
+        boolean wthSave = saveWithdrawalChanges(withdrawalPath, withdrawals, List.of(), List.of(withdrawalToApprove));
+        boolean appSave = true;
+        if (originalApplication != null) {
+            store.removeApplication(originalApplication);
+            appSave = saveApplicationChanges(applicationPath, applications, List.of(), List.of(originalApplication));
+        }
         boolean intSave = true; // Assume true unless changes were made
 
-        if (internshipChanged) {
-            intSave = rewriteInternshipCSV(internshipPath, internships);
+        if (changedInternship != null) {
+            intSave = saveInternshipChanges(internshipPath, internships, List.of(changedInternship), List.of());
         }
 
-        return wthSave && intSave;
+        store.getInbox().post(studentId, NotificationInbox.withdrawalDecided(store.titleOf(internshipId), true));
+        return wthSave && appSave && intSave;
     }
 
     /**
-     * Reject a withdrawal request and persist the change.
+     * Reject a withdrawal request, notify the student and remove the resolved request; the
+     * original application is left as it was.
      *
      * @param withdrawalToReject the Withdrawal to reject
      * @return true on success
      */
     public boolean rejectWithdrawal(Withdrawal withdrawalToReject) {
         if (withdrawalToReject != null) {
-            withdrawalToReject.setStatus("Rejected");
-            return rewriteWithdrawalCSV(withdrawalPath, withdrawals); // Write changes to file
+            return store.withLocks(withdrawalToReject.getUserId(), List.of(withdrawalToReject.getUUID().toString()), () -> {
+                if (!isPending(withdrawalToReject)) {
+                    return false;
+                }
+                withdrawalToReject.setStatus("Rejected");
+                store.removeWithdrawal(withdrawalToReject);
+                boolean saved = saveWithdrawalChanges(withdrawalPath, withdrawals, List.of(), List.of(withdrawalToReject)); // Write changes to file
+                store.getInbox().post(withdrawalToReject.getUserId(),
+                        NotificationInbox.withdrawalDecided(store.titleOf(withdrawalToReject.getUUID().toString()), false));
+                return saved;
+            });
         }
         return false; // Withdrawal not found
     }
@@ -247,82 +320,89 @@ public class CareerCenterStaffController extends BaseController {
      * withdrawals, plus a detailed breakdown for each internship showing application counts,
      * withdrawal requests, and percentage of total applications.
      * </p>
+     * <p>
+     * The figures come from the store's running totals, so the summary costs O(1) and the
+     * breakdown walks internships that are already in title order.
+     * </p>
      *
      * @return formatted report String
      */
     public String generateReportString() {
         StringBuilder sb = new StringBuilder();
-        sb.append("========================================\n");
-        sb.append("   Internship Placement System Report   \n");
-        sb.append("========================================\n");
-
-        // --- 1. System-Wide Summary ---
-        long totalApprovedCompanies = companyReps.values().stream()
-                .filter(r -> "Approved".equalsIgnoreCase(r.getStatus()))
-                .count();
-
-        long totalInternships = internships.size();
-
-        // Group internships by status
-        Map<String, Long> internshipsByStatus = internships.values().stream()
-                .collect(Collectors.groupingBy(
-                        i -> i.getStatus() != null ? i.getStatus() : "Unknown",
-                        Collectors.counting()
-                ));
-
-        // Get total application and withdrawal counts
-        long totalApplications = applications.values().stream()
-                .mapToLong(List::size)
-                .sum();
-
-        long totalWithdrawals = withdrawals.values().stream()
-                .mapToLong(List::size)
-                .sum();
-
-        sb.append("\n--- System-Wide Summary ---\n");
-        sb.append(String.format("Total Approved Companies: %d\n", totalApprovedCompanies));
-        sb.append(String.format("Total Internships:        %d\n", totalInternships));
-        internshipsByStatus.forEach((status, count) ->
-                sb.append(String.format("  - %s: %d\n", status, count))
-        );
-        sb.append(String.format("Total Applications:       %d\n", totalApplications));
-        sb.append(String.format("Total Withdrawal Requests: %d\n", totalWithdrawals));
-
-        // --- 2. Per-Internship Breakdown ---
-        sb.append("\n\n--- Per-Internship Breakdown ---\n");
-        if (internships.isEmpty()) {
-            sb.append("No internships found in the system.\n");
+        try {
+            writeReport(sb, ReportFormat.TEXT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Appending to a StringBuilder does not fail
         }
+        return sb.toString();
+    }
 
-        // Sort internships by title for a clean report
-        List<Internship> sortedInternships = internships.values().stream()
-                .sorted(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
-
-        for (Internship internship : sortedInternships) {
-            String id = internship.getUUID().toString();
-
-            // Get app count for this internship
-            List<Application> appsForThis = applications.getOrDefault(id, Collections.emptyList());
-            int appCount = appsForThis.size();
-
-            // Get withdrawal count for this internship
-            List<Withdrawal> withdrawalsForThis = withdrawals.getOrDefault(id, Collections.emptyList());
-            int withdrawalCount = withdrawalsForThis.size();
-
-            // Calculate percentage of all applications
-            double percentage = (totalApplications == 0) ? 0.0 : ((double) appCount / totalApplications) * 100.0;
+    /**
+     * Export the report to a file, streaming it row by row instead of building it in memory.
+     *
+     * @param file   file to create or overwrite
+     * @param format output format
+     * @return true on success, false if the file could not be written
+     */
+    public boolean exportReport(Path file, ReportFormat format) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeReport(writer, format);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to export report to " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
 
-            sb.append("\n----------------------------------------\n");
-            sb.append(String.format("Internship: %s\n", internship.getTitle()));
-            sb.append(String.format("Company:    %s\n", internship.getCompanyName()));
-            sb.append(String.format("Status:     %s\n", internship.getStatus()));
-            sb.append(String.format("  - Applications Received: %d\n", appCount));
-            sb.append(String.format("  - Withdrawal Requests:   %d\n", withdrawalCount));
-            sb.append(String.format("  - %% of Total System Apps: %.1f%%\n", percentage));
+    /**
+     * Write the report to a character stream, row by row.
+     * <p>
+     * The figures are copied while the index read lock is held and written after it is released,
+     * so a slow destination does not hold up changes to internships.
+     * </p>
+     *
+     * @param out    destination (not closed)
+     * @param format output format
+     * @throws IOException if writing to the destination fails
+     */
+    public void writeReport(Appendable out, ReportFormat format) throws IOException {
+        ReportWriter.Snapshot report;
+        Lock lock = store.indexReadLock(); // Keeps the title order stable while it is copied
+        lock.lock();
+        try {
+            report = ReportWriter.Snapshot.of(store.getReportAggregates(), applications, withdrawals);
+        } finally {
+            lock.unlock();
         }
+        new ReportWriter(out, format).write(report); // Written without the lock, however slow the destination
+    }
 
-        return sb.toString();
+    /**
+     * Bulk-import students from a roster CSV ({@code StudentID,Name,Major,Year,Email[,Password]}).
+     * <p>
+     * Rows are validated and their passwords hashed in parallel; rows without a password get the
+     * default password. Valid students are added to the student table and persisted with one write;
+     * invalid, duplicate and already registered rows are skipped and listed in the result.
+     * </p>
+     *
+     * @param roster roster file to import
+     * @return import result with throughput and rejected rows, or null if the roster could not be
+     *         read or the students could not be persisted
+     */
+    public ImportResult importStudents(Path roster) {
+        return new StudentImporter().importRoster(roster);
+    }
+
+    /**
+     * Bulk-import students from roster CSV content, e.g. uploaded over the API
+     * (see {@link #importStudents(Path)}).
+     *
+     * @param roster roster CSV content (closed when the import ends)
+     * @return import result with throughput and rejected rows, or null if the roster could not be
+     *         read or the students could not be persisted
+     */
+    public ImportResult importStudents(Reader roster) {
+        return new StudentImporter().importRoster(roster);
     }
 
     /**
@@ -340,9 +420,83 @@ public class CareerCenterStaffController extends BaseController {
      */
     public List<Internship> viewAllInternships(List<String> statusFilters, List<String> levelFilters,
                                                List<String> companyFilters, List<String> majorFilters) {
+        return viewAllInternships(statusFilters, levelFilters, companyFilters, majorFilters, null);
+    }
+
+    /**
+     * View all internships applying optional filters and an optional keyword search.
+     * <p>
+     * Same as {@link #viewAllInternships(List, List, List, List)}, except that when keywords are
+     * given only internships whose title or description match every keyword are returned, ranked
+     * by relevance instead of sorted by title. Keywords match the start of words, case-insensitively.
+     * </p>
+     *
+     * @param statusFilters  list of statuses to include (null/empty = include all)
+     * @param levelFilters   list of levels to include (null/empty = include all)
+     * @param companyFilters list of companies to include (null/empty = include all)
+     * @param majorFilters   list of preferred majors to include (null/empty = include all)
+     * @param keywords       search keywords (null/blank = no keyword search)
+     * @return filtered list of internships
+     */
+    public List<Internship> viewAllInternships(List<String> statusFilters, List<String> levelFilters,
+                                               List<String> companyFilters, List<String> majorFilters,
+                                               String keywords) {
+        boolean ranked = keywords != null && !keywords.isBlank();
+
+        // Start with the keyword matches (best first) or all internships
+        Stream<Internship> stream = ranked
+                ? store.searchInternships(keywords).stream()
+                : internships.values().stream();
+
+        // Collect the results from the stream into a list
+        List<Internship> filteredList = stream
+                .filter(listingFilter(statusFilters, levelFilters, companyFilters, majorFilters))
+                .collect(Collectors.toList());
+
+        // Sort the list by title (case-insensitive) unless it is ranked by relevance
+        if (!ranked) {
+            filteredList.sort(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER));
+        }
+
+        return filteredList;
+    }
+
+    /**
+     * View one page of all internships applying optional filters and an optional keyword search.
+     * <p>
+     * Lists the same internships as {@link #viewAllInternships(List, List, List, List, String)}.
+     * Without keywords, pages follow the store's pre-sorted title order, so fetching a page only
+     * examines internships from the cursor onwards and never sorts the catalogue.
+     * </p>
+     *
+     * @param statusFilters  list of statuses to include (null/empty = include all)
+     * @param levelFilters   list of levels to include (null/empty = include all)
+     * @param companyFilters list of companies to include (null/empty = include all)
+     * @param majorFilters   list of preferred majors to include (null/empty = include all)
+     * @param keywords       search keywords (null/blank = no keyword search)
+     * @param cursor         cursor from the previous page, or null for the first page
+     * @param pageSize       maximum number of internships per page
+     * @return the page, or null if the cursor or page size is invalid
+     */
+    public Page<Internship> viewAllInternshipsPage(List<String> statusFilters, List<String> levelFilters,
+                                                   List<String> companyFilters, List<String> majorFilters,
+                                                   String keywords, String cursor, int pageSize) {
+        return store.pageInternships(listingFilter(statusFilters, levelFilters, companyFilters, majorFilters),
+                keywords, cursor, pageSize);
+    }
 
-        // Start with a stream of all internships
-        Stream<Internship> stream = internships.values().stream();
+    /**
+     * Build the optional status, level, company and major filters of the internship listing.
+     *
+     * @param statusFilters  list of statuses to include (null/empty = include all)
+     * @param levelFilters   list of levels to include (null/empty = include all)
+     * @param companyFilters list of companies to include (null/empty = include all)
+     * @param majorFilters   list of preferred majors to include (null/empty = include all)
+     * @return predicate accepting the internships to list
+     */
+    private Predicate<Internship> listingFilter(List<String> statusFilters, List<String> levelFilters,
+                                                List<String> companyFilters, List<String> majorFilters) {
+        Predicate<Internship> filter = i -> true;
 
         // Apply status filter if provided
         if (statusFilters != null && !statusFilters.isEmpty()) {
@@ -351,7 +505,7 @@ public class CareerCenterStaffController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getStatus() != null &&
+            filter = filter.and(i -> i.getStatus() != null &&
                     normalizedFilters.contains(i.getStatus().toLowerCase()));
         }
 
@@ -361,7 +515,7 @@ public class CareerCenterStaffController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getLevel() != null &&
+            filter = filter.and(i -> i.getLevel() != null &&
                     normalizedFilters.contains(i.getLevel().toLowerCase()));
         }
 
@@ -371,7 +525,7 @@ public class CareerCenterStaffController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getCompanyName() != null &&
+            filter = filter.and(i -> i.getCompanyName() != null &&
                     normalizedFilters.contains(i.getCompanyName().toLowerCase()));
         }
 
@@ -381,16 +535,9 @@ public class CareerCenterStaffController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getPreferredMajor() != null &&
+            filter = filter.and(i -> i.getPreferredMajor() != null &&
                     normalizedFilters.contains(i.getPreferredMajor().toLowerCase()));
         }
-
-        // Collect the results from the stream into a list
-        List<Internship> filteredList = stream.collect(Collectors.toList());
-
-        // Sort the list by title (case-insensitive)
-        filteredList.sort(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER));
-
-        return filteredList;
+        return filter;
     }
 }
@@ -0,0 +1,137 @@
+package control;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only change log kept next to a CSV table.
+ * <p>
+ * Each record is one CSV line prefixed with an operation: {@code PUT} carries a full table row and
+ * {@code DEL} carries only the key columns of a removed row. Records are applied in order on top of
+ * the CSV snapshot when the table is loaded, and the journal is cleared once the snapshot has been
+ * rewritten (compaction). Replaying a record twice has no further effect, so a crash between rewriting
+ * the snapshot and clearing the journal is harmless.
+ * </p>
+ */
+class ChangeJournal {
+    /**
+     * Operation tag for an inserted or updated row.
+     */
+    static final String PUT = "PUT";
+
+    /**
+     * Operation tag for a removed row.
+     */
+    static final String DEL = "DEL";
+
+    /**
+     * One journal per table file, shared by every controller writing that table.
+     */
+    private static final Map<Path, ChangeJournal> journals = new HashMap<>();
+
+    /**
+     * Location of the journal file (the CSV path with a ".journal" suffix).
+     */
+    private final Path journalPath;
+
+    /**
+     * Number of records currently in the journal file.
+     */
+    private int recordCount;
+
+    /**
+     * Get the journal belonging to the given CSV table.
+     *
+     * @param csvPath path of the CSV snapshot
+     * @return the shared journal for that table
+     */
+    static synchronized ChangeJournal forTable(Path csvPath) {
+        return journals.computeIfAbsent(csvPath.toAbsolutePath().normalize(), ChangeJournal::new);
+    }
+
+    /**
+     * Create a journal for the given table and count any records left from a previous run.
+     *
+     * @param csvPath path of the CSV snapshot
+     */
+    private ChangeJournal(Path csvPath) {
+        journalPath = csvPath.resolveSibling(csvPath.getFileName() + ".journal");
+        try {
+            recordCount = readRecords().size();
+        } catch (IOException e) {
+            System.err.println("Failed to read journal " + journalPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the location of the journal file.
+     *
+     * @return journal path (the file may not exist)
+     */
+    Path getPath() {
+        return journalPath;
+    }
+
+    /**
+     * Append records to the end of the journal.
+     *
+     * @param records journal lines ("PUT,..." or "DEL,...")
+     * @throws IOException if the journal cannot be written
+     */
+    synchronized void append(List<String> records) throws IOException {
+        Files.write(journalPath, records, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        recordCount += records.size();
+    }
+
+    /**
+     * Read every record currently in the journal, oldest first.
+     * <p>
+     * Records are tokenized as CSV, so quoted fields may span several lines.
+     * </p>
+     *
+     * @return records as field arrays, operation first (empty if there is no journal file)
+     * @throws IOException if the journal exists but cannot be read
+     */
+    synchronized List<String[]> readRecords() throws IOException {
+        List<String[]> records = new ArrayList<>();
+        if (!Files.exists(journalPath)) {
+            return records;
+        }
+        try (CsvReader reader = CsvReader.open(journalPath)) {
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.length > 1) {
+                    records.add(record);
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Get the number of records waiting to be compacted.
+     *
+     * @return record count
+     */
+    synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Discard all records; called after the CSV snapshot has been rewritten.
+     *
+     * @throws IOException if the journal file cannot be removed
+     */
+    synchronized void clear() throws IOException {
+        Files.deleteIfExists(journalPath);
+        recordCount = 0;
+    }
+}
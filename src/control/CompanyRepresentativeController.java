@@ -5,11 +5,10 @@ import entity.CompanyRepresentative;
 import entity.Internship;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Controller for company representative operations.
@@ -19,30 +18,37 @@ import java.util.stream.Stream;
  * rules such as maximum internships per company (5) and restricts editing/deletion
  * to pending internships only.
  * </p>
+ * <p>
+ * Changes to an existing internship or its applications run under the store's lock for that
+ * internship, so they are serialized with students applying and accepting offers for it. Decisions
+ * on many applications can be applied together, all or nothing, with one persistence step.
+ * </p>
  */
 public class CompanyRepresentativeController extends BaseController {
     private final Map<String, Internship> internships;
     private final Map<String, List<Application>> applications;
+    private final DataStore store;
 
     // Define the path to the internship and application CSV file
-    private static final Path internshipPath = Paths.get("data/sample_internship_list.csv");
-    private static final Path applicationPath = Paths.get("data/sample_application_list.csv");
+    private static final Path internshipPath = DataStore.internshipPath;
+    private static final Path applicationPath = DataStore.applicationPath;
 
     // Define the maximum number of internships allowed per company
     private static final int maxInternships = 5;
 
     /**
-     * Construct the controller and preload internships and applications from CSV.
+     * Construct the controller over the shared internship and application tables.
      */
     public CompanyRepresentativeController() {
-        internships = loadInternships(internshipPath);
-        applications = loadApplications(applicationPath);
+        store = DataStore.getInstance();
+        internships = store.getInternships();
+        applications = store.getApplications();
     }
 
     /**
      * Check whether the company may create more internships (enforces a maximum per company).
      * <p>
-     * Counts non-rejected internships for the company and compares against the maximum limit.
+     * Compares the company's live count of non-rejected internships against the maximum limit.
      * Handles null or empty company names by returning false.
      * </p>
      *
@@ -55,12 +61,7 @@ public class CompanyRepresentativeController extends BaseController {
             return false;
         }
 
-        long count = internships.values().stream()
-                .filter(i -> i.getCompanyName() != null &&
-                        i.getCompanyName().trim().equalsIgnoreCase(companyName.trim()))
-                .filter(i -> i.getStatus() != null &&
-                        !i.getStatus().equalsIgnoreCase("Rejected"))
-                .count();
+        int count = store.countActiveInternshipsOf(companyName);
 
         // Return true if the current count is less than the maximum allowed.
         return count < maxInternships;
@@ -85,10 +86,62 @@ public class CompanyRepresentativeController extends BaseController {
         }
         String target = companyName.trim();
 
-        // Start with the base stream filtered by company
-        Stream<Internship> stream = internships.values().stream()
-                .filter(i -> i.getCompanyName() != null &&
-                        i.getCompanyName().trim().equalsIgnoreCase(target));
+        // Start with the company's internships
+        return store.getInternshipsOf(target).stream()
+                .filter(listingFilter(statusFilters, levelFilters, majorFilters))
+                .sorted(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Return one page of the company's internships, optionally filtered by status/level/major.
+     * <p>
+     * Lists the same internships as {@link #viewMyInternships(String, List, List, List)}, in title order.
+     * </p>
+     *
+     * @param companyName   company name to filter by (case-insensitive)
+     * @param statusFilters status filters to apply (nullable)
+     * @param levelFilters  level filters to apply (nullable)
+     * @param majorFilters  preferred major filters to apply (nullable)
+     * @param cursor        cursor from the previous page, or null for the first page
+     * @param pageSize      maximum number of internships per page
+     * @return the page, or null if the cursor or page size is invalid
+     */
+    public Page<Internship> viewMyInternshipsPage(String companyName, List<String> statusFilters, List<String> levelFilters,
+                                                  List<String> majorFilters, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            System.err.println("Page size must be positive.");
+            return null;
+        }
+        PageCursor position = PageCursor.parse(cursor);
+        if (position == null) {
+            return null;
+        }
+        if (!position.isTitleCursor()) {
+            System.err.println("Page cursor does not belong to this listing.");
+            return null;
+        }
+        if (companyName == null || companyName.trim().isEmpty()) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+
+        // A company has only a handful of postings, so ordering them per request is cheap
+        List<Internship> mine = new ArrayList<>(store.getInternshipsOf(companyName.trim()));
+        mine.sort(PageCursor.TITLE_ORDER);
+        Predicate<Internship> filter = listingFilter(statusFilters, levelFilters, majorFilters);
+        return PageCursor.titlePage(mine, i -> position.precedes(i) && filter.test(i), pageSize);
+    }
+
+    /**
+     * Build the optional status, level and major filters of the company's internship listing.
+     *
+     * @param statusFilters status filters to apply (nullable)
+     * @param levelFilters  level filters to apply (nullable)
+     * @param majorFilters  preferred major filters to apply (nullable)
+     * @return predicate accepting the internships to list
+     */
+    private Predicate<Internship> listingFilter(List<String> statusFilters, List<String> levelFilters, List<String> majorFilters) {
+        Predicate<Internship> filter = i -> true;
 
         // Filter logic
         // Apply status filter if provided
@@ -97,7 +150,7 @@ public class CompanyRepresentativeController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getStatus() != null &&
+            filter = filter.and(i -> i.getStatus() != null &&
                     normalizedFilters.contains(i.getStatus().toLowerCase()));
         }
 
@@ -107,7 +160,7 @@ public class CompanyRepresentativeController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getLevel() != null &&
+            filter = filter.and(i -> i.getLevel() != null &&
                     normalizedFilters.contains(i.getLevel().toLowerCase()));
         }
 
@@ -117,13 +170,10 @@ public class CompanyRepresentativeController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getPreferredMajor() != null &&
+            filter = filter.and(i -> i.getPreferredMajor() != null &&
                     normalizedFilters.contains(i.getPreferredMajor().toLowerCase()));
         }
-
-        return stream
-                .sorted(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+        return filter;
     }
 
     /**
@@ -182,10 +232,10 @@ public class CompanyRepresentativeController extends BaseController {
                 opening, closing, status, companyName, representativeId, numberOfSlots, visibility);
 
         // Add new internship to the in-memory map
-        internships.put(uuid.toString(), newInternship);
+        store.addInternship(newInternship);
 
-        // Rewrite the entire CSV file with the new data
-        return rewriteInternshipCSV(internshipPath, internships);
+        // Persist the new internship
+        return saveInternshipChanges(internshipPath, internships, List.of(newInternship), List.of());
     }
 
     /**
@@ -215,6 +265,26 @@ public class CompanyRepresentativeController extends BaseController {
             String newClosingDate,
             int newNumberOfSlots
     ) {
+        return store.withInternshipLock(internshipUUID, () -> applyEdit(internshipUUID, newTitle, newDescription,
+                newLevel, newPreferredMajor, newOpeningDate, newClosingDate, newNumberOfSlots));
+    }
+
+    /**
+     * Apply an edit; the caller holds the internship's lock.
+     *
+     * @param internshipUUID     internship UUID string
+     * @param newTitle           new title (null/empty to keep current)
+     * @param newDescription     new description (null/empty to keep current)
+     * @param newLevel           new level (null/empty to keep current)
+     * @param newPreferredMajor  new preferred major (null/empty to keep current)
+     * @param newOpeningDate     new opening date (yyyy-MM-dd) (null/empty to keep current)
+     * @param newClosingDate     new closing date (yyyy-MM-dd) (null/empty to keep current)
+     * @param newNumberOfSlots   new slot count (1-10, outside range keeps current)
+     * @return true when update and persistence succeed, false if not pending or on error
+     */
+    private boolean applyEdit(String internshipUUID, String newTitle, String newDescription, String newLevel,
+                              String newPreferredMajor, String newOpeningDate, String newClosingDate,
+                              int newNumberOfSlots) {
         Internship internship = internships.get(internshipUUID);
 
         // Deny edit unless internship is still pending
@@ -236,33 +306,41 @@ public class CompanyRepresentativeController extends BaseController {
         } catch (Exception e) {
             System.err.println("Failed to parse new data (e.g., date): " + e.getMessage());
             return false;
+        } finally {
+            store.internshipEdited(internship); // Fields set before a parse error stay changed
         }
 
-        // Rewrite the entire CSV
-        return rewriteInternshipCSV(internshipPath, internships);
+        // Persist the edited internship
+        return saveInternshipChanges(internshipPath, internships, List.of(internship), List.of());
     }
 
     /**
-     * Delete a pending internship and persist changes.
+     * Delete a pending or rejected internship and persist changes.
+     * <p>
+     * Rejected internships are not removed when the rejection notice is read, so the representative
+     * deletes them here once reviewed. Neither status can have applications.
+     * </p>
      *
      * @param internshipUUID internship UUID string to delete
-     * @return true on successful deletion and persistence; false if not pending
+     * @return true on successful deletion and persistence; false if neither pending nor rejected
      */
     public boolean deleteInternship(String internshipUUID) {
-        Internship internship = internships.get(internshipUUID);
-
-        // Deny deletion unless internship is still pending
-        String status = internship.getStatus();
-        if (status != null && !status.toLowerCase().contains("pending")) {
-            System.err.println("Cannot delete internship unless it is pending.");
-            return false;
-        }
+        return store.withInternshipLock(internshipUUID, () -> {
+            Internship internship = internships.get(internshipUUID);
+
+            // Deny deletion unless internship is still pending or was rejected
+            String status = internship.getStatus();
+            if (status != null && !status.toLowerCase().contains("pending") && !status.equalsIgnoreCase("Rejected")) {
+                System.err.println("Cannot delete internship unless it is pending or rejected.");
+                return false;
+            }
 
-        // Remove from the in-memory map
-        internships.remove(internship.getUUID().toString());
+            // Remove from the in-memory map
+            store.removeInternship(internship.getUUID().toString());
 
-        // Rewrite the CSV
-        return rewriteInternshipCSV(internshipPath, internships);
+            // Persist the removal
+            return saveInternshipChanges(internshipPath, internships, List.of(), List.of(internship));
+        });
     }
 
     /**
@@ -277,22 +355,24 @@ public class CompanyRepresentativeController extends BaseController {
      * @return true on success, false if not approved or on error
      */
     public boolean toggleInternshipVisibility(String internshipUUID, int option) {
-        Internship internship = internships.get(internshipUUID);
-
-        // Only allow toggling if the internship is approved
-        String status = internship.getStatus();
-        if (status == null || !status.toLowerCase().contains("approved")) {
-            System.err.println("Cannot change visibility: Internship must be approved before toggling visibility.\n");
-            return false;
-        }
+        return store.withInternshipLock(internshipUUID, () -> {
+            Internship internship = internships.get(internshipUUID);
+
+            // Only allow toggling if the internship is approved
+            String status = internship.getStatus();
+            if (status == null || !status.toLowerCase().contains("approved")) {
+                System.err.println("Cannot change visibility: Internship must be approved before toggling visibility.\n");
+                return false;
+            }
 
-        boolean newVisibility = (option == 1); // 1 for visible, 2 for not visible
+            boolean newVisibility = (option == 1); // 1 for visible, 2 for not visible
 
-        // Update the object in the map
-        internship.setVisibility(newVisibility);
+            // Update the object in the map
+            store.setInternshipVisibility(internship, newVisibility);
 
-        // Rewrite the CSV
-        return rewriteInternshipCSV(internshipPath, internships);
+            // Persist the visibility change
+            return saveInternshipChanges(internshipPath, internships, List.of(internship), List.of());
+        });
     }
 
     /**
@@ -306,9 +386,8 @@ public class CompanyRepresentativeController extends BaseController {
      * @return map of internship UUID -> list of Application (empty map if no internships found)
      */
     public Map<String, List<Application>> getInternshipsWithApplications(String companyName) {
-        // Collect all internship IDs from the IN-MEMORY MAP
-        Set<String> companyInternshipIds = internships.values().stream()
-                .filter(i -> i.getCompanyName() != null && i.getCompanyName().trim().equalsIgnoreCase(companyName.trim()))
+        // Collect the company's internship IDs from the company index
+        Set<String> companyInternshipIds = store.getInternshipsOf(companyName).stream()
                 .map(i -> i.getUUID().toString())
                 .collect(Collectors.toSet());
 
@@ -327,11 +406,44 @@ public class CompanyRepresentativeController extends BaseController {
         return results;
     }
 
+    /**
+     * Retrieve one page of the company's internships along with their applications.
+     * <p>
+     * Internships are listed in title order and filtered like
+     * {@link #viewMyInternshipsPage(String, List, List, List, String, int)}; each is paired with its
+     * applications (an empty list if it has none).
+     * </p>
+     *
+     * @param companyName   company to retrieve apps for (case-insensitive)
+     * @param statusFilters status filters to apply (nullable)
+     * @param levelFilters  level filters to apply (nullable)
+     * @param majorFilters  preferred major filters to apply (nullable)
+     * @param cursor        cursor from the previous page, or null for the first page
+     * @param pageSize      maximum number of internships per page
+     * @return the page of (internship, applications) pairs, or null if the cursor or page size is invalid
+     */
+    public Page<Map.Entry<Internship, List<Application>>> getInternshipsWithApplicationsPage(
+            String companyName, List<String> statusFilters, List<String> levelFilters, List<String> majorFilters,
+            String cursor, int pageSize) {
+        Page<Internship> page = viewMyInternshipsPage(companyName, statusFilters, levelFilters, majorFilters, cursor, pageSize);
+        if (page == null) {
+            return null;
+        }
+        List<Map.Entry<Internship, List<Application>>> entries = new ArrayList<>(page.getItems().size());
+        for (Internship internship : page.getItems()) {
+            List<Application> appsForThisInternship = applications.get(internship.getUUID().toString());
+            entries.add(Map.entry(internship, appsForThisInternship != null
+                    ? Collections.unmodifiableList(appsForThisInternship) : List.of()));
+        }
+        return new Page<>(entries, page.getNextCursor());
+    }
+
     /**
      * Update the status of a student's application for a given internship and persist changes.
      * <p>
      * Finds the application by matching both internship UUID and student user ID, then updates
-     * the status and rewrites the application CSV file.
+     * the status and persists the changed application. A new "Successful" or "Unsuccessful"
+     * decision is posted to the student's inbox.
      * </p>
      *
      * @param internshipUUID internship UUID string
@@ -340,100 +452,147 @@ public class CompanyRepresentativeController extends BaseController {
      * @return true when update and CSV rewrite succeed; false if not found or on error
      */
     public boolean updateApplicationStatus(String internshipUUID, String studentUserId, String newStatus) {
-        if (internshipUUID == null || studentUserId == null || newStatus == null) {
-            System.err.println("Error: Invalid parameters.");
-            return false;
-        }
+        return updateApplicationStatuses(List.of(new ApplicationDecision(internshipUUID, studentUserId, newStatus))) >= 0;
+    }
 
-        // 1. Find the application list for this internship
-        List<Application> appList = applications.get(internshipUUID);
-        if (appList == null) {
-            System.err.println("Error: No applications found for internship " + internshipUUID);
-            return false; // No applications for this internship
+    /**
+     * Apply decisions on many applications at once, all or nothing, with a single persistence step.
+     * <p>
+     * Every decision is checked first, under the locks of all students and internships involved; if
+     * any is invalid (missing field, duplicate, or no matching application), nothing is changed.
+     * Otherwise all applications whose status differs are updated and persisted together with one
+     * save. If the save fails, every old status is restored; only once it succeeds is each new
+     * "Successful" or "Unsuccessful" decision posted to the student's inbox.
+     * </p>
+     *
+     * @param decisions (internship, student, status) decisions
+     * @return number of applications whose status changed, or -1 if nothing was applied or on error
+     */
+    public int updateApplicationStatuses(Collection<ApplicationDecision> decisions) {
+        if (decisions == null) {
+            System.err.println("Error: Invalid parameters.");
+            return -1;
         }
-
-        boolean updated = false;
-        // 2. Find the specific application by student ID and update its status
-        for (Application app : appList) {
-            if (app.getUserId().equals(studentUserId)) {
-                app.setStatus(newStatus);
-                updated = true;
-                break;
+        Set<String> studentIds = new HashSet<>();
+        Set<String> internshipIds = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        for (ApplicationDecision decision : decisions) {
+            if (decision == null || decision.getInternshipId() == null || decision.getStudentId() == null
+                    || decision.getStatus() == null) {
+                System.err.println("Error: Invalid parameters.");
+                return -1;
+            }
+            if (!seen.add(decision.getInternshipId() + "," + decision.getStudentId())) {
+                System.err.println("Error: More than one decision for " + decision + ".");
+                return -1;
             }
+            studentIds.add(decision.getStudentId());
+            internshipIds.add(decision.getInternshipId());
         }
 
-        // 3. If an update was made, rewrite the entire application CSV
-        if (updated) {
-            return rewriteApplicationCSV(applicationPath, applications);
-        } else {
-            System.err.println("Error: Matching application not found for student " + studentUserId);
-            return false;
-        }
+        // The students' locks serialize the decisions with them accepting or withdrawing offers
+        return store.withBatchLocks(studentIds, internshipIds, () -> applyDecisions(decisions, false));
     }
 
-    // src/control/CompanyRepresentativeController.java
     /**
-     * Produce short notifications for the company representative (e.g., rejected internships).
-     * Rejected internships are removed from the in-memory map and persisted.
-     * <p>
-     * Scans all company internships for "Rejected" status, creates notification messages,
-     * and removes those internships from the system permanently.
-     * </p>
+     * Mark every application to an internship that is still "Pending" as "Unsuccessful", with a
+     * single persistence step (e.g., once the representative has picked the successful applicants).
      *
-     * @return list of notification messages (may be empty)
+     * @param internshipUUID internship UUID string
+     * @return number of applications rejected, or -1 on error
      */
-    public List<String> checkNotifications(CompanyRepresentative companyRep) {
-        List<String> notifications = new ArrayList<>();
-        String companyName = companyRep.getCompanyName();
-        if (companyName == null || companyName.trim().isEmpty()) {
-            return notifications;
+    public int rejectPendingApplications(String internshipUUID) {
+        if (internshipUUID == null) {
+            System.err.println("Error: Invalid parameters.");
+            return -1;
         }
-        String target = companyName.trim();
+        List<ApplicationDecision> decisions = new ArrayList<>();
+        Set<String> studentIds = new HashSet<>();
+        for (Application app : applications.getOrDefault(internshipUUID, List.of())) {
+            if ("Pending".equalsIgnoreCase(app.getStatus()) && studentIds.add(app.getUserId())) {
+                decisions.add(new ApplicationDecision(internshipUUID, app.getUserId(), "Unsuccessful"));
+            }
+        }
+        if (decisions.isEmpty()) {
+            return 0;
+        }
+        // Applications decided since the snapshot above are skipped, not overwritten
+        return store.withBatchLocks(studentIds, List.of(internshipUUID), () -> applyDecisions(decisions, true));
+    }
 
-        // Collect removals to avoid modifying the map during iteration
-        List<String> toRemove = new ArrayList<>();
-
-        for (Internship internship : internships.values()) {
-            if (internship.getCompanyName() != null &&
-                    internship.getCompanyName().trim().equalsIgnoreCase(target)) {
-                String status = internship.getStatus();
-                if (status != null && status.equalsIgnoreCase("Rejected")) {
-                    String message = "Your Internship: '" + internship.getTitle() + "' has been rejected.";
-                    notifications.add(message);
-                    toRemove.add(internship.getUUID().toString());
+    /**
+     * Apply decisions and persist the changed applications; the caller holds the locks of all
+     * students and internships involved.
+     *
+     * @param decisions   decisions to apply
+     * @param pendingOnly true to skip applications that are no longer "Pending" instead of failing
+     * @return number of applications whose status changed, or -1 if nothing was applied or on error
+     */
+    private int applyDecisions(Collection<ApplicationDecision> decisions, boolean pendingOnly) {
+        // 1. Look up every application before changing any, so an invalid decision changes nothing
+        Map<Application, ApplicationDecision> targets = new LinkedHashMap<>();
+        for (ApplicationDecision decision : decisions) {
+            Application app = store.findApplication(decision.getInternshipId(), decision.getStudentId());
+            if (app == null) {
+                if (pendingOnly) {
+                    continue;
                 }
+                System.err.println("Error: Matching application not found for student " + decision.getStudentId());
+                return -1;
+            }
+            if (pendingOnly && !"Pending".equalsIgnoreCase(app.getStatus())) {
+                continue;
             }
+            targets.put(app, decision);
         }
 
-        // Apply removals after iteration
-        for (String internshipId : toRemove) {
-            if (!removeInternshipInternal(internshipId)) {
-                System.err.println("Failed to remove internship with ID: " + internshipId);
+        // 2. Update the statuses, remembering the old ones and collecting the notifications for new decisions
+        List<Application> changed = new ArrayList<>();
+        List<String> oldStatuses = new ArrayList<>();
+        List<NotificationInbox.Notification> notifications = new ArrayList<>();
+        for (Map.Entry<Application, ApplicationDecision> target : targets.entrySet()) {
+            Application app = target.getKey();
+            String newStatus = target.getValue().getStatus();
+            if (newStatus.equalsIgnoreCase(app.getStatus())) {
+                continue;
             }
+            oldStatuses.add(app.getStatus());
+            app.setStatus(newStatus);
+            changed.add(app);
+            if ("Successful".equalsIgnoreCase(newStatus) || "Unsuccessful".equalsIgnoreCase(newStatus)) {
+                notifications.add(new NotificationInbox.Notification(app.getUserId(), NotificationInbox.applicationDecided(
+                        store.titleOf(target.getValue().getInternshipId()), "Successful".equalsIgnoreCase(newStatus))));
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
         }
 
-        return notifications;
+        // 3. Persist all changed applications together; if that fails, restore every old status so
+        // the batch is all-or-nothing, and only notify the students of decisions that were saved
+        if (!saveApplicationChanges(applicationPath, applications, changed, List.of())) {
+            for (int i = 0; i < changed.size(); i++) {
+                changed.get(i).setStatus(oldStatuses.get(i));
+            }
+            System.err.println("Error: Failed to save application decisions; no changes were applied.");
+            return -1;
+        }
+        store.getInbox().postAll(notifications);
+        return changed.size();
     }
 
     /**
-     * Internal helper to remove an internship from the system.
+     * Get the representative's unread notifications (e.g., rejected internships).
      * <p>
-     * Removes from in-memory map and rewrites the internship CSV file.
+     * Messages are posted to the inbox of every representative of the company when an internship
+     * is rejected, so this costs O(unread) and leaves the rejected internship in place for the
+     * representative to review and then delete with {@link #deleteInternship(String)}. Each message
+     * is returned once.
      * </p>
      *
-     * @param internshipUUID internship UUID string to remove
-     * @return true when removal and CSV rewrite succeed, false on error
+     * @return list of notification messages (may be empty)
      */
-    private boolean removeInternshipInternal(String internshipUUID) {
-        if (internshipUUID == null || internshipUUID.trim().isEmpty()) {
-            System.err.println("Error: Invalid internship UUID.");
-            return false;
-        }
-
-        // Remove applications from the in-memory map
-        internships.remove(internshipUUID);
-
-        // Rewrite the application CSV
-        return rewriteInternshipCSV(internshipPath, internships);
+    public List<String> checkNotifications(CompanyRepresentative companyRep) {
+        return store.getInbox().readUnread(companyRep.getUserID());
     }
 }
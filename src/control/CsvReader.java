@@ -0,0 +1,218 @@
+package control;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV tokenizer shared by all table loaders.
+ * <p>
+ * Reads one record at a time in a single pass over a character buffer. Quoted fields may contain
+ * commas, doubled quotes and line breaks (CR, LF or CRLF). Unquoted fields are trimmed and
+ * surrounding whitespace of quoted fields is ignored, matching how the CSV files have always been
+ * read. The field buffer and field list are reused between records, so the only per-field
+ * allocation is the resulting String.
+ * </p>
+ */
+class CsvReader implements Closeable {
+    /**
+     * Underlying character source.
+     */
+    private final Reader in;
+
+    /**
+     * Read buffer.
+     */
+    private final char[] buffer = new char[8192];
+
+    /**
+     * Next unread position in the buffer.
+     */
+    private int position;
+
+    /**
+     * Number of valid characters in the buffer.
+     */
+    private int limit;
+
+    /**
+     * Characters of the field currently being read (reused).
+     */
+    private final StringBuilder field = new StringBuilder();
+
+    /**
+     * Fields of the record currently being read (reused).
+     */
+    private final List<String> fields = new ArrayList<>();
+
+    /**
+     * Create a tokenizer over the given reader.
+     *
+     * @param in character source (closed by {@link #close()})
+     */
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Open a UTF-8 CSV file for tokenizing.
+     *
+     * @param path file to read
+     * @return a new tokenizer positioned at the first record
+     * @throws IOException if the file cannot be opened
+     */
+    static CsvReader open(Path path) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the next record.
+     * <p>
+     * An empty line yields a record with a single empty field; callers filter records by
+     * column count.
+     * </p>
+     *
+     * @return the record's field values, or null at end of input
+     * @throws IOException if reading fails
+     */
+    String[] readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        fields.clear();
+        while (true) {
+            field.setLength(0);
+
+            // Leading whitespace is kept for unquoted fields (then trimmed) and dropped before a quote
+            while (c == ' ' || c == '\t') {
+                field.append((char) c);
+                c = read();
+            }
+
+            if (c == '"') {
+                field.setLength(0);
+                c = readQuoted();
+                // Skip whitespace after the closing quote; keep any other stray characters
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    if (c != ' ' && c != '\t') {
+                        field.append((char) c);
+                    }
+                    c = read();
+                }
+                fields.add(field.toString());
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = read();
+                }
+                fields.add(trimmedField());
+            }
+
+            if (c != ',') {
+                break;
+            }
+            c = read();
+        }
+
+        // Treat CRLF as a single line break
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Read the body of a quoted field into the field buffer, unescaping doubled quotes.
+     *
+     * @return the character following the closing quote (or -1 at end of input)
+     * @throws IOException if reading fails
+     */
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return -1; // Unterminated quote: keep what was read
+            }
+            if (c == '"') {
+                int next = read();
+                if (next != '"') {
+                    return next;
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    /**
+     * Return the field buffer without leading/trailing whitespace.
+     *
+     * @return trimmed field value
+     */
+    private String trimmedField() {
+        int start = 0;
+        int end = field.length();
+        while (start < end && field.charAt(start) <= ' ') start++;
+        while (end > start && field.charAt(end - 1) <= ' ') end--;
+        return field.substring(start, end);
+    }
+
+    /**
+     * Consume the next character.
+     *
+     * @return the character, or -1 at end of input
+     * @throws IOException if reading fails
+     */
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Look at the next character without consuming it.
+     *
+     * @return the character, or -1 at end of input
+     * @throws IOException if reading fails
+     */
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Refill the buffer from the underlying reader.
+     *
+     * @return false when the end of input has been reached
+     * @throws IOException if reading fails
+     */
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    /**
+     * Close the underlying reader.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
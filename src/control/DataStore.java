@@ -0,0 +1,1203 @@
+package control;
+
+import entity.*;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide owner of the in-memory tables.
+ * <p>
+ * Every table is loaded from its CSV exactly once, the first time the store is requested. All
+ * controllers receive the same live maps, so a change made through one role (e.g. a company
+ * representative updating an application) is immediately visible to every other role without
+ * reloading. Controllers still persist their changes through the {@link TablePersistence} helpers;
+ * in write-behind mode those writes are queued and {@link #flush()} must be called before exiting.
+ * Internships, applications and withdrawal requests are added and removed (and internship statuses
+ * changed) through the store so that its secondary indexes stay consistent with the tables.
+ * </p>
+ * <p>
+ * Approved internships whose closing date has passed are closed by a sweep that runs when the store
+ * is created and then every {@code ipms.expirySweepMinutes} minutes (default 60) on a daemon thread.
+ * </p>
+ * <p>
+ * The store is safe for concurrent use. Tables and per-student indexes are concurrent maps of
+ * copy-on-write lists, so lookups, listings and the persistence writers never lock. The derived
+ * internship indexes (eligibility bitmaps, title order, keywords, closing dates) are guarded by a
+ * read-write lock held only inside the store's own methods; readers share it. Controllers make a
+ * multi-step change atomic by running it under {@link #withLocks(String, Collection, Supplier)},
+ * which takes a striped lock per student and per internship UUID ({@code ipms.lockStripes} stripes
+ * each, default 64), so writers to unrelated postings do not contend.
+ * </p>
+ */
+public final class DataStore {
+    /**
+     * Path to the student CSV data file.
+     */
+    static final Path studentPath = Paths.get("data/sample_student_list.csv");
+
+    /**
+     * Path to the company representative CSV data file.
+     */
+    static final Path companyRepPath = Paths.get("data/sample_company_representative_list.csv");
+
+    /**
+     * Path to the staff CSV data file.
+     */
+    static final Path staffPath = Paths.get("data/sample_staff_list.csv");
+
+    /**
+     * Path to the internship CSV data file.
+     */
+    static final Path internshipPath = Paths.get("data/sample_internship_list.csv");
+
+    /**
+     * Path to the application CSV data file.
+     */
+    static final Path applicationPath = Paths.get("data/sample_application_list.csv");
+
+    /**
+     * Path to the withdrawal CSV data file.
+     */
+    static final Path withdrawalPath = Paths.get("data/sample_withdrawal_list.csv");
+
+    /**
+     * Path to the append-only notification log.
+     */
+    static final Path notificationPath = Paths.get("data/notifications.log");
+
+    /**
+     * Minutes between two expiry sweeps.
+     */
+    private static final long EXPIRY_SWEEP_MINUTES = Math.max(1, Long.getLong("ipms.expirySweepMinutes", 60));
+
+    /**
+     * Number of lock stripes for students and for internships.
+     */
+    private static final int LOCK_STRIPES = Math.max(1, Integer.getInteger("ipms.lockStripes", 64));
+
+    /**
+     * The single store instance, created on first use.
+     */
+    private static DataStore instance;
+
+    /**
+     * Student id -> Student.
+     */
+    private final Map<String, Student> students;
+
+    /**
+     * Company representative id/email -> CompanyRepresentative.
+     */
+    private final Map<String, CompanyRepresentative> companyReps;
+
+    /**
+     * Staff id -> CareerCenterStaff.
+     */
+    private final Map<String, CareerCenterStaff> staffs;
+
+    /**
+     * Internship UUID -> Internship.
+     */
+    private final Map<String, Internship> internships;
+
+    /**
+     * Internship UUID -> applications for that internship.
+     */
+    private final Map<String, List<Application>> applications;
+
+    /**
+     * Internship UUID -> withdrawal requests for that internship.
+     */
+    private final Map<String, List<Withdrawal>> withdrawals;
+
+    /**
+     * Secondary index: student id -> that student's applications (the same objects as in
+     * {@link #applications}, so status changes need no maintenance).
+     */
+    private final Map<String, List<Application>> applicationsByStudent = new ConcurrentHashMap<>();
+
+    /**
+     * Secondary index: student id -> that student's withdrawal requests.
+     */
+    private final Map<String, List<Withdrawal>> withdrawalsByStudent = new ConcurrentHashMap<>();
+
+    /**
+     * Secondary index: normalized company name -> that company's internships.
+     */
+    private final Map<String, List<Internship>> internshipsByCompany = new ConcurrentHashMap<>();
+
+    /**
+     * Normalized company name -> number of that company's internships that are not "Rejected".
+     */
+    private final Map<String, Integer> activeInternshipsByCompany = new ConcurrentHashMap<>();
+
+    /**
+     * Bitmap indexes answering which internships a student is eligible to browse.
+     */
+    private final EligibilityIndex eligibility = new EligibilityIndex();
+
+    /**
+     * Approved internships ordered by closing date, so expired ones form the head of the map.
+     */
+    private final NavigableMap<LocalDate, List<Internship>> openByClosingDate = new TreeMap<>();
+
+    /**
+     * Approved internship -> closing date it is filed under in {@link #openByClosingDate}.
+     */
+    private final Map<Internship, LocalDate> openClosingDates = new IdentityHashMap<>();
+
+    /**
+     * Running totals for the staff report.
+     */
+    private final ReportAggregates reportAggregates = new ReportAggregates();
+
+    /**
+     * Keyword index over internship titles and descriptions.
+     */
+    private final KeywordIndex keywords = new KeywordIndex();
+
+    /**
+     * Guards the derived internship indexes ({@link #eligibility}, {@link #openByClosingDate},
+     * {@link #openClosingDates}, the title order in {@link #reportAggregates} and {@link #keywords})
+     * and the company approval counts.
+     */
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+
+    /**
+     * Locks serializing changes made on behalf of one student.
+     */
+    private final StripedLocks studentLocks = new StripedLocks(LOCK_STRIPES);
+
+    /**
+     * Locks serializing changes to one internship and its applications and withdrawal requests.
+     */
+    private final StripedLocks internshipLocks = new StripedLocks(LOCK_STRIPES);
+
+    /**
+     * Users' notification inboxes.
+     */
+    private final NotificationInbox inbox = new NotificationInbox(notificationPath);
+
+    /**
+     * Load all tables and build the secondary indexes. A table that cannot be read starts empty
+     * (the loader reports the error).
+     */
+    private DataStore() {
+        students = concurrent(TablePersistence.loadStudents(studentPath));
+        companyReps = concurrent(TablePersistence.loadCompanyReps(companyRepPath));
+        staffs = concurrent(TablePersistence.loadStaffs(staffPath));
+        internships = concurrent(TablePersistence.loadInternships(internshipPath));
+        applications = concurrent(TablePersistence.loadApplications(applicationPath));
+        withdrawals = concurrent(TablePersistence.loadWithdrawals(withdrawalPath));
+
+        internships.values().forEach(this::indexInternship);
+        for (CompanyRepresentative rep : companyReps.values()) {
+            if (isApproved(rep)) {
+                reportAggregates.approvedCompaniesChanged(1);
+            }
+        }
+        for (List<Application> list : applications.values()) {
+            reportAggregates.applicationsChanged(list.size());
+            for (Application application : list) {
+                addToIndex(applicationsByStudent, application.getUserId(), application);
+            }
+        }
+        for (List<Withdrawal> list : withdrawals.values()) {
+            reportAggregates.withdrawalsChanged(list.size());
+            for (Withdrawal withdrawal : list) {
+                addToIndex(withdrawalsByStudent, withdrawal.getUserId(), withdrawal);
+            }
+        }
+        if (inbox.isNew()) {
+            seedInbox();
+        }
+    }
+
+    /**
+     * Fill a new inbox with the notifications the decided records of existing data would have
+     * produced, so decisions made before the inbox existed are still reported once.
+     */
+    private void seedInbox() {
+        List<NotificationInbox.Notification> seed = new ArrayList<>();
+        for (Map.Entry<String, List<Withdrawal>> entry : withdrawalsByStudent.entrySet()) {
+            for (Withdrawal withdrawal : entry.getValue()) {
+                String status = withdrawal.getStatus();
+                if ("Approved".equalsIgnoreCase(status) || "Rejected".equalsIgnoreCase(status)) {
+                    seed.add(new NotificationInbox.Notification(entry.getKey(), NotificationInbox.withdrawalDecided(
+                            titleOf(withdrawal.getUUID().toString()), "Approved".equalsIgnoreCase(status))));
+                }
+            }
+        }
+        for (Map.Entry<String, List<Application>> entry : applicationsByStudent.entrySet()) {
+            for (Application application : entry.getValue()) {
+                String internshipId = application.getUUID().toString();
+                String status = application.getStatus();
+                boolean decided = "Successful".equalsIgnoreCase(status) || "Unsuccessful".equalsIgnoreCase(status);
+                if (decided && findWithdrawal(internshipId, entry.getKey()) == null) {
+                    seed.add(new NotificationInbox.Notification(entry.getKey(), NotificationInbox.applicationDecided(
+                            titleOf(internshipId), "Successful".equalsIgnoreCase(status))));
+                }
+            }
+        }
+        for (Internship internship : internships.values()) {
+            if ("Rejected".equalsIgnoreCase(internship.getStatus())) {
+                for (String repId : getRepresentativeIdsOf(internship.getCompanyName())) {
+                    seed.add(new NotificationInbox.Notification(repId, NotificationInbox.internshipRejected(internship.getTitle())));
+                }
+            }
+        }
+        inbox.postAll(seed);
+    }
+
+    /**
+     * Get the users' notification inboxes.
+     *
+     * @return the shared inbox
+     */
+    NotificationInbox getInbox() {
+        return inbox;
+    }
+
+    /**
+     * Get the title of an internship for a notification.
+     *
+     * @param internshipId internship UUID string
+     * @return the title, or "[Unknown Internship]" if the internship no longer exists
+     */
+    String titleOf(String internshipId) {
+        Internship internship = internships.get(internshipId);
+        return internship != null ? internship.getTitle() : "[Unknown Internship]";
+    }
+
+    /**
+     * Get the ids of the representatives registered for a company.
+     *
+     * @param companyName company name (case-insensitive, surrounding whitespace ignored)
+     * @return representative user ids (empty if none)
+     */
+    List<String> getRepresentativeIdsOf(String companyName) {
+        String key = companyKey(companyName);
+        List<String> ids = new ArrayList<>();
+        for (CompanyRepresentative rep : companyReps.values()) {
+            if (companyKey(rep.getCompanyName()).equals(key)) {
+                ids.add(rep.getUserID());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Get the shared store, loading all tables on the first call.
+     *
+     * @return the process-wide store
+     */
+    public static synchronized DataStore getInstance() {
+        if (instance == null) {
+            instance = new DataStore();
+            instance.startExpirySweep();
+        }
+        return instance;
+    }
+
+    /**
+     * Write every change that is still waiting in the write-behind queue, including password hashes
+     * upgraded on login that have not been written yet; call before the process exits.
+     * Without write-behind mode or pending upgrades all changes are already on disk and this returns immediately.
+     *
+     * @return true when all changes are on disk
+     */
+    public boolean flush() {
+        boolean rehashed = RehashBatcher.flushIfStarted();
+        return (!TablePersistence.WRITE_BEHIND || WriteBehindFlusher.getInstance().flush()) && rehashed;
+    }
+
+    /**
+     * Get flush latency and backlog statistics of the write-behind queue.
+     *
+     * @return metrics snapshot, or null when write-behind mode is off
+     */
+    public FlushMetrics getFlushMetrics() {
+        return TablePersistence.WRITE_BEHIND ? WriteBehindFlusher.getInstance().getMetrics() : null;
+    }
+
+    /**
+     * Copy a loaded table into a concurrent map, substituting an empty one for a table that failed to load.
+     *
+     * @param loaded map returned by a loader (nullable)
+     * @param <K>    key type
+     * @param <V>    value type
+     * @return concurrent map with the loaded entries
+     */
+    private static <K, V> Map<K, V> concurrent(Map<K, V> loaded) {
+        return loaded != null ? new ConcurrentHashMap<>(loaded) : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Run a change holding the locks of a student and of some internships.
+     * <p>
+     * The student lock is taken first, then the internship stripes in ascending order; every caller
+     * follows this order, so callers cannot deadlock. Use it for any change that reads and then
+     * writes an internship's slots or status, or its applications and withdrawal requests, and keep
+     * the persistence of the change inside the action so records of one internship are written in
+     * the order they were changed.
+     * </p>
+     *
+     * @param studentId     student whose records change (null if none)
+     * @param internshipIds UUID strings of the internships whose records change
+     * @param action        change to make
+     * @param <T>           result type
+     * @return the action's result
+     */
+    <T> T withLocks(String studentId, Collection<String> internshipIds, Supplier<T> action) {
+        if (studentId == null) {
+            return internshipLocks.withLocks(internshipIds, action);
+        }
+        return studentLocks.withLock(studentId, () -> internshipLocks.withLocks(internshipIds, action));
+    }
+
+    /**
+     * Run a change holding the locks of several students and of some internships, e.g. to decide
+     * many applications at once. The student stripes are taken first, in ascending order, then the
+     * internship stripes, so this follows the order of {@link #withLocks(String, Collection, Supplier)}.
+     *
+     * @param studentIds    students whose records change
+     * @param internshipIds UUID strings of the internships whose records change
+     * @param action        change to make
+     * @param <T>           result type
+     * @return the action's result
+     */
+    <T> T withBatchLocks(Collection<String> studentIds, Collection<String> internshipIds, Supplier<T> action) {
+        return studentLocks.withLocks(studentIds, () -> internshipLocks.withLocks(internshipIds, action));
+    }
+
+    /**
+     * Run a change holding the lock of one student, e.g. to collect the internships whose locks the
+     * change needs from the student's records before calling {@link #withLocks(String, Collection, Supplier)}
+     * (with a null student) inside it.
+     *
+     * @param studentId student user id
+     * @param action    change to make
+     * @param <T>       result type
+     * @return the action's result
+     */
+    <T> T withStudentLock(String studentId, Supplier<T> action) {
+        return studentLocks.withLock(studentId, action);
+    }
+
+    /**
+     * Run a change to a user account (password hash, registration) holding the lock of its user id.
+     * <p>
+     * Account locks share the student stripes, so a student's account change also excludes changes
+     * to that student's records. They are taken on their own, never inside internship locks.
+     * </p>
+     *
+     * @param userId user id of the account
+     * @param action change to make
+     * @param <T>    result type
+     * @return the action's result
+     */
+    <T> T withUserLock(String userId, Supplier<T> action) {
+        return studentLocks.withLock(userId, action);
+    }
+
+    /**
+     * Run a change to several user accounts holding their locks, acquired in ascending stripe order
+     * (see {@link #withUserLock(String, Supplier)}).
+     *
+     * @param userIds user ids of the accounts
+     * @param action  change to make
+     * @param <T>     result type
+     * @return the action's result
+     */
+    <T> T withUserLocks(Collection<String> userIds, Supplier<T> action) {
+        return studentLocks.withLocks(userIds, action);
+    }
+
+    /**
+     * Run a change holding the lock of one internship.
+     *
+     * @param internshipId internship UUID string
+     * @param action       change to make
+     * @param <T>          result type
+     * @return the action's result
+     */
+    <T> T withInternshipLock(String internshipId, Supplier<T> action) {
+        return internshipLocks.withLock(internshipId, action);
+    }
+
+    /**
+     * Get the read side of the index lock, for callers that walk the title order returned by
+     * {@link #getReportAggregates()}.
+     *
+     * @return lock to hold while reading the report aggregates
+     */
+    Lock indexReadLock() {
+        return indexLock.readLock();
+    }
+
+    /**
+     * Read the derived internship indexes under the shared read lock.
+     *
+     * @param query read to perform
+     * @param <T>   result type
+     * @return the query's result
+     */
+    private <T> T readIndexes(Supplier<T> query) {
+        Lock lock = indexLock.readLock();
+        lock.lock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Update the derived internship indexes under the exclusive write lock.
+     *
+     * @param update change to make
+     */
+    private void writeIndexes(Runnable update) {
+        Lock lock = indexLock.writeLock();
+        lock.lock();
+        try {
+            update.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the live student table.
+     *
+     * @return map of student id -> Student
+     */
+    Map<String, Student> getStudents() {
+        return students;
+    }
+
+    /**
+     * Get the live company representative table.
+     *
+     * @return map of id/email -> CompanyRepresentative
+     */
+    Map<String, CompanyRepresentative> getCompanyReps() {
+        return companyReps;
+    }
+
+    /**
+     * Get the live staff table.
+     *
+     * @return map of staff id -> CareerCenterStaff
+     */
+    Map<String, CareerCenterStaff> getStaffs() {
+        return staffs;
+    }
+
+    /**
+     * Get the live internship table.
+     *
+     * @return map of internship UUID -> Internship
+     */
+    Map<String, Internship> getInternships() {
+        return internships;
+    }
+
+    /**
+     * Get the live application table.
+     *
+     * @return map of internship UUID -> list of Application
+     */
+    Map<String, List<Application>> getApplications() {
+        return applications;
+    }
+
+    /**
+     * Get the live withdrawal table.
+     *
+     * @return map of internship UUID -> list of Withdrawal
+     */
+    Map<String, List<Withdrawal>> getWithdrawals() {
+        return withdrawals;
+    }
+
+    /**
+     * Normalize a company name for index lookups (trimmed, case-insensitive).
+     *
+     * @param companyName company name (nullable)
+     * @return index key
+     */
+    private static String companyKey(String companyName) {
+        return companyName == null ? "" : companyName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether an internship counts towards its company's posting limit.
+     *
+     * @param internship internship to check
+     * @return true unless the status is missing or "Rejected"
+     */
+    private static boolean countsTowardsLimit(Internship internship) {
+        return internship.getStatus() != null && !internship.getStatus().equalsIgnoreCase("Rejected");
+    }
+
+    /**
+     * Get the internships posted by one company.
+     *
+     * @param companyName company name (case-insensitive, surrounding whitespace ignored)
+     * @return read-only live list of the company's internships (empty if none)
+     */
+    List<Internship> getInternshipsOf(String companyName) {
+        List<Internship> list = internshipsByCompany.get(companyKey(companyName));
+        return list != null ? Collections.unmodifiableList(list) : List.of();
+    }
+
+    /**
+     * Get the number of a company's internships that are not "Rejected".
+     *
+     * @param companyName company name (case-insensitive, surrounding whitespace ignored)
+     * @return number of active postings
+     */
+    int countActiveInternshipsOf(String companyName) {
+        return activeInternshipsByCompany.getOrDefault(companyKey(companyName), 0);
+    }
+
+    /**
+     * Add an internship to the table and its indexes. Does not persist.
+     *
+     * @param internship internship to add
+     */
+    void addInternship(Internship internship) {
+        writeIndexes(() -> {
+            Internship previous = internships.put(internship.getUUID().toString(), internship);
+            if (previous != null) {
+                unindexInternship(previous);
+            }
+            indexInternship(internship);
+        });
+    }
+
+    /**
+     * Remove an internship from the table and its indexes. Does not persist.
+     *
+     * @param internshipId internship UUID string
+     * @return the removed internship, or null if there was none
+     */
+    Internship removeInternship(String internshipId) {
+        indexLock.writeLock().lock();
+        try {
+            Internship removed = internships.remove(internshipId);
+            if (removed != null) {
+                unindexInternship(removed);
+            }
+            return removed;
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Change an internship's status, keeping the per-company active count and the eligibility
+     * index up to date. Does not persist.
+     *
+     * @param internship internship to update
+     * @param status     new status
+     */
+    void setInternshipStatus(Internship internship, String status) {
+        writeIndexes(() -> {
+            boolean wasCounted = countsTowardsLimit(internship);
+            internship.setStatus(status);
+            boolean isCounted = countsTowardsLimit(internship);
+            if (wasCounted != isCounted && internships.get(internship.getUUID().toString()) == internship) {
+                activeInternshipsByCompany.merge(companyKey(internship.getCompanyName()), isCounted ? 1 : -1, Integer::sum);
+            }
+            eligibility.update(internship);
+            refreshClosingDateIndex(internship);
+            reportAggregates.internshipChanged(internship);
+        });
+    }
+
+    /**
+     * Change an internship's visibility, keeping the eligibility index up to date. Does not persist.
+     *
+     * @param internship internship to update
+     * @param visible    new visibility
+     */
+    void setInternshipVisibility(Internship internship, boolean visible) {
+        writeIndexes(() -> {
+            internship.setVisibility(visible);
+            eligibility.update(internship);
+        });
+    }
+
+    /**
+     * Re-index an internship whose title, description, level, preferred major or closing date was
+     * edited in place. (The company of an internship cannot be edited, so the company index is
+     * unaffected.)
+     *
+     * @param internship internship that was edited
+     */
+    void internshipEdited(Internship internship) {
+        writeIndexes(() -> {
+            eligibility.update(internship);
+            refreshClosingDateIndex(internship);
+            reportAggregates.internshipChanged(internship);
+            keywords.update(internship);
+        });
+    }
+
+    /**
+     * Search internship titles and descriptions by keywords. Every query word must match the start
+     * of a word in the internship; results are ranked by relevance.
+     *
+     * @param query search text
+     * @return matching internships, best match first (empty for a query without words)
+     */
+    List<Internship> searchInternships(String query) {
+        return readIndexes(() -> keywords.search(query));
+    }
+
+    /**
+     * Get the running totals for the staff report.
+     *
+     * @return live report aggregates (read-only use, holding {@link #indexReadLock()})
+     */
+    ReportAggregates getReportAggregates() {
+        return reportAggregates;
+    }
+
+    /**
+     * Add a student to the student table, replacing any student with the same id. Does not persist.
+     *
+     * @param student student to add
+     */
+    void addStudent(Student student) {
+        students.put(student.getUserID(), student);
+    }
+
+    /**
+     * Remove a student from the student table. Does not persist.
+     *
+     * @param student student to remove
+     */
+    void removeStudent(Student student) {
+        students.remove(student.getUserID(), student);
+    }
+
+    /**
+     * Add a company representative to the table, replacing any account with the same id. Does not persist.
+     *
+     * @param rep company representative to add
+     */
+    void addCompanyRep(CompanyRepresentative rep) {
+        writeIndexes(() -> {
+            CompanyRepresentative previous = companyReps.put(rep.getUserID(), rep);
+            if (previous != null && isApproved(previous)) {
+                reportAggregates.approvedCompaniesChanged(-1);
+            }
+            if (isApproved(rep)) {
+                reportAggregates.approvedCompaniesChanged(1);
+            }
+        });
+    }
+
+    /**
+     * Change a company representative's status, keeping the approved-company count up to date.
+     * Does not persist.
+     *
+     * @param rep    company representative to update
+     * @param status new status
+     */
+    void setCompanyRepStatus(CompanyRepresentative rep, String status) {
+        writeIndexes(() -> {
+            boolean wasApproved = isApproved(rep);
+            rep.setStatus(status);
+            boolean approved = isApproved(rep);
+            if (wasApproved != approved && companyReps.get(rep.getUserID()) == rep) {
+                reportAggregates.approvedCompaniesChanged(approved ? 1 : -1);
+            }
+        });
+    }
+
+    /**
+     * Check whether a company representative is counted as an approved company.
+     *
+     * @param rep company representative
+     * @return true if its status is "Approved"
+     */
+    private static boolean isApproved(CompanyRepresentative rep) {
+        return "Approved".equalsIgnoreCase(rep.getStatus());
+    }
+
+    /**
+     * Close every approved internship whose closing date is before the given day and mark its
+     * pending applications "Unsuccessful", notifying their students. All closed internships and
+     * resolved applications are persisted together, with one save per table.
+     * <p>
+     * The due internships are read from the closing-date index, then re-checked while holding their
+     * locks, so one changed concurrently (e.g. filled or re-dated) is left alone.
+     * </p>
+     *
+     * @param today first day on which internships are still open
+     * @return number of internships closed
+     */
+    int closeExpiredInternships(LocalDate today) {
+        List<Internship> due = readIndexes(() -> {
+            List<Internship> list = new ArrayList<>();
+            openByClosingDate.headMap(today, false).values().forEach(list::addAll);
+            return list;
+        });
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<String> dueIds = due.stream().map(internship -> internship.getUUID().toString()).toList();
+        return withLocks(null, dueIds, () -> {
+            List<Internship> expired = new ArrayList<>();
+            List<Application> resolved = new ArrayList<>();
+            List<NotificationInbox.Notification> notifications = new ArrayList<>();
+            for (Internship internship : due) {
+                String internshipId = internship.getUUID().toString();
+                boolean stillDue = internships.get(internshipId) == internship
+                        && "Approved".equalsIgnoreCase(internship.getStatus())
+                        && internship.getClosingDate() != null
+                        && internship.getClosingDate().isBefore(today);
+                if (!stillDue) {
+                    continue;
+                }
+                setInternshipStatus(internship, "Closed");
+                expired.add(internship);
+                List<Application> appList = applications.get(internshipId);
+                if (appList != null) {
+                    for (Application app : appList) {
+                        if ("Pending".equalsIgnoreCase(app.getStatus())) {
+                            app.setStatus("Unsuccessful");
+                            resolved.add(app);
+                            notifications.add(new NotificationInbox.Notification(app.getUserId(),
+                                    NotificationInbox.applicationDecided(internship.getTitle(), false)));
+                        }
+                    }
+                }
+            }
+
+            if (!expired.isEmpty()) {
+                TablePersistence.saveInternshipChanges(internshipPath, internships, expired, List.of());
+            }
+            if (!resolved.isEmpty()) {
+                TablePersistence.saveApplicationChanges(applicationPath, applications, resolved, List.of());
+                inbox.postAll(notifications);
+            }
+            return expired.size();
+        });
+    }
+
+    /**
+     * Run the expiry sweep now and schedule it to repeat on a daemon thread.
+     */
+    private void startExpirySweep() {
+        sweepExpiredInternships();
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ipms-expiry-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepExpiredInternships,
+                EXPIRY_SWEEP_MINUTES, EXPIRY_SWEEP_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Close internships that expired before today, reporting (rather than propagating) failures so
+     * later scheduled runs still happen.
+     */
+    private void sweepExpiredInternships() {
+        try {
+            closeExpiredInternships(LocalDate.now());
+        } catch (RuntimeException e) {
+            System.err.println("Failed to close expired internships: " + e);
+        }
+    }
+
+    /**
+     * File an internship under its closing date if it is approved, or drop it from the closing-date
+     * index otherwise.
+     *
+     * @param internship internship to re-file
+     */
+    private void refreshClosingDateIndex(Internship internship) {
+        unfileClosingDate(internship);
+        boolean open = "Approved".equalsIgnoreCase(internship.getStatus())
+                && internship.getClosingDate() != null
+                && internships.get(internship.getUUID().toString()) == internship;
+        if (open) {
+            openClosingDates.put(internship, internship.getClosingDate());
+            openByClosingDate.computeIfAbsent(internship.getClosingDate(), k -> new ArrayList<>()).add(internship);
+        }
+    }
+
+    /**
+     * Drop an internship from the closing-date index, looking it up under the date it was filed
+     * under (its closing date may have been edited since).
+     *
+     * @param internship internship to drop (ignored if not filed)
+     */
+    private void unfileClosingDate(Internship internship) {
+        LocalDate filed = openClosingDates.remove(internship);
+        if (filed != null) {
+            List<Internship> sameDay = openByClosingDate.get(filed);
+            if (sameDay != null && sameDay.remove(internship) && sameDay.isEmpty()) {
+                openByClosingDate.remove(filed);
+            }
+        }
+    }
+
+    /**
+     * Find the internships a student may browse: visible, "Approved", matching the student's major
+     * and, for students who may only take basic placements, at the "Basic" level. Closing dates and
+     * earlier applications are not checked here.
+     *
+     * @param major     student's major
+     * @param basicOnly whether only "Basic" internships qualify
+     * @return candidate internships (a new list)
+     */
+    List<Internship> findEligibleInternships(String major, boolean basicOnly) {
+        if (major == null) {
+            return new ArrayList<>();
+        }
+        return readIndexes(() -> eligibility.findVisible("Approved", major, basicOnly ? "Basic" : null));
+    }
+
+    /**
+     * Check one internship against the criteria of {@link #findEligibleInternships(String, boolean)}.
+     *
+     * @param internship internship to check
+     * @param major      student's major
+     * @param basicOnly  whether only "Basic" internships qualify
+     * @return true if the internship is a browse candidate
+     */
+    boolean isEligible(Internship internship, String major, boolean basicOnly) {
+        return major != null
+                && readIndexes(() -> eligibility.matchesVisible(internship, "Approved", major, basicOnly ? "Basic" : null));
+    }
+
+    /**
+     * Get the next page of internships matching a filter and optional keywords.
+     * <p>
+     * Without keywords, internships are listed in title order (case-insensitive, then UUID) and
+     * each page starts right after the cursor position in the pre-sorted title index, so earlier
+     * pages are neither sorted nor scanned again. With keywords, they are listed in relevance order
+     * and pages continue at an offset into the ranked matches.
+     * </p>
+     *
+     * @param filter   internships to include
+     * @param keywords search keywords (null/blank = title order)
+     * @param cursor   cursor from the previous page of the same listing, or null for the first page
+     * @param pageSize maximum number of internships on the page
+     * @return the page, or null if the cursor or page size is invalid (the error is reported)
+     */
+    Page<Internship> pageInternships(Predicate<? super Internship> filter, String keywords, String cursor, int pageSize) {
+        return pageInternships(filter, null, keywords, cursor, pageSize);
+    }
+
+    /**
+     * Get the next page of the internships a student may browse (see
+     * {@link #findEligibleInternships(String, boolean)}) that also match a filter and optional keywords.
+     * <p>
+     * Pages and cursors are those of {@link #pageInternships(Predicate, String, String, int)}. Without
+     * keywords, when the eligibility index yields fewer candidates than a walk of the title order
+     * would visit to fill the page, only the candidates after the cursor are sorted and paged, so a
+     * rare major or level no longer costs a scan of the whole catalogue.
+     * </p>
+     *
+     * @param major     student's major
+     * @param basicOnly whether only "Basic" internships qualify
+     * @param filter    further checks on eligible internships
+     * @param keywords  search keywords (null/blank = title order)
+     * @param cursor    cursor from the previous page of the same listing, or null for the first page
+     * @param pageSize  maximum number of internships on the page
+     * @return the page, or null if the cursor or page size is invalid (the error is reported)
+     */
+    Page<Internship> pageEligibleInternships(String major, boolean basicOnly, Predicate<? super Internship> filter,
+                                             String keywords, String cursor, int pageSize) {
+        Predicate<Internship> eligible = i -> isEligible(i, major, basicOnly) && filter.test(i);
+        return pageInternships(eligible, () -> findEligibleInternships(major, basicOnly), keywords, cursor, pageSize);
+    }
+
+    /**
+     * Get the next page of internships matching a filter and optional keywords, optionally from a
+     * known superset of the matches.
+     *
+     * @param filter     internships to include
+     * @param candidates supplies a new list holding every internship the filter may accept, or null
+     *                   to walk the whole catalogue
+     * @param keywords   search keywords (null/blank = title order)
+     * @param cursor     cursor from the previous page of the same listing, or null for the first page
+     * @param pageSize   maximum number of internships on the page
+     * @return the page, or null if the cursor or page size is invalid (the error is reported)
+     */
+    private Page<Internship> pageInternships(Predicate<? super Internship> filter, Supplier<List<Internship>> candidates,
+                                             String keywords, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            System.err.println("Page size must be positive.");
+            return null;
+        }
+        PageCursor position = PageCursor.parse(cursor);
+        if (position == null) {
+            return null;
+        }
+        boolean ranked = keywords != null && !keywords.isBlank();
+        if (!position.isStart() && ranked == position.isTitleCursor()) {
+            System.err.println("Page cursor does not belong to this listing.");
+            return null;
+        }
+        if (!ranked) {
+            return pageInternshipsByTitle(filter, candidates, position, pageSize);
+        }
+        List<Internship> matches = new ArrayList<>();
+        for (Internship internship : searchInternships(keywords)) {
+            if (filter.test(internship)) {
+                matches.add(internship);
+            }
+        }
+        return PageCursor.offsetPage(matches, position, pageSize);
+    }
+
+    /**
+     * Get the next page of internships in title order, starting right after the cursor position.
+     * <p>
+     * If the matches are spread evenly, walking the title order visits about
+     * {@code (pageSize + 1) * catalogue / candidates} internships to fill a page. When the candidates
+     * are fewer than that, sorting them is cheaper and yields the same page.
+     * </p>
+     *
+     * @param filter     internships to include
+     * @param candidates supplies a new list of every internship the filter may accept, or null
+     * @param cursor     decoded title cursor
+     * @param pageSize   maximum number of internships on the page
+     * @return the page
+     */
+    private Page<Internship> pageInternshipsByTitle(Predicate<? super Internship> filter, Supplier<List<Internship>> candidates,
+                                                    PageCursor cursor, int pageSize) {
+        return readIndexes(() -> {
+            if (candidates != null) {
+                List<Internship> subset = candidates.get();
+                long walk = (long) (pageSize + 1) * reportAggregates.getTotalInternships();
+                if ((long) subset.size() * subset.size() <= walk) {
+                    subset.removeIf(internship -> !cursor.precedes(internship));
+                    subset.sort(PageCursor.TITLE_ORDER);
+                    return PageCursor.titlePage(subset, filter, pageSize);
+                }
+            }
+            Collection<Internship> after = cursor.isStart()
+                    ? reportAggregates.getInternshipsByTitle()
+                    : reportAggregates.getInternshipsByTitleAfter(cursor.getTitle(), cursor.getId());
+            return PageCursor.titlePage(after, filter, pageSize);
+        });
+    }
+
+    /**
+     * Add an internship to the company, eligibility, report and keyword indexes.
+     *
+     * @param internship internship to index
+     */
+    private void indexInternship(Internship internship) {
+        eligibility.add(internship);
+        reportAggregates.internshipAdded(internship);
+        keywords.add(internship);
+        refreshClosingDateIndex(internship);
+        String key = companyKey(internship.getCompanyName());
+        addToIndex(internshipsByCompany, key, internship);
+        if (countsTowardsLimit(internship)) {
+            activeInternshipsByCompany.merge(key, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Remove an internship from the company, eligibility, report and keyword indexes.
+     *
+     * @param internship internship to remove
+     */
+    private void unindexInternship(Internship internship) {
+        eligibility.remove(internship);
+        reportAggregates.internshipRemoved(internship);
+        keywords.remove(internship);
+        unfileClosingDate(internship);
+        String key = companyKey(internship.getCompanyName());
+        removeFromIndex(internshipsByCompany, key, internship);
+        if (countsTowardsLimit(internship)) {
+            activeInternshipsByCompany.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Get the applications submitted by one student.
+     *
+     * @param studentId student user id
+     * @return read-only live list of the student's applications (empty if none); iteration sees a snapshot
+     */
+    List<Application> getApplicationsOf(String studentId) {
+        List<Application> list = applicationsByStudent.get(studentId);
+        return list != null ? Collections.unmodifiableList(list) : List.of();
+    }
+
+    /**
+     * Get the withdrawal requests submitted by one student.
+     *
+     * @param studentId student user id
+     * @return read-only live list of the student's withdrawal requests (empty if none); iteration sees a snapshot
+     */
+    List<Withdrawal> getWithdrawalsOf(String studentId) {
+        List<Withdrawal> list = withdrawalsByStudent.get(studentId);
+        return list != null ? Collections.unmodifiableList(list) : List.of();
+    }
+
+    /**
+     * Find one student's application to one internship.
+     *
+     * @param internshipId internship UUID string
+     * @param studentId    student user id
+     * @return the application, or null if the student has not applied
+     */
+    Application findApplication(String internshipId, String studentId) {
+        return findByStudent(applications.get(internshipId), studentId, Application::getUserId);
+    }
+
+    /**
+     * Find one student's withdrawal request for one internship.
+     *
+     * @param internshipId internship UUID string
+     * @param studentId    student user id
+     * @return the withdrawal request, or null if there is none
+     */
+    Withdrawal findWithdrawal(String internshipId, String studentId) {
+        return findByStudent(withdrawals.get(internshipId), studentId, Withdrawal::getUserId);
+    }
+
+    /**
+     * Look a student's record up in a per-internship list.
+     *
+     * @param list      per-internship list (nullable)
+     * @param studentId student user id
+     * @param userId    function returning a record's student id (used if the list is not keyed)
+     * @param <T>       record type
+     * @return the first record of the student, or null
+     */
+    private static <T> T findByStudent(List<T> list, String studentId, Function<T, String> userId) {
+        if (list == null) {
+            return null;
+        }
+        if (list instanceof ApplicantList<T> keyed) {
+            return keyed.findByStudent(studentId);
+        }
+        for (T record : list) {
+            if (studentId.equals(userId.apply(record))) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add an application to the table and its indexes. Does not persist.
+     *
+     * @param application application to add
+     */
+    void addApplication(Application application) {
+        applications.computeIfAbsent(application.getUUID().toString(), k -> new ApplicantList<>(Application::getUserId)).add(application);
+        addToIndex(applicationsByStudent, application.getUserId(), application);
+        reportAggregates.applicationsChanged(1);
+    }
+
+    /**
+     * Remove an application from the table and its indexes. Does not persist.
+     *
+     * @param application application to remove
+     * @return true if it was present
+     */
+    boolean removeApplication(Application application) {
+        List<Application> forInternship = applications.get(application.getUUID().toString());
+        if (forInternship == null || !forInternship.remove(application)) {
+            return false;
+        }
+        removeFromIndex(applicationsByStudent, application.getUserId(), application);
+        reportAggregates.applicationsChanged(-1);
+        return true;
+    }
+
+    /**
+     * Add a withdrawal request to the table and its indexes. Does not persist.
+     *
+     * @param withdrawal withdrawal request to add
+     */
+    void addWithdrawal(Withdrawal withdrawal) {
+        withdrawals.computeIfAbsent(withdrawal.getUUID().toString(), k -> new ApplicantList<>(Withdrawal::getUserId)).add(withdrawal);
+        addToIndex(withdrawalsByStudent, withdrawal.getUserId(), withdrawal);
+        reportAggregates.withdrawalsChanged(1);
+    }
+
+    /**
+     * Remove a withdrawal request from the table and its indexes. Does not persist.
+     *
+     * @param withdrawal withdrawal request to remove
+     * @return true if it was present
+     */
+    boolean removeWithdrawal(Withdrawal withdrawal) {
+        List<Withdrawal> forInternship = withdrawals.get(withdrawal.getUUID().toString());
+        if (forInternship == null || !forInternship.remove(withdrawal)) {
+            return false;
+        }
+        removeFromIndex(withdrawalsByStudent, withdrawal.getUserId(), withdrawal);
+        reportAggregates.withdrawalsChanged(-1);
+        return true;
+    }
+
+    /**
+     * Add a record to a secondary index. The update is atomic per key, so it cannot race with a
+     * removal dropping the key's list.
+     *
+     * @param index  secondary index
+     * @param key    index key
+     * @param record record to add
+     * @param <T>    record type
+     */
+    private static <T> void addToIndex(Map<String, List<T>> index, String key, T record) {
+        index.compute(key, (k, list) -> {
+            List<T> records = list != null ? list : new CopyOnWriteArrayList<>();
+            records.add(record);
+            return records;
+        });
+    }
+
+    /**
+     * Remove a record from a secondary index, dropping the key once its list is empty.
+     *
+     * @param index  secondary index
+     * @param key    index key
+     * @param record record to remove
+     * @param <T>    record type
+     */
+    private static <T> void removeFromIndex(Map<String, List<T>> index, String key, T record) {
+        index.computeIfPresent(key, (k, list) -> list.remove(record) && list.isEmpty() ? null : list);
+    }
+}
@@ -0,0 +1,249 @@
+package control;
+
+import entity.Internship;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bitmap indexes over the internship catalogue for eligibility queries.
+ * <p>
+ * Every indexed internship owns a dense slot number; freed slots are reused so the bitmaps stay as
+ * short as the catalogue. One bitmap per visibility, status, preferred major and level value
+ * records which slots have that value, so the internships matching all criteria are found with a
+ * few word-wise ANDs instead of testing each posting. Values are compared case-insensitively.
+ * Internships whose indexed fields change in place must be passed to {@link #update(Internship)}.
+ * </p>
+ */
+final class EligibilityIndex {
+    /**
+     * Indexed fields of one internship, as they were when its bits were set.
+     */
+    private static final class Entry {
+        /** Slot number of the internship. */
+        final int slot;
+        /** Normalized status the internship is indexed under. */
+        String status;
+        /** Normalized preferred major the internship is indexed under. */
+        String major;
+        /** Normalized level the internship is indexed under. */
+        String level;
+
+        /**
+         * Create an entry for a slot.
+         *
+         * @param slot slot number
+         */
+        Entry(int slot) {
+            this.slot = slot;
+        }
+    }
+
+    /**
+     * Slot number -> internship (null for a free slot).
+     */
+    private final List<Internship> slots = new ArrayList<>();
+
+    /**
+     * Slots that can be reused.
+     */
+    private final BitSet freeSlots = new BitSet();
+
+    /**
+     * Internship -> its slot and indexed values.
+     */
+    private final Map<Internship, Entry> entries = new IdentityHashMap<>();
+
+    /**
+     * Slots of visible internships.
+     */
+    private final BitSet visible = new BitSet();
+
+    /**
+     * Normalized status -> slots with that status.
+     */
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+
+    /**
+     * Normalized preferred major -> slots with that preferred major.
+     */
+    private final Map<String, BitSet> byMajor = new HashMap<>();
+
+    /**
+     * Normalized level -> slots with that level.
+     */
+    private final Map<String, BitSet> byLevel = new HashMap<>();
+
+    /**
+     * Add an internship to the index.
+     *
+     * @param internship internship to add (ignored if already indexed)
+     */
+    void add(Internship internship) {
+        if (entries.containsKey(internship)) {
+            return;
+        }
+        int slot = freeSlots.nextSetBit(0);
+        if (slot < 0) {
+            slot = slots.size();
+            slots.add(internship);
+        } else {
+            freeSlots.clear(slot);
+            slots.set(slot, internship);
+        }
+        Entry entry = new Entry(slot);
+        entries.put(internship, entry);
+        setBits(entry, internship);
+    }
+
+    /**
+     * Remove an internship from the index.
+     *
+     * @param internship internship to remove (ignored if not indexed)
+     */
+    void remove(Internship internship) {
+        Entry entry = entries.remove(internship);
+        if (entry == null) {
+            return;
+        }
+        clearBits(entry);
+        slots.set(entry.slot, null);
+        freeSlots.set(entry.slot);
+    }
+
+    /**
+     * Re-index an internship after its visibility, status, preferred major or level changed.
+     *
+     * @param internship internship that changed
+     */
+    void update(Internship internship) {
+        Entry entry = entries.get(internship);
+        if (entry != null) {
+            clearBits(entry);
+            setBits(entry, internship);
+        }
+    }
+
+    /**
+     * Find visible internships with the given status and preferred major, optionally restricted to one level.
+     *
+     * @param status status to match
+     * @param major  preferred major to match
+     * @param level  level to match, or null for any level
+     * @return matching internships in slot order
+     */
+    List<Internship> findVisible(String status, String major, String level) {
+        BitSet statusBits = byStatus.get(key(status));
+        BitSet majorBits = byMajor.get(key(major));
+        BitSet levelBits = level == null ? null : byLevel.get(key(level));
+        if (statusBits == null || majorBits == null || (level != null && levelBits == null)) {
+            return new ArrayList<>();
+        }
+
+        BitSet matches = (BitSet) majorBits.clone();
+        matches.and(statusBits);
+        matches.and(visible);
+        if (levelBits != null) {
+            matches.and(levelBits);
+        }
+
+        List<Internship> result = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            result.add(slots.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Check a single internship against the criteria of {@link #findVisible(String, String, String)}.
+     *
+     * @param internship internship to check
+     * @param status     status to match
+     * @param major      preferred major to match
+     * @param level      level to match, or null for any level
+     * @return true if the internship is indexed, visible and matches
+     */
+    boolean matchesVisible(Internship internship, String status, String major, String level) {
+        Entry entry = entries.get(internship);
+        return entry != null && visible.get(entry.slot)
+                && entry.status != null && entry.status.equals(key(status))
+                && entry.major != null && entry.major.equals(key(major))
+                && (level == null || (entry.level != null && entry.level.equals(key(level))));
+    }
+
+    /**
+     * Set the bits of an internship's current values and remember them in its entry.
+     *
+     * @param entry      index entry of the internship
+     * @param internship internship to read the values from
+     */
+    private void setBits(Entry entry, Internship internship) {
+        entry.status = key(internship.getStatus());
+        entry.major = key(internship.getPreferredMajor());
+        entry.level = key(internship.getLevel());
+        visible.set(entry.slot, internship.isVisible());
+        setBit(byStatus, entry.status, entry.slot);
+        setBit(byMajor, entry.major, entry.slot);
+        setBit(byLevel, entry.level, entry.slot);
+    }
+
+    /**
+     * Clear the bits recorded in an entry.
+     *
+     * @param entry index entry of the internship
+     */
+    private void clearBits(Entry entry) {
+        visible.clear(entry.slot);
+        clearBit(byStatus, entry.status, entry.slot);
+        clearBit(byMajor, entry.major, entry.slot);
+        clearBit(byLevel, entry.level, entry.slot);
+    }
+
+    /**
+     * Set a slot in the bitmap of a value (null values are not indexed).
+     *
+     * @param bitmaps value -> bitmap
+     * @param value   normalized value (nullable)
+     * @param slot    slot to set
+     */
+    private static void setBit(Map<String, BitSet> bitmaps, String value, int slot) {
+        if (value != null) {
+            bitmaps.computeIfAbsent(value, k -> new BitSet()).set(slot);
+        }
+    }
+
+    /**
+     * Clear a slot in the bitmap of a value.
+     *
+     * @param bitmaps value -> bitmap
+     * @param value   normalized value (nullable)
+     * @param slot    slot to clear
+     */
+    private static void clearBit(Map<String, BitSet> bitmaps, String value, int slot) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = bitmaps.get(value);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                bitmaps.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Normalize a value for case-insensitive matching.
+     *
+     * @param value value (nullable)
+     * @return lower-case value, or null
+     */
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,194 @@
+package control;
+
+/**
+ * Point-in-time statistics of the write-behind persistence layer.
+ * <p>
+ * Latencies are wall-clock times of whole flushes (all dirty tables of one batch). The backlog
+ * describes changes that have been made in memory but not yet written to disk.
+ * </p>
+ */
+public final class FlushMetrics {
+    /**
+     * Number of flushes that wrote at least one table.
+     */
+    private final long flushCount;
+
+    /**
+     * Number of table rewrites performed by those flushes.
+     */
+    private final long tablesWritten;
+
+    /**
+     * Number of individual changes taken up by flushes.
+     */
+    private final long changesWritten;
+
+    /**
+     * Number of table rewrites that failed and were queued again.
+     */
+    private final long failedWrites;
+
+    /**
+     * Duration of the most recent flush in nanoseconds.
+     */
+    private final long lastLatencyNanos;
+
+    /**
+     * Longest flush so far in nanoseconds.
+     */
+    private final long maxLatencyNanos;
+
+    /**
+     * Sum of all flush durations in nanoseconds.
+     */
+    private final long totalLatencyNanos;
+
+    /**
+     * Number of tables currently waiting to be written.
+     */
+    private final int pendingTables;
+
+    /**
+     * Number of changes currently waiting to be written.
+     */
+    private final int pendingChanges;
+
+    /**
+     * Age of the oldest unwritten change in milliseconds (0 when nothing is pending).
+     */
+    private final long oldestPendingMillis;
+
+    /**
+     * Create a metrics snapshot.
+     *
+     * @param flushCount          flushes that wrote at least one table
+     * @param tablesWritten       table rewrites performed
+     * @param changesWritten      changes taken up by flushes
+     * @param failedWrites        table rewrites that failed
+     * @param lastLatencyNanos    duration of the most recent flush
+     * @param maxLatencyNanos     longest flush
+     * @param totalLatencyNanos   sum of all flush durations
+     * @param pendingTables       tables waiting to be written
+     * @param pendingChanges      changes waiting to be written
+     * @param oldestPendingMillis age of the oldest unwritten change
+     */
+    FlushMetrics(long flushCount, long tablesWritten, long changesWritten, long failedWrites,
+                 long lastLatencyNanos, long maxLatencyNanos, long totalLatencyNanos,
+                 int pendingTables, int pendingChanges, long oldestPendingMillis) {
+        this.flushCount = flushCount;
+        this.tablesWritten = tablesWritten;
+        this.changesWritten = changesWritten;
+        this.failedWrites = failedWrites;
+        this.lastLatencyNanos = lastLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.pendingTables = pendingTables;
+        this.pendingChanges = pendingChanges;
+        this.oldestPendingMillis = oldestPendingMillis;
+    }
+
+    /**
+     * Get the number of flushes that wrote at least one table.
+     *
+     * @return flush count
+     */
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Get the number of table rewrites performed.
+     *
+     * @return tables written
+     */
+    public long getTablesWritten() {
+        return tablesWritten;
+    }
+
+    /**
+     * Get the number of individual changes taken up by flushes; compared with
+     * {@link #getTablesWritten()} this shows how well writes are coalesced.
+     *
+     * @return changes written
+     */
+    public long getChangesWritten() {
+        return changesWritten;
+    }
+
+    /**
+     * Get the number of table rewrites that failed and were queued again.
+     *
+     * @return failed writes
+     */
+    public long getFailedWrites() {
+        return failedWrites;
+    }
+
+    /**
+     * Get the duration of the most recent flush.
+     *
+     * @return latency in milliseconds
+     */
+    public double getLastLatencyMillis() {
+        return lastLatencyNanos / 1_000_000.0;
+    }
+
+    /**
+     * Get the duration of the longest flush.
+     *
+     * @return latency in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    /**
+     * Get the mean flush duration.
+     *
+     * @return latency in milliseconds (0 before the first flush)
+     */
+    public double getAverageLatencyMillis() {
+        return flushCount == 0 ? 0 : totalLatencyNanos / 1_000_000.0 / flushCount;
+    }
+
+    /**
+     * Get the number of tables waiting to be written.
+     *
+     * @return pending tables
+     */
+    public int getPendingTables() {
+        return pendingTables;
+    }
+
+    /**
+     * Get the number of changes waiting to be written.
+     *
+     * @return pending changes
+     */
+    public int getPendingChanges() {
+        return pendingChanges;
+    }
+
+    /**
+     * Get the age of the oldest unwritten change.
+     *
+     * @return age in milliseconds (0 when nothing is pending)
+     */
+    public long getOldestPendingMillis() {
+        return oldestPendingMillis;
+    }
+
+    /**
+     * One-line summary for logs.
+     *
+     * @return human readable metrics
+     */
+    @Override
+    public String toString() {
+        return String.format("flushes=%d tables=%d changes=%d failed=%d latency(last/avg/max)=%.1f/%.1f/%.1f ms "
+                        + "backlog=%d changes in %d tables, oldest %d ms",
+                flushCount, tablesWritten, changesWritten, failedWrites,
+                getLastLatencyMillis(), getAverageLatencyMillis(), getMaxLatencyMillis(),
+                pendingChanges, pendingTables, oldestPendingMillis);
+    }
+}
@@ -0,0 +1,226 @@
+package control;
+
+/**
+ * Point-in-time statistics of the password hashing pool.
+ * <p>
+ * Hash counts and times cover every PBKDF2 derivation, whether it ran on the pool or on a caller's
+ * thread. Queue figures describe work submitted to the pool (asynchronous logins and password changes).
+ * </p>
+ */
+public final class HashingMetrics {
+    /**
+     * Number of hashing threads.
+     */
+    private final int threads;
+
+    /**
+     * Maximum number of tasks that can wait in the queue.
+     */
+    private final int queueCapacity;
+
+    /**
+     * Number of tasks currently waiting.
+     */
+    private final int queueDepth;
+
+    /**
+     * Largest number of tasks seen waiting at once.
+     */
+    private final int maxQueueDepth;
+
+    /**
+     * Number of threads currently running a task.
+     */
+    private final int activeThreads;
+
+    /**
+     * Number of tasks submitted to the pool.
+     */
+    private final long submitted;
+
+    /**
+     * Number of submitted tasks that have finished.
+     */
+    private final long completed;
+
+    /**
+     * Number of tasks refused because the queue was full.
+     */
+    private final long rejected;
+
+    /**
+     * Number of PBKDF2 derivations performed.
+     */
+    private final long hashes;
+
+    /**
+     * Sum of all derivation times in nanoseconds.
+     */
+    private final long totalHashNanos;
+
+    /**
+     * Sum of the times tasks waited in the queue in nanoseconds.
+     */
+    private final long totalWaitNanos;
+
+    /**
+     * Longest time a task waited in the queue in nanoseconds.
+     */
+    private final long maxWaitNanos;
+
+    /**
+     * Create a metrics snapshot.
+     *
+     * @param threads        hashing threads
+     * @param queueCapacity  queue capacity
+     * @param queueDepth     tasks currently waiting
+     * @param maxQueueDepth  largest number of tasks seen waiting
+     * @param activeThreads  threads currently running a task
+     * @param submitted      tasks submitted
+     * @param completed      tasks finished
+     * @param rejected       tasks refused
+     * @param hashes         PBKDF2 derivations performed
+     * @param totalHashNanos sum of derivation times
+     * @param totalWaitNanos sum of queue waiting times
+     * @param maxWaitNanos   longest queue waiting time
+     */
+    HashingMetrics(int threads, int queueCapacity, int queueDepth, int maxQueueDepth, int activeThreads,
+                   long submitted, long completed, long rejected,
+                   long hashes, long totalHashNanos, long totalWaitNanos, long maxWaitNanos) {
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.activeThreads = activeThreads;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.hashes = hashes;
+        this.totalHashNanos = totalHashNanos;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Get the number of hashing threads.
+     *
+     * @return thread count
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Get the maximum number of tasks that can wait in the queue.
+     *
+     * @return queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Get the number of tasks currently waiting.
+     *
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Get the largest number of tasks seen waiting at once.
+     *
+     * @return maximum queue depth
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * Get the number of threads currently running a task.
+     *
+     * @return active threads
+     */
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    /**
+     * Get the number of tasks submitted to the pool.
+     *
+     * @return submitted tasks
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Get the number of submitted tasks that have finished.
+     *
+     * @return completed tasks
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Get the number of tasks refused because the queue was full.
+     *
+     * @return rejected tasks
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Get the number of PBKDF2 derivations performed.
+     *
+     * @return hash count
+     */
+    public long getHashes() {
+        return hashes;
+    }
+
+    /**
+     * Get the mean time of one PBKDF2 derivation.
+     *
+     * @return time in milliseconds (0 before the first hash)
+     */
+    public double getAverageHashMillis() {
+        return hashes == 0 ? 0 : totalHashNanos / 1_000_000.0 / hashes;
+    }
+
+    /**
+     * Get the mean time a task waited in the queue.
+     *
+     * @return time in milliseconds (0 before the first task ran)
+     */
+    public double getAverageWaitMillis() {
+        long started = completed + activeThreads;
+        return started == 0 ? 0 : totalWaitNanos / 1_000_000.0 / started;
+    }
+
+    /**
+     * Get the longest time a task waited in the queue.
+     *
+     * @return time in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    /**
+     * One-line summary for logs.
+     *
+     * @return human readable metrics
+     */
+    @Override
+    public String toString() {
+        return String.format("threads=%d active=%d queue=%d/%d (max %d) submitted=%d completed=%d rejected=%d "
+                        + "hashes=%d hash(avg)=%.1f ms wait(avg/max)=%.1f/%.1f ms",
+                threads, activeThreads, queueDepth, queueCapacity, maxQueueDepth,
+                submitted, completed, rejected, hashes, getAverageHashMillis(),
+                getAverageWaitMillis(), getMaxWaitMillis());
+    }
+}
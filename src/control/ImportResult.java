@@ -0,0 +1,117 @@
+package control;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk student import: how many rows were imported, which were rejected and why,
+ * and how fast the roster was processed.
+ */
+public final class ImportResult {
+    /**
+     * Number of data rows read from the roster (header excluded).
+     */
+    private final int rowsRead;
+
+    /**
+     * Number of students added.
+     */
+    private final int imported;
+
+    /**
+     * One message per rejected row, in roster order ("line N: reason").
+     */
+    private final List<String> rejections;
+
+    /**
+     * Number of PBKDF2 hashes computed (rows with their own password, plus the shared default hash).
+     */
+    private final int hashesComputed;
+
+    /**
+     * Time from opening the roster to the students being persisted, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Create an import result.
+     *
+     * @param rowsRead       data rows read
+     * @param imported       students added
+     * @param rejections     messages of rejected rows
+     * @param hashesComputed PBKDF2 hashes computed
+     * @param elapsedNanos   total import time
+     */
+    ImportResult(int rowsRead, int imported, List<String> rejections, int hashesComputed, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejections = Collections.unmodifiableList(rejections);
+        this.hashesComputed = hashesComputed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the number of data rows read from the roster.
+     *
+     * @return rows read (header excluded)
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Get the number of students added.
+     *
+     * @return imported students
+     */
+    public int getImported() {
+        return imported;
+    }
+
+    /**
+     * Get the reasons rows were rejected.
+     *
+     * @return read-only list of "line N: reason" messages in roster order
+     */
+    public List<String> getRejections() {
+        return rejections;
+    }
+
+    /**
+     * Get the number of PBKDF2 hashes computed.
+     *
+     * @return hash count
+     */
+    public int getHashesComputed() {
+        return hashesComputed;
+    }
+
+    /**
+     * Get the total import time.
+     *
+     * @return time in milliseconds
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /**
+     * Get the number of roster rows processed per second.
+     *
+     * @return rows per second (0 if nothing was read)
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * One-line summary for logs.
+     *
+     * @return human readable result
+     */
+    @Override
+    public String toString() {
+        return String.format("rows=%d imported=%d rejected=%d hashes=%d time=%.1f ms (%.0f rows/s)",
+                rowsRead, imported, rejections.size(), hashesComputed, getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,180 @@
+package control;
+
+import entity.Internship;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over internship titles and descriptions for keyword search.
+ * <p>
+ * Text is split into lower-case words at every character that is not a letter or digit. Each word
+ * maps to the internships containing it and a weight (occurrences, with title words counting
+ * {@value #TITLE_WEIGHT} times). Words are kept sorted, so every query word is looked up as a
+ * prefix range: "eng" finds "engineer" and "engineering". An internship matches when every query
+ * word matches one of its words. Matches are ranked by the sum of their word weights scaled by
+ * how rare each word is, with exact word matches scoring higher than prefix matches.
+ * Internships whose title or description change in place must be passed to {@link #update(Internship)}.
+ * </p>
+ */
+final class KeywordIndex {
+    /**
+     * Weight of a word occurring in the title relative to one in the description.
+     */
+    private static final int TITLE_WEIGHT = 3;
+
+    /**
+     * Score factor of a word that only starts with the query word.
+     */
+    private static final double PREFIX_FACTOR = 0.5;
+
+    /**
+     * Word -> internships containing it and their weight for that word.
+     */
+    private final NavigableMap<String, Map<Internship, Integer>> postings = new TreeMap<>();
+
+    /**
+     * Internship -> words it is indexed under, with their weights.
+     */
+    private final Map<Internship, Map<String, Integer>> wordsOf = new IdentityHashMap<>();
+
+    /**
+     * Add an internship to the index.
+     *
+     * @param internship internship to add (ignored if already indexed)
+     */
+    void add(Internship internship) {
+        if (wordsOf.containsKey(internship)) {
+            return;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        for (String word : tokenize(internship.getTitle())) {
+            weights.merge(word, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String word : tokenize(internship.getDescription())) {
+            weights.merge(word, 1, Integer::sum);
+        }
+        wordsOf.put(internship, weights);
+        weights.forEach((word, weight) ->
+                postings.computeIfAbsent(word, k -> new IdentityHashMap<>()).put(internship, weight));
+    }
+
+    /**
+     * Remove an internship from the index.
+     *
+     * @param internship internship to remove (ignored if not indexed)
+     */
+    void remove(Internship internship) {
+        Map<String, Integer> weights = wordsOf.remove(internship);
+        if (weights == null) {
+            return;
+        }
+        for (String word : weights.keySet()) {
+            Map<Internship, Integer> matches = postings.get(word);
+            if (matches != null) {
+                matches.remove(internship);
+                if (matches.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-index an internship after its title or description changed.
+     *
+     * @param internship internship that changed
+     */
+    void update(Internship internship) {
+        if (wordsOf.containsKey(internship)) {
+            remove(internship);
+            add(internship);
+        }
+    }
+
+    /**
+     * Find the internships matching every word of a query, best match first.
+     *
+     * @param query search text (nullable)
+     * @return ranked matches; empty if the query has no words or nothing matches
+     */
+    List<Internship> search(String query) {
+        Map<Internship, Double> scores = null;
+        Set<String> queryWords = new LinkedHashSet<>(tokenize(query));
+        for (String queryWord : queryWords) {
+            Map<Internship, Double> wordScores = scoreWord(queryWord);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((internship, score) -> score + wordScores.get(internship));
+            }
+            if (scores.isEmpty()) {
+                return new ArrayList<>();
+            }
+        }
+        if (scores == null) {
+            return new ArrayList<>();
+        }
+
+        Map<Internship, Double> finalScores = scores;
+        List<Internship> ranked = new ArrayList<>(finalScores.keySet());
+        ranked.sort(Comparator.<Internship>comparingDouble(finalScores::get).reversed()
+                .thenComparing(Internship::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        return ranked;
+    }
+
+    /**
+     * Score the internships containing a word that starts with the query word.
+     *
+     * @param queryWord normalized query word
+     * @return internship -> best score among its matching words
+     */
+    private Map<Internship, Double> scoreWord(String queryWord) {
+        Map<Internship, Double> scores = new IdentityHashMap<>();
+        double indexed = wordsOf.size();
+        for (Map.Entry<String, Map<Internship, Integer>> posting
+                : postings.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).entrySet()) {
+            Map<Internship, Integer> matches = posting.getValue();
+            double rarity = Math.log(1 + indexed / matches.size());
+            double factor = posting.getKey().length() == queryWord.length() ? 1.0 : PREFIX_FACTOR;
+            for (Map.Entry<Internship, Integer> match : matches.entrySet()) {
+                scores.merge(match.getKey(), match.getValue() * rarity * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Split text into lower-case words.
+     *
+     * @param text text to split (nullable)
+     * @return words in text order, including repeats
+     */
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
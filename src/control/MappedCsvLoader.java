@@ -0,0 +1,123 @@
+package control;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel reader for large CSV tables.
+ * <p>
+ * The file is memory-mapped and cut into roughly equal byte ranges whose boundaries fall on record
+ * starts (a line break outside quotes). Each range is decoded and tokenized independently on the
+ * common fork-join pool, and the resulting row lists are returned in file order.
+ * </p>
+ */
+final class MappedCsvLoader {
+    /**
+     * Utility class; not instantiable.
+     */
+    private MappedCsvLoader() {
+    }
+
+    /**
+     * Read a CSV table as row chunks, parsing the chunks in parallel.
+     * <p>
+     * The header record is skipped and rows without the expected number of columns are ignored.
+     * Files larger than a single mapping (2 GB) are rejected with an IOException.
+     * </p>
+     *
+     * @param csvPath    file to read
+     * @param columns    number of columns in a valid row
+     * @param chunkCount desired number of chunks (fewer are produced for small files)
+     * @return unquoted rows, one list per chunk, in file order
+     * @throws IOException if the file cannot be mapped or read
+     */
+    static List<List<String[]>> readChunks(Path csvPath, int columns, int chunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + csvPath);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            List<Integer> bounds = recordBoundaries(map, (int) size, chunkCount);
+
+            try {
+                return IntStream.range(0, bounds.size() - 1)
+                        .parallel()
+                        .mapToObj(i -> parseChunk(map, bounds.get(i), bounds.get(i + 1), columns, i == 0))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Find chunk boundaries: offsets just after a line break that is not inside a quoted field.
+     * <p>
+     * A quote character toggles the quoted state, which also handles escaped (doubled) quotes.
+     * </p>
+     *
+     * @param map        mapped file contents
+     * @param size       file size in bytes
+     * @param chunkCount desired number of chunks
+     * @return ascending offsets starting with 0 and ending with size
+     */
+    private static List<Integer> recordBoundaries(MappedByteBuffer map, int size, int chunkCount) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int target = Math.max(1, size / Math.max(1, chunkCount));
+        int next = target;
+        boolean inQuotes = false;
+        for (int i = 0; i < size; i++) {
+            byte b = map.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes && i + 1 >= next && i + 1 < size) {
+                bounds.add(i + 1);
+                next = i + 1 + target;
+            }
+        }
+        bounds.add(size);
+        return bounds;
+    }
+
+    /**
+     * Decode and tokenize one byte range of the file.
+     *
+     * @param map        mapped file contents
+     * @param start      first byte of the chunk (a record start)
+     * @param end        byte after the chunk
+     * @param columns    number of columns in a valid row
+     * @param skipHeader true for the first chunk, whose first record is the header
+     * @return rows of the chunk
+     */
+    private static List<String[]> parseChunk(MappedByteBuffer map, int start, int end, int columns, boolean skipHeader) {
+        CharBuffer chars = StandardCharsets.UTF_8.decode(map.slice(start, end - start));
+        List<String[]> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()))) {
+            if (skipHeader) {
+                reader.readRecord();
+            }
+            String[] cols;
+            while ((cols = reader.readRecord()) != null) {
+                if (cols.length == columns) {
+                    rows.add(cols);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+}
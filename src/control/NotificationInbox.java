@@ -0,0 +1,329 @@
+package control;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user notification inboxes filled by events at the moment a status changes.
+ * <p>
+ * Controllers post a message to the affected user when they decide an application, a withdrawal
+ * request or an internship. Only each user's unread messages are kept in memory, so fetching them
+ * costs O(unread) and leaves every record in place; reading drops them and moves the user's cursor.
+ * </p>
+ * <p>
+ * The inboxes are persisted in their own append-only log next to the tables. Every line is a CSV
+ * record: {@code MSG,<userID>,<message>} delivers a message and {@code READ,<userID>,<count>} moves
+ * the user's cursor to the given number of that user's messages in the log. The log is replayed
+ * when the store is loaded. Once {@value #COMPACTION_THRESHOLD} records are no longer needed (read
+ * messages and cursor moves), the log is rewritten with only the unread messages.
+ * </p>
+ */
+final class NotificationInbox {
+    /**
+     * Record tag for a delivered message.
+     */
+    private static final String MSG = "MSG";
+
+    /**
+     * Record tag for a moved read cursor.
+     */
+    private static final String READ = "READ";
+
+    /**
+     * Number of obsolete log records after which the log is compacted.
+     */
+    private static final int COMPACTION_THRESHOLD = 500;
+
+    /**
+     * Location of the log.
+     */
+    private final Path logPath;
+
+    /**
+     * Whether the log did not exist when the inbox was opened.
+     */
+    private final boolean created;
+
+    /**
+     * User id -> that user's mailbox.
+     */
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Log records no longer needed (read messages and cursor moves); guarded by this inbox.
+     */
+    private int obsoleteRecords;
+
+    /**
+     * A message for one user.
+     *
+     * @param recipient user id of the recipient
+     * @param message   message text
+     */
+    record Notification(String recipient, String message) {
+    }
+
+    /**
+     * Unread messages of one user and the user's position in the log. The messages are guarded by
+     * the mailbox; the counts are only changed while also holding the inbox.
+     */
+    private static final class Mailbox {
+        /**
+         * Unread messages, oldest first.
+         */
+        List<String> unread = new ArrayList<>();
+
+        /**
+         * Number of this user's messages in the log.
+         */
+        int logged;
+
+        /**
+         * Number of those messages already read (the cursor last written to the log).
+         */
+        int read;
+    }
+
+    /**
+     * Open the inbox log, replaying it if it exists.
+     *
+     * @param logPath location of the log
+     */
+    NotificationInbox(Path logPath) {
+        this.logPath = logPath;
+        created = !Files.exists(logPath);
+        if (created) {
+            return;
+        }
+        int records = 0;
+        try (CsvReader reader = CsvReader.open(logPath)) {
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.length != 3) {
+                    continue; // Blank or torn line
+                }
+                records++;
+                Mailbox mailbox = mailboxOf(record[1]);
+                if (record[0].equals(MSG)) {
+                    mailbox.unread.add(record[2]); // Trimmed to the unread ones below
+                    mailbox.logged++;
+                } else if (record[0].equals(READ)) {
+                    try {
+                        mailbox.read = Math.max(mailbox.read, Integer.parseInt(record[2]));
+                    } catch (NumberFormatException e) {
+                        System.err.println("Skipping invalid read cursor in " + logPath + ": " + record[2]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read notifications " + logPath + ": " + e.getMessage());
+        }
+
+        // Keep only the unread messages in memory
+        int unread = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            mailbox.read = Math.min(mailbox.read, mailbox.logged);
+            mailbox.unread = new ArrayList<>(mailbox.unread.subList(mailbox.read, mailbox.logged));
+            unread += mailbox.unread.size();
+        }
+        mailboxes.values().removeIf(mailbox -> mailbox.unread.isEmpty() && mailbox.logged == 0);
+        synchronized (this) {
+            obsoleteRecords = records - unread;
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Whether the log was created by this run, i.e. no notification was ever posted before.
+     *
+     * @return true if the log did not exist when the inbox was opened
+     */
+    boolean isNew() {
+        return created;
+    }
+
+    /**
+     * Deliver a message to one user.
+     *
+     * @param recipient user id of the recipient
+     * @param message   message text
+     * @return true when the message was persisted (it is delivered in memory either way)
+     */
+    boolean post(String recipient, String message) {
+        return postAll(List.of(new Notification(recipient, message)));
+    }
+
+    /**
+     * Deliver several messages with one append to the log.
+     *
+     * @param notifications messages to deliver, in order (none still creates the log)
+     * @return true when the messages were persisted (they are delivered in memory either way)
+     */
+    synchronized boolean postAll(Collection<Notification> notifications) {
+        List<String> lines = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            lines.add(MSG + "," + TablePersistence.escapeCSV(notification.recipient()) + ","
+                    + TablePersistence.escapeCSV(notification.message()));
+            Mailbox mailbox = mailboxOf(notification.recipient());
+            synchronized (mailbox) {
+                mailbox.unread.add(notification.message());
+                mailbox.logged++;
+            }
+        }
+        return appendLines(lines);
+    }
+
+    /**
+     * Get a user's unread messages, mark them read and drop them from memory.
+     *
+     * @param recipient user id
+     * @return unread messages, oldest first (empty if there are none)
+     */
+    List<String> readUnread(String recipient) {
+        if (countUnread(recipient) == 0) {
+            return new ArrayList<>();
+        }
+        // Held while the cursor is written so a compaction cannot renumber the log in between
+        synchronized (this) {
+            Mailbox mailbox = mailboxes.get(recipient);
+            if (mailbox == null) {
+                return new ArrayList<>();
+            }
+            List<String> unread;
+            synchronized (mailbox) {
+                unread = mailbox.unread;
+                if (unread.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                mailbox.unread = new ArrayList<>();
+                mailbox.read = mailbox.logged;
+            }
+            appendLines(List.of(READ + "," + TablePersistence.escapeCSV(recipient) + "," + mailbox.read));
+            obsoleteRecords += unread.size() + 1;
+            compactIfNeeded();
+            return unread;
+        }
+    }
+
+    /**
+     * Get the number of messages a user has not read yet.
+     *
+     * @param recipient user id
+     * @return unread count
+     */
+    int countUnread(String recipient) {
+        Mailbox mailbox = mailboxes.get(recipient);
+        if (mailbox == null) {
+            return 0;
+        }
+        synchronized (mailbox) {
+            return mailbox.unread.size();
+        }
+    }
+
+    /**
+     * Rewrite the log with only the unread messages once enough records are obsolete, and forget
+     * users with nothing left to read; the caller holds this inbox's lock.
+     * <p>
+     * The new log replaces the old one atomically, so a crash leaves one or the other. If it cannot
+     * be written the old log stays in use and compaction is retried on a later read.
+     * </p>
+     */
+    private void compactIfNeeded() {
+        if (obsoleteRecords < COMPACTION_THRESHOLD) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, Mailbox> entry : mailboxes.entrySet()) {
+            synchronized (entry.getValue()) {
+                for (String message : entry.getValue().unread) {
+                    lines.add(MSG + "," + TablePersistence.escapeCSV(entry.getKey()) + ","
+                            + TablePersistence.escapeCSV(message));
+                }
+            }
+        }
+        try {
+            AtomicCsvFile.write(logPath, lines);
+        } catch (IOException e) {
+            System.err.println("Failed to compact notifications " + logPath + ": " + e.getMessage());
+            return;
+        }
+        // Every message left in the log is unread, so each cursor starts over at 0
+        mailboxes.values().removeIf(mailbox -> {
+            synchronized (mailbox) {
+                mailbox.logged = mailbox.unread.size();
+                mailbox.read = 0;
+                return mailbox.unread.isEmpty();
+            }
+        });
+        obsoleteRecords = 0;
+    }
+
+    /**
+     * Get the mailbox of a user, creating it on first use.
+     *
+     * @param recipient user id
+     * @return the user's mailbox
+     */
+    private Mailbox mailboxOf(String recipient) {
+        return mailboxes.computeIfAbsent(recipient, id -> new Mailbox());
+    }
+
+    /**
+     * Append lines to the log; the caller holds this inbox's lock.
+     *
+     * @param lines records to append
+     * @return true on success
+     */
+    private boolean appendLines(List<String> lines) {
+        try {
+            Files.write(logPath, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to write notifications " + logPath + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Message telling a student that an application was decided.
+     *
+     * @param title      internship title
+     * @param successful true if the application was successful
+     * @return message text
+     */
+    static String applicationDecided(String title, boolean successful) {
+        return "Your application for Internship: " + title + " has been " + (successful ? "approved." : "rejected.");
+    }
+
+    /**
+     * Message telling a student that a withdrawal request was decided.
+     *
+     * @param title    internship title
+     * @param approved true if the withdrawal was approved
+     * @return message text
+     */
+    static String withdrawalDecided(String title, boolean approved) {
+        return approved
+                ? "Your withdrawal request for Internship: '" + title + "' has been approved."
+                : "Your withdrawal request for Internship: '" + title + "' has been rejected. Your original application status is restored.";
+    }
+
+    /**
+     * Message telling a company representative that an internship was rejected.
+     *
+     * @param title internship title
+     * @return message text
+     */
+    static String internshipRejected(String title) {
+        return "Your Internship: '" + title + "' has been rejected.";
+    }
+}
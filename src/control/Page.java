@@ -0,0 +1,65 @@
+package control;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a listing, with the cursor to fetch the next one.
+ * <p>
+ * Cursors are opaque strings: pass {@link #getNextCursor()} back to the same listing method to
+ * continue after the last item of this page, or null to start at the beginning. A cursor stays
+ * valid when items are added or removed between requests; the listing simply continues after the
+ * position of the last item returned.
+ * </p>
+ *
+ * @param <T> item type
+ */
+public final class Page<T> {
+    /**
+     * Items on this page, in listing order.
+     */
+    private final List<T> items;
+
+    /**
+     * Cursor of the following page, or null if this is the last page.
+     */
+    private final String nextCursor;
+
+    /**
+     * Create a page.
+     *
+     * @param items      items on the page
+     * @param nextCursor cursor of the following page, or null if there is none
+     */
+    Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the items on this page.
+     *
+     * @return read-only list of items (empty if nothing matched)
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the cursor that fetches the page after this one.
+     *
+     * @return opaque cursor, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Check whether more items follow this page.
+     *
+     * @return true if {@link #getNextCursor()} leads to another page
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
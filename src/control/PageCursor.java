@@ -0,0 +1,213 @@
+package control;
+
+import entity.Internship;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Decoded form of a {@link Page} cursor, and the helpers that cut listings into pages.
+ * <p>
+ * Title-ordered listings continue after the title and UUID of the last internship returned, so a
+ * page is found by seeking in an already sorted order rather than by counting or sorting the
+ * items before it. Relevance-ranked listings (keyword searches), whose order depends on the query,
+ * continue at an offset. Both kinds are Base64url-encoded so callers treat them as opaque.
+ * </p>
+ */
+final class PageCursor {
+    /**
+     * Listing order of internships: case-insensitive title, then UUID for ties.
+     */
+    static final Comparator<Internship> TITLE_ORDER = Comparator
+            .comparing(Internship::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(i -> i.getUUID().toString());
+
+    /**
+     * Cursor of the first page.
+     */
+    private static final PageCursor START = new PageCursor(null, null, 0);
+
+    /**
+     * Marker of a title cursor.
+     */
+    private static final char TITLE = 'T';
+
+    /**
+     * Marker of a title cursor after an internship without a title.
+     */
+    private static final char NO_TITLE = 'N';
+
+    /**
+     * Marker of an offset cursor.
+     */
+    private static final char OFFSET = 'O';
+
+    /**
+     * Title of the last internship returned (null for offset cursors or an untitled internship).
+     */
+    private final String title;
+
+    /**
+     * UUID string of the last internship returned (null for offset and start cursors).
+     */
+    private final String id;
+
+    /**
+     * Number of items already returned (offset cursors only).
+     */
+    private final int offset;
+
+    /**
+     * Create a decoded cursor.
+     *
+     * @param title  title of the last internship returned
+     * @param id     UUID string of the last internship returned
+     * @param offset number of items already returned
+     */
+    private PageCursor(String title, String id, int offset) {
+        this.title = title;
+        this.id = id;
+        this.offset = offset;
+    }
+
+    /**
+     * Decode a cursor passed in by a caller.
+     *
+     * @param cursor cursor from {@link Page#getNextCursor()}, or null for the first page
+     * @return decoded cursor, or null if the cursor is malformed (the error is reported)
+     */
+    static PageCursor parse(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            char kind = decoded.isEmpty() ? 0 : decoded.charAt(0);
+            if (kind == OFFSET) {
+                int offset = Integer.parseInt(decoded.substring(1));
+                if (offset >= 0) {
+                    return new PageCursor(null, null, offset);
+                }
+            } else if (kind == TITLE || kind == NO_TITLE) {
+                int separator = decoded.lastIndexOf('\u0000');
+                if (separator > 0) {
+                    String title = kind == TITLE ? decoded.substring(1, separator) : null;
+                    return new PageCursor(title, decoded.substring(separator + 1), 0);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64 or not a number; reported below
+        }
+        System.err.println("Invalid page cursor: " + cursor);
+        return null;
+    }
+
+    /**
+     * Check whether this cursor continues a title-ordered listing (or starts any listing).
+     *
+     * @return true for title and start cursors
+     */
+    boolean isTitleCursor() {
+        return id != null || this == START;
+    }
+
+    /**
+     * Check whether this is the cursor of the first page.
+     *
+     * @return true if no items have been returned yet
+     */
+    boolean isStart() {
+        return this == START;
+    }
+
+    /**
+     * Get the title of the last internship returned.
+     *
+     * @return title (null for start cursors or an untitled internship)
+     */
+    String getTitle() {
+        return title;
+    }
+
+    /**
+     * Get the UUID string of the last internship returned.
+     *
+     * @return UUID string (null for start and offset cursors)
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Check whether an internship comes after this cursor in title order.
+     *
+     * @param internship internship to check
+     * @return true if it belongs on this or a later page
+     */
+    boolean precedes(Internship internship) {
+        if (isStart()) {
+            return true;
+        }
+        int byTitle = Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER).compare(title, internship.getTitle());
+        return byTitle != 0 ? byTitle < 0 : id.compareTo(internship.getUUID().toString()) < 0;
+    }
+
+    /**
+     * Cut the next page out of internships that follow the cursor in title order.
+     *
+     * @param titleOrdered internships after the cursor, in {@link #TITLE_ORDER}
+     * @param filter       internships to include
+     * @param pageSize     maximum number of items on the page
+     * @return the page; its cursor continues after its last internship
+     */
+    static Page<Internship> titlePage(Iterable<Internship> titleOrdered, Predicate<? super Internship> filter,
+                                      int pageSize) {
+        List<Internship> items = new ArrayList<>(Math.min(pageSize, 64));
+        for (Internship internship : titleOrdered) {
+            if (!filter.test(internship)) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                // Another match exists, so a next page does
+                return new Page<>(items, encode(items.get(items.size() - 1)));
+            }
+            items.add(internship);
+        }
+        return new Page<>(items, null);
+    }
+
+    /**
+     * Cut the next page out of a fully ranked listing.
+     *
+     * @param ranked   all items in listing order
+     * @param cursor   decoded offset (or start) cursor
+     * @param pageSize maximum number of items on the page
+     * @param <T>      item type
+     * @return the page; its cursor continues at the following offset
+     */
+    static <T> Page<T> offsetPage(List<T> ranked, PageCursor cursor, int pageSize) {
+        int from = Math.min(cursor.offset, ranked.size());
+        int to = Math.min(from + pageSize, ranked.size());
+        String next = to < ranked.size()
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString((OFFSET + Integer.toString(to)).getBytes(StandardCharsets.UTF_8))
+                : null;
+        return new Page<>(new ArrayList<>(ranked.subList(from, to)), next);
+    }
+
+    /**
+     * Encode the cursor that continues after an internship in title order.
+     *
+     * @param last last internship of a page
+     * @return opaque cursor
+     */
+    private static String encode(Internship last) {
+        String raw = last.getTitle() != null
+                ? TITLE + last.getTitle() + '\u0000' + last.getUUID()
+                : NO_TITLE + "\u0000" + last.getUUID();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
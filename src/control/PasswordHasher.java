@@ -0,0 +1,258 @@
+package control;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * PBKDF2 (HMAC-SHA256) key derivation with cached factories and a dedicated hashing pool.
+ * <p>
+ * Looking up a {@link SecretKeyFactory} walks the security providers, so each thread keeps its own
+ * factory (factories are not thread-safe) and reuses it for every hash. Work that should not run on
+ * the caller's thread, such as logins arriving in a burst, is submitted to a bounded pool of
+ * {@code ipms.hashThreads} daemon threads (default: one per core) with a queue of
+ * {@code ipms.hashQueueCapacity} tasks (default 1024). When the queue is full, submissions fail
+ * immediately instead of piling up. {@link #getMetrics()} reports queue depth, waiting and hashing times.
+ * </p>
+ * <p>
+ * New hashes use {@link #getIterations()} iterations: {@code ipms.pbkdf2Iterations} (default
+ * {@value #DEFAULT_ITERATIONS}), or, when {@code ipms.pbkdf2TargetMs} is set, the count that
+ * {@link #calibrate(long)} measures for that verification time on this machine.
+ * </p>
+ */
+final class PasswordHasher {
+    /**
+     * PBKDF2 algorithm name.
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Number of hashing threads.
+     */
+    private static final int THREADS = Math.max(1,
+            Integer.getInteger("ipms.hashThreads", Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * Maximum number of tasks waiting for a hashing thread.
+     */
+    private static final int QUEUE_CAPACITY = Math.max(1, Integer.getInteger("ipms.hashQueueCapacity", 1024));
+
+    /**
+     * Iteration count used when neither a count nor a target time is configured.
+     */
+    static final int DEFAULT_ITERATIONS = 65536;
+
+    /**
+     * Lowest iteration count calibration may choose.
+     */
+    static final int MIN_ITERATIONS = 10_000;
+
+    /**
+     * Highest iteration count calibration may choose.
+     */
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    /**
+     * Iterations of each timed trial hash during calibration.
+     */
+    private static final int TRIAL_ITERATIONS = 20_000;
+
+    /**
+     * Number of timed trial hashes; the fastest one is used.
+     */
+    private static final int TRIALS = 5;
+
+    /**
+     * Factory of the current thread, created on its first hash.
+     */
+    private static final ThreadLocal<SecretKeyFactory> FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    });
+
+    /**
+     * Pool running submitted hashing work.
+     */
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        AtomicInteger threadNumber = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), task -> {
+                    Thread thread = new Thread(task, "ipms-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Metrics
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong COMPLETED = new AtomicLong();
+    private static final AtomicLong REJECTED = new AtomicLong();
+    private static final AtomicLong HASHES = new AtomicLong();
+    private static final AtomicLong TOTAL_HASH_NANOS = new AtomicLong();
+    private static final AtomicLong TOTAL_WAIT_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    private static final AtomicInteger MAX_QUEUE_DEPTH = new AtomicInteger();
+
+    /**
+     * Iteration count of new hashes.
+     */
+    private static volatile int iterations = initialIterations();
+
+    /**
+     * Utility class; not instantiable.
+     */
+    private PasswordHasher() {
+    }
+
+    /**
+     * Derive a PBKDF2 hash on the calling thread.
+     *
+     * @param password      password characters (not modified)
+     * @param salt          salt bytes
+     * @param iterations    number of PBKDF2 iterations
+     * @param keyLengthBits desired key length in bits
+     * @return derived hash
+     * @throws RuntimeException if hashing fails
+     */
+    static byte[] pbkdf2(char[] password, byte[] salt, int iterations, int keyLengthBits) {
+        long start = System.nanoTime();
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLengthBits);
+        try {
+            return FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Error while hashing a password: " + e.getMessage(), e);
+        } finally {
+            spec.clearPassword();
+            HASHES.incrementAndGet();
+            TOTAL_HASH_NANOS.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Run hashing work on the hashing pool.
+     *
+     * @param task work to run (typically hashing or verifying a password)
+     * @param <T>  result type
+     * @return future completed with the task's result, or exceptionally with a
+     * {@link RejectedExecutionException} if the queue is full
+     */
+    static <T> CompletableFuture<T> submit(Supplier<T> task) {
+        SUBMITTED.incrementAndGet();
+        long queuedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                long waited = System.nanoTime() - queuedAt;
+                TOTAL_WAIT_NANOS.addAndGet(waited);
+                MAX_WAIT_NANOS.accumulateAndGet(waited, Math::max);
+                try {
+                    result.complete(task.get());
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    COMPLETED.incrementAndGet();
+                }
+            });
+            MAX_QUEUE_DEPTH.accumulateAndGet(EXECUTOR.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException e) {
+            REJECTED.incrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Get the iteration count of new hashes.
+     *
+     * @return PBKDF2 iterations
+     */
+    static int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Measure how many iterations one verification can afford within a target time, and use that
+     * count for new hashes from now on.
+     * <p>
+     * PBKDF2 time grows linearly with the iteration count, so a few short trial hashes are timed on
+     * the calling thread and the fastest is scaled to the target. The result is rounded to a
+     * thousand and kept between {@value #MIN_ITERATIONS} and {@value #MAX_ITERATIONS}.
+     * </p>
+     *
+     * @param targetMillis desired time of one hash in milliseconds
+     * @return the iteration count now in use
+     */
+    static int calibrate(long targetMillis) {
+        char[] password = "calibration".toCharArray();
+        byte[] salt = new byte[16];
+        // Warm up the factory and the JIT before timing
+        pbkdf2(password, salt, TRIAL_ITERATIONS, 256);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < TRIALS; i++) {
+            long start = System.nanoTime();
+            pbkdf2(password, salt, TRIAL_ITERATIONS, 256);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        double perIteration = (double) Math.max(1, fastest) / TRIAL_ITERATIONS;
+        long calibrated = Math.round(targetMillis * 1_000_000.0 / perIteration / 1000) * 1000;
+        iterations = (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, calibrated));
+        return iterations;
+    }
+
+    /**
+     * Set the iteration count of new hashes.
+     *
+     * @param count PBKDF2 iterations (at least {@value #MIN_ITERATIONS})
+     * @return true if the count was accepted
+     */
+    static boolean setIterations(int count) {
+        if (count < MIN_ITERATIONS) {
+            System.err.println("PBKDF2 iterations must be at least " + MIN_ITERATIONS + ": " + count);
+            return false;
+        }
+        iterations = count;
+        return true;
+    }
+
+    /**
+     * Determine the startup iteration count from the system properties.
+     *
+     * @return calibrated count if a target time is set, otherwise the configured or default count
+     */
+    private static int initialIterations() {
+        Long targetMillis = Long.getLong("ipms.pbkdf2TargetMs");
+        if (targetMillis != null && targetMillis > 0) {
+            return calibrate(targetMillis);
+        }
+        int configured = Integer.getInteger("ipms.pbkdf2Iterations", DEFAULT_ITERATIONS);
+        if (configured < MIN_ITERATIONS) {
+            System.err.println("Ignoring ipms.pbkdf2Iterations below " + MIN_ITERATIONS + ": " + configured);
+            return DEFAULT_ITERATIONS;
+        }
+        return configured;
+    }
+
+    /**
+     * Take a snapshot of the hashing statistics.
+     *
+     * @return metrics snapshot
+     */
+    static HashingMetrics getMetrics() {
+        return new HashingMetrics(THREADS, QUEUE_CAPACITY, EXECUTOR.getQueue().size(), MAX_QUEUE_DEPTH.get(),
+                EXECUTOR.getActiveCount(), SUBMITTED.get(), COMPLETED.get(), REJECTED.get(),
+                HASHES.get(), TOTAL_HASH_NANOS.get(), TOTAL_WAIT_NANOS.get(), MAX_WAIT_NANOS.get());
+    }
+}
@@ -0,0 +1,217 @@
+package control;
+
+import entity.CareerCenterStaff;
+import entity.CompanyRepresentative;
+import entity.Student;
+import entity.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batches the persistence of password hashes upgraded on login.
+ * <p>
+ * When a user logs in with a hash whose iteration count differs from the current one, the new hash
+ * is set on the in-memory user straight away and the user is queued here. Queued users are written
+ * together, one journal append or table rewrite per user table, once {@code ipms.rehashBatchSize}
+ * users (default 20) are waiting or {@code ipms.rehashDelayMs} milliseconds (default 5000) after
+ * the first was queued. Until then the old hash on disk still verifies the same password, so a
+ * lost batch only means those users are rehashed again on their next login.
+ * {@link #flush()} writes the queue synchronously and also runs from {@link DataStore#flush()}.
+ * </p>
+ */
+final class RehashBatcher {
+    /**
+     * Number of queued users that triggers an immediate write.
+     */
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("ipms.rehashBatchSize", 20));
+
+    /**
+     * Maximum time a queued user waits before being written.
+     */
+    private static final long DELAY_MS = Math.max(1, Long.getLong("ipms.rehashDelayMs", 5000));
+
+    /**
+     * The single batcher instance, created on first use.
+     */
+    private static RehashBatcher instance;
+
+    /**
+     * Users whose upgraded hash has not been written yet.
+     */
+    private final Set<User> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Whether a write of the pending users has already been scheduled.
+     */
+    private boolean flushScheduled;
+
+    /**
+     * Daemon thread running the delayed and early writes.
+     */
+    private final ScheduledExecutorService executor;
+
+    // Metrics, guarded by this
+    private long usersRehashed;
+    private long batchesWritten;
+
+    /**
+     * Get the shared batcher, starting its background thread on the first call.
+     *
+     * @return the process-wide batcher
+     */
+    static synchronized RehashBatcher getInstance() {
+        if (instance == null) {
+            instance = new RehashBatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Write the pending users of the batcher if it was ever started.
+     *
+     * @return true when no upgraded hash is left unwritten
+     */
+    static boolean flushIfStarted() {
+        RehashBatcher batcher;
+        synchronized (RehashBatcher.class) {
+            batcher = instance;
+        }
+        return batcher == null || batcher.flush();
+    }
+
+    /**
+     * Start the background thread and register the shutdown write.
+     */
+    private RehashBatcher() {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ipms-rehash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "ipms-rehash-shutdown"));
+    }
+
+    /**
+     * Queue a user whose password hash was upgraded in memory.
+     *
+     * @param user user with a new hash to persist
+     */
+    synchronized void add(User user) {
+        pending.add(user);
+        usersRehashed++;
+        if (pending.size() >= BATCH_SIZE) {
+            schedule(0);
+        } else if (!flushScheduled) {
+            schedule(DELAY_MS);
+        }
+    }
+
+    /**
+     * Schedule a write of the pending users.
+     *
+     * @param delayMillis delay before the write
+     */
+    private void schedule(long delayMillis) {
+        flushScheduled = true;
+        try {
+            executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            flushScheduled = false; // Shutting down: the shutdown write picks the users up
+        }
+    }
+
+    /**
+     * Write every pending user now, one save per user table.
+     * <p>
+     * Users of a table whose save fails are queued again for the next write.
+     * </p>
+     *
+     * @return true when all pending hashes are on disk
+     */
+    boolean flush() {
+        List<Student> students = new ArrayList<>();
+        List<CompanyRepresentative> companyReps = new ArrayList<>();
+        List<CareerCenterStaff> staffs = new ArrayList<>();
+        synchronized (this) {
+            flushScheduled = false;
+            for (User user : pending) {
+                switch (user) {
+                    case Student student -> students.add(student);
+                    case CompanyRepresentative companyRep -> companyReps.add(companyRep);
+                    case CareerCenterStaff staff -> staffs.add(staff);
+                    default -> System.err.println("Cannot persist rehashed password of " + user.getUserID());
+                }
+            }
+            pending.clear();
+        }
+        if (students.isEmpty() && companyReps.isEmpty() && staffs.isEmpty()) {
+            return true;
+        }
+
+        // Held while the rows are formatted and written, so a password changed meanwhile is not
+        // overwritten on disk by the upgraded hash it replaced
+        DataStore store = DataStore.getInstance();
+        List<String> userIds = new ArrayList<>();
+        students.forEach(user -> userIds.add(user.getUserID()));
+        companyReps.forEach(user -> userIds.add(user.getUserID()));
+        staffs.forEach(user -> userIds.add(user.getUserID()));
+        boolean ok = store.withUserLocks(userIds, () -> {
+            boolean saved = true;
+            if (!TablePersistence.saveStudents(DataStore.studentPath, store.getStudents(), students)) {
+                requeue(students);
+                saved = false;
+            }
+            if (!TablePersistence.saveCompanyReps(DataStore.companyRepPath, store.getCompanyReps(), companyReps)) {
+                requeue(companyReps);
+                saved = false;
+            }
+            if (!TablePersistence.saveStaffs(DataStore.staffPath, store.getStaffs(), staffs)) {
+                requeue(staffs);
+                saved = false;
+            }
+            return saved;
+        });
+        synchronized (this) {
+            batchesWritten++;
+        }
+        return ok;
+    }
+
+    /**
+     * Queue users again after their table could not be written.
+     *
+     * @param users users whose upgraded hash is still unwritten
+     */
+    private synchronized void requeue(List<? extends User> users) {
+        pending.addAll(users);
+        if (!flushScheduled) {
+            schedule(DELAY_MS);
+        }
+    }
+
+    /**
+     * Get the number of users queued since startup.
+     *
+     * @return rehashed users
+     */
+    synchronized long getUsersRehashed() {
+        return usersRehashed;
+    }
+
+    /**
+     * Get the number of batches written since startup.
+     *
+     * @return written batches
+     */
+    synchronized long getBatchesWritten() {
+        return batchesWritten;
+    }
+}
@@ -0,0 +1,251 @@
+package control;
+
+import entity.Internship;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals behind the staff report, kept up to date as the tables change.
+ * <p>
+ * The system-wide summary (approved companies, internships per status, total applications and
+ * withdrawal requests) is read from counters instead of being recomputed, and the per-internship
+ * breakdown walks internships that are already sorted by title. Per-internship application and
+ * withdrawal counts are the sizes of the per-internship lists, so they need no counters of their own.
+ * Internships whose status or title change in place must be passed to {@link #internshipChanged(Internship)}.
+ * The internship structures are guarded by the store's index lock; the record counters are atomic so
+ * applications and withdrawal requests can be counted without it.
+ * </p>
+ */
+final class ReportAggregates {
+    /**
+     * Position of an internship in the title order: case-insensitive title, then UUID for ties.
+     *
+     * @param title internship title as it was when indexed
+     * @param id    internship UUID string
+     */
+    private record TitleKey(String title, String id) {
+    }
+
+    /**
+     * Report order of internships.
+     */
+    private static final Comparator<TitleKey> TITLE_ORDER = Comparator
+            .comparing(TitleKey::title, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(TitleKey::id);
+
+    /**
+     * Status shown for internships without one.
+     */
+    private static final String UNKNOWN_STATUS = "Unknown";
+
+    /**
+     * Internships sorted by title.
+     */
+    private final TreeMap<TitleKey, Internship> byTitle = new TreeMap<>(TITLE_ORDER);
+
+    /**
+     * Internship -> title key it is filed under in {@link #byTitle}.
+     */
+    private final Map<Internship, TitleKey> titleKeys = new IdentityHashMap<>();
+
+    /**
+     * Internship -> status it is counted under in {@link #statusCounts}.
+     */
+    private final Map<Internship, String> countedStatus = new IdentityHashMap<>();
+
+    /**
+     * Status -> number of internships with that status, in status order.
+     */
+    private final Map<String, Long> statusCounts = new TreeMap<>();
+
+    /**
+     * Number of company representatives with status "Approved".
+     */
+    private final AtomicLong approvedCompanies = new AtomicLong();
+
+    /**
+     * Number of applications in the application table.
+     */
+    private final AtomicLong totalApplications = new AtomicLong();
+
+    /**
+     * Number of withdrawal requests in the withdrawal table.
+     */
+    private final AtomicLong totalWithdrawals = new AtomicLong();
+
+    /**
+     * Count a new internship.
+     *
+     * @param internship internship added to the table (ignored if already counted)
+     */
+    void internshipAdded(Internship internship) {
+        if (titleKeys.containsKey(internship)) {
+            return;
+        }
+        TitleKey key = new TitleKey(internship.getTitle(), internship.getUUID().toString());
+        titleKeys.put(internship, key);
+        byTitle.put(key, internship);
+        String status = statusOf(internship);
+        countedStatus.put(internship, status);
+        statusCounts.merge(status, 1L, Long::sum);
+    }
+
+    /**
+     * Stop counting an internship.
+     *
+     * @param internship internship removed from the table (ignored if not counted)
+     */
+    void internshipRemoved(Internship internship) {
+        TitleKey key = titleKeys.remove(internship);
+        if (key == null) {
+            return;
+        }
+        byTitle.remove(key);
+        decrementStatus(countedStatus.remove(internship));
+    }
+
+    /**
+     * Re-count an internship after its status or title changed.
+     *
+     * @param internship internship that changed
+     */
+    void internshipChanged(Internship internship) {
+        if (!titleKeys.containsKey(internship)) {
+            return;
+        }
+        String status = statusOf(internship);
+        String previous = countedStatus.put(internship, status);
+        if (!status.equals(previous)) {
+            decrementStatus(previous);
+            statusCounts.merge(status, 1L, Long::sum);
+        }
+
+        TitleKey key = titleKeys.get(internship);
+        if (!Objects.equals(key.title(), internship.getTitle())) {
+            byTitle.remove(key);
+            TitleKey newKey = new TitleKey(internship.getTitle(), key.id());
+            titleKeys.put(internship, newKey);
+            byTitle.put(newKey, internship);
+        }
+    }
+
+    /**
+     * Adjust the number of approved company representatives.
+     *
+     * @param delta +1 when a representative becomes approved, -1 when one stops being approved
+     */
+    void approvedCompaniesChanged(int delta) {
+        approvedCompanies.addAndGet(delta);
+    }
+
+    /**
+     * Adjust the number of applications.
+     *
+     * @param delta number of applications added (negative for removals)
+     */
+    void applicationsChanged(int delta) {
+        totalApplications.addAndGet(delta);
+    }
+
+    /**
+     * Adjust the number of withdrawal requests.
+     *
+     * @param delta number of withdrawal requests added (negative for removals)
+     */
+    void withdrawalsChanged(int delta) {
+        totalWithdrawals.addAndGet(delta);
+    }
+
+    /**
+     * Get the number of approved company representatives.
+     *
+     * @return approved companies
+     */
+    long getApprovedCompanies() {
+        return approvedCompanies.get();
+    }
+
+    /**
+     * Get the number of internships.
+     *
+     * @return internship count
+     */
+    long getTotalInternships() {
+        return byTitle.size();
+    }
+
+    /**
+     * Get the number of internships per status ("Unknown" for internships without a status).
+     *
+     * @return read-only live view, ordered by status
+     */
+    Map<String, Long> getInternshipsByStatus() {
+        return Collections.unmodifiableMap(statusCounts);
+    }
+
+    /**
+     * Get the number of applications.
+     *
+     * @return total applications
+     */
+    long getTotalApplications() {
+        return totalApplications.get();
+    }
+
+    /**
+     * Get the number of withdrawal requests.
+     *
+     * @return total withdrawal requests
+     */
+    long getTotalWithdrawals() {
+        return totalWithdrawals.get();
+    }
+
+    /**
+     * Get all internships ordered by title (case-insensitive).
+     *
+     * @return read-only live view in report order
+     */
+    Collection<Internship> getInternshipsByTitle() {
+        return Collections.unmodifiableCollection(byTitle.values());
+    }
+
+    /**
+     * Get the internships that follow a position in title order, without scanning those before it.
+     *
+     * @param title title at the position (nullable)
+     * @param id    UUID string at the position
+     * @return read-only live view of the internships after that position
+     */
+    Collection<Internship> getInternshipsByTitleAfter(String title, String id) {
+        return Collections.unmodifiableCollection(byTitle.tailMap(new TitleKey(title, id), false).values());
+    }
+
+    /**
+     * Decrement a status count, dropping the status once no internship has it.
+     *
+     * @param status status to decrement (ignored if null)
+     */
+    private void decrementStatus(String status) {
+        if (status != null) {
+            statusCounts.computeIfPresent(status, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * Get the status an internship is reported under.
+     *
+     * @param internship internship
+     * @return its status, or "Unknown"
+     */
+    private static String statusOf(Internship internship) {
+        return internship.getStatus() != null ? internship.getStatus() : UNKNOWN_STATUS;
+    }
+}
@@ -0,0 +1,44 @@
+package control;
+
+/**
+ * Output formats of the internship placement report.
+ */
+public enum ReportFormat {
+    /**
+     * The console report: system-wide summary followed by one block per internship.
+     */
+    TEXT("txt"),
+
+    /**
+     * One CSV row per internship with its counts, after a header row.
+     */
+    CSV("csv"),
+
+    /**
+     * One JSON object per line: a summary object, then one object per internship.
+     */
+    JSON_LINES("jsonl");
+
+    /**
+     * Conventional file extension, without the dot.
+     */
+    private final String extension;
+
+    /**
+     * Create a format.
+     *
+     * @param extension conventional file extension
+     */
+    ReportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Get the conventional file extension of this format.
+     *
+     * @return extension without the dot (e.g. "csv")
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,283 @@
+package control;
+
+import entity.Application;
+import entity.Internship;
+import entity.Withdrawal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the internship placement report to an {@link Appendable} in one of the
+ * {@link ReportFormat}s.
+ * <p>
+ * The figures are first copied into a {@link Snapshot} while the store's index lock is held; the
+ * report is then written from the snapshot without the lock, so a slow destination never blocks
+ * writers to the store. Rows are written as they are produced, so exporting to a buffered file
+ * writer never holds the formatted report in memory. Numbers and fields are appended piece by
+ * piece, without {@code String.format} or intermediate strings per line.
+ * </p>
+ */
+final class ReportWriter {
+    /**
+     * Report figures copied from the running totals at one point in time.
+     *
+     * @param approvedCompanies   number of approved company representatives
+     * @param totalInternships    number of internships
+     * @param internshipsByStatus status -> number of internships, in status order
+     * @param totalApplications   number of applications
+     * @param totalWithdrawals    number of withdrawal requests
+     * @param rows                per-internship rows in title order
+     */
+    record Snapshot(long approvedCompanies, long totalInternships, Map<String, Long> internshipsByStatus,
+                    long totalApplications, long totalWithdrawals, List<Row> rows) {
+        /**
+         * Copy the report figures. The caller must hold the store's index read lock.
+         *
+         * @param totals       running report totals
+         * @param applications internship UUID -> applications
+         * @param withdrawals  internship UUID -> withdrawal requests
+         * @return snapshot that stays valid after the lock is released
+         */
+        static Snapshot of(ReportAggregates totals, Map<String, List<Application>> applications,
+                           Map<String, List<Withdrawal>> withdrawals) {
+            List<Row> rows = new ArrayList<>((int) totals.getTotalInternships());
+            for (Internship internship : totals.getInternshipsByTitle()) {
+                String id = internship.getUUID().toString();
+                List<Application> appsForThis = applications.get(id);
+                List<Withdrawal> withdrawalsForThis = withdrawals.get(id);
+                rows.add(new Row(id, internship.getTitle(), internship.getCompanyName(), internship.getStatus(),
+                        appsForThis == null ? 0 : appsForThis.size(),
+                        withdrawalsForThis == null ? 0 : withdrawalsForThis.size()));
+            }
+            return new Snapshot(totals.getApprovedCompanies(), totals.getTotalInternships(),
+                    new LinkedHashMap<>(totals.getInternshipsByStatus()), totals.getTotalApplications(),
+                    totals.getTotalWithdrawals(), rows);
+        }
+    }
+
+    /**
+     * One internship of the per-internship breakdown.
+     *
+     * @param id           internship UUID string
+     * @param title        internship title
+     * @param company      company name
+     * @param status       internship status
+     * @param applications applications received
+     * @param withdrawals  withdrawal requests received
+     */
+    record Row(String id, String title, String company, String status, int applications, int withdrawals) {
+    }
+
+    /**
+     * Separator line of the text report.
+     */
+    private static final String RULE = "========================================\n";
+
+    /**
+     * Destination of the report.
+     */
+    private final Appendable out;
+
+    /**
+     * Format to write.
+     */
+    private final ReportFormat format;
+
+    /**
+     * Create a writer.
+     *
+     * @param out    destination of the report
+     * @param format format to write
+     */
+    ReportWriter(Appendable out, ReportFormat format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Write the whole report.
+     *
+     * @param report report figures
+     * @throws IOException if the destination cannot be written
+     */
+    void write(Snapshot report) throws IOException {
+        writeHeader(report);
+        for (Row row : report.rows()) {
+            writeInternship(row, report.totalApplications());
+        }
+    }
+
+    /**
+     * Write everything that precedes the per-internship rows.
+     *
+     * @param totals report figures
+     * @throws IOException if the destination cannot be written
+     */
+    private void writeHeader(Snapshot totals) throws IOException {
+        switch (format) {
+            case TEXT -> {
+                out.append(RULE).append("   Internship Placement System Report   \n").append(RULE);
+                out.append("\n--- System-Wide Summary ---\n");
+                out.append("Total Approved Companies: ").append(Long.toString(totals.approvedCompanies())).append('\n');
+                out.append("Total Internships:        ").append(Long.toString(totals.totalInternships())).append('\n');
+                for (Map.Entry<String, Long> entry : totals.internshipsByStatus().entrySet()) {
+                    out.append("  - ").append(entry.getKey()).append(": ").append(entry.getValue().toString()).append('\n');
+                }
+                out.append("Total Applications:       ").append(Long.toString(totals.totalApplications())).append('\n');
+                out.append("Total Withdrawal Requests: ").append(Long.toString(totals.totalWithdrawals())).append('\n');
+                out.append("\n\n--- Per-Internship Breakdown ---\n");
+                if (totals.totalInternships() == 0) {
+                    out.append("No internships found in the system.\n");
+                }
+            }
+            case CSV -> out.append("InternshipId,Title,Company,Status,Applications,WithdrawalRequests,PercentOfApplications\n");
+            case JSON_LINES -> {
+                out.append("{\"type\":\"summary\",\"approvedCompanies\":").append(Long.toString(totals.approvedCompanies()));
+                out.append(",\"internships\":").append(Long.toString(totals.totalInternships()));
+                out.append(",\"internshipsByStatus\":{");
+                boolean first = true;
+                for (Map.Entry<String, Long> entry : totals.internshipsByStatus().entrySet()) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    first = false;
+                    appendJsonString(entry.getKey());
+                    out.append(':').append(entry.getValue().toString());
+                }
+                out.append("},\"applications\":").append(Long.toString(totals.totalApplications()));
+                out.append(",\"withdrawalRequests\":").append(Long.toString(totals.totalWithdrawals()));
+                out.append("}\n");
+            }
+        }
+    }
+
+    /**
+     * Write the row (or block) of one internship.
+     *
+     * @param row               internship row
+     * @param totalApplications applications in the whole system
+     * @throws IOException if the destination cannot be written
+     */
+    private void writeInternship(Row row, long totalApplications) throws IOException {
+        String id = row.id();
+        int appCount = row.applications();
+        int withdrawalCount = row.withdrawals();
+        // Share of all applications in tenths of a percent, rounded half up like %.1f
+        long tenths = totalApplications == 0 ? 0 : Math.round(appCount * 1000.0 / totalApplications);
+        switch (format) {
+            case TEXT -> {
+                out.append("\n----------------------------------------\n");
+                out.append("Internship: ").append(String.valueOf(row.title())).append('\n');
+                out.append("Company:    ").append(String.valueOf(row.company())).append('\n');
+                out.append("Status:     ").append(String.valueOf(row.status())).append('\n');
+                out.append("  - Applications Received: ").append(Integer.toString(appCount)).append('\n');
+                out.append("  - Withdrawal Requests:   ").append(Integer.toString(withdrawalCount)).append('\n');
+                out.append("  - % of Total System Apps: ");
+                appendTenths(tenths);
+                out.append("%\n");
+            }
+            case CSV -> {
+                out.append(id).append(',');
+                appendCsvField(row.title());
+                out.append(',');
+                appendCsvField(row.company());
+                out.append(',');
+                appendCsvField(row.status());
+                out.append(',').append(Integer.toString(appCount));
+                out.append(',').append(Integer.toString(withdrawalCount)).append(',');
+                appendTenths(tenths);
+                out.append('\n');
+            }
+            case JSON_LINES -> {
+                out.append("{\"type\":\"internship\",\"id\":\"").append(id).append("\",\"title\":");
+                appendJsonString(row.title());
+                out.append(",\"company\":");
+                appendJsonString(row.company());
+                out.append(",\"status\":");
+                appendJsonString(row.status());
+                out.append(",\"applications\":").append(Integer.toString(appCount));
+                out.append(",\"withdrawalRequests\":").append(Integer.toString(withdrawalCount));
+                out.append(",\"percentOfApplications\":");
+                appendTenths(tenths);
+                out.append("}\n");
+            }
+        }
+    }
+
+    /**
+     * Append a non-negative number of tenths with one decimal place (e.g. 125 as "12.5").
+     *
+     * @param tenths value in tenths
+     * @throws IOException if the destination cannot be written
+     */
+    private void appendTenths(long tenths) throws IOException {
+        out.append(Long.toString(tenths / 10)).append('.').append((char) ('0' + tenths % 10));
+    }
+
+    /**
+     * Append a CSV field, quoting it only when it contains a separator, quote or line break.
+     *
+     * @param value field value (null is written as empty)
+     * @throws IOException if the destination cannot be written
+     */
+    private void appendCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * Append a JSON string literal.
+     *
+     * @param value string value (null is written as JSON null)
+     * @throws IOException if the destination cannot be written
+     */
+    private void appendJsonString(String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00");
+                        out.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
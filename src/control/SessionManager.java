@@ -0,0 +1,329 @@
+package control;
+
+import entity.User;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory login sessions keyed by random tokens.
+ * <p>
+ * A session is created after one successful password verification; afterwards the token alone
+ * identifies the user, so the PBKDF2 cost is paid once per session rather than once per request.
+ * Validating a token is a single hash map lookup plus a deadline check, and extends the session:
+ * it expires after {@code ipms.sessionTimeoutMinutes} minutes (default 30) without use.
+ * </p>
+ * <p>
+ * Expired sessions are removed by a timing wheel: {@value #WHEEL_SIZE} slots, one per
+ * {@value #TICK_MS} ms tick, each holding the sessions whose deadline falls on a tick that maps to
+ * it. A daemon thread advances the wheel and visits only the current slot; a session that was used
+ * in the meantime is moved to the slot of its new deadline, a revoked one is dropped. Creating,
+ * revoking and expiring a session therefore cost O(1) regardless of how many sessions exist.
+ * </p>
+ */
+final class SessionManager {
+    /**
+     * Time a session stays valid without being used.
+     */
+    private static final long DEFAULT_TIMEOUT_MS = Math.max(1, Long.getLong("ipms.sessionTimeoutMinutes", 30)) * 60_000;
+
+    /**
+     * Duration of one wheel tick.
+     */
+    private static final long TICK_MS = 1000;
+
+    /**
+     * Number of slots on the wheel.
+     */
+    private static final int WHEEL_SIZE = 64;
+
+    /**
+     * Number of random bytes in a token.
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * The single session manager, created on first use.
+     */
+    private static SessionManager instance;
+
+    /**
+     * Time a session of this manager stays valid without being used.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Source of session tokens.
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Token -> live session.
+     */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * User id -> that user's live sessions, guarded by this.
+     */
+    private final Map<String, List<Session>> sessionsByUser = new HashMap<>();
+
+    /**
+     * Wheel slots, each holding sessions due on a tick that maps to it; guarded by this.
+     */
+    private final List<List<Session>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * Next tick to process, guarded by this.
+     */
+    private long currentTick;
+
+    /**
+     * Clock time of tick 0 in milliseconds.
+     */
+    private final long originMillis = nowMillis();
+
+    /**
+     * Daemon thread advancing the wheel.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * One login session.
+     */
+    private static final class Session {
+        /**
+         * Token identifying the session.
+         */
+        final String token;
+
+        /**
+         * Authenticated user.
+         */
+        final User user;
+
+        /**
+         * Clock time in milliseconds after which the session is invalid; pushed back on every use.
+         */
+        volatile long expiresAt;
+
+        /**
+         * Create a session.
+         *
+         * @param token     session token
+         * @param user      authenticated user
+         * @param expiresAt initial expiry time
+         */
+        Session(String token, User user, long expiresAt) {
+            this.token = token;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Get the shared session manager, starting its wheel on the first call.
+     *
+     * @return the process-wide session manager
+     */
+    static synchronized SessionManager getInstance() {
+        if (instance == null) {
+            instance = new SessionManager(DEFAULT_TIMEOUT_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * End all sessions of a user if any session was ever created.
+     *
+     * @param userID id of the user
+     * @return number of sessions ended
+     */
+    static int revokeAllIfStarted(String userID) {
+        SessionManager manager;
+        synchronized (SessionManager.class) {
+            manager = instance;
+        }
+        return manager == null ? 0 : manager.revokeAll(userID);
+    }
+
+    /**
+     * Create the wheel and start the thread advancing it.
+     *
+     * @param timeoutMillis time a session stays valid without being used
+     */
+    SessionManager(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ipms-session-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::advance, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start a session for an authenticated user.
+     *
+     * @param user user whose credentials were just verified
+     * @return new session token
+     */
+    String create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, user, nowMillis() + timeoutMillis);
+        synchronized (this) {
+            sessions.put(token, session);
+            sessionsByUser.computeIfAbsent(user.getUserID(), id -> new ArrayList<>()).add(session);
+            schedule(session, currentTick);
+        }
+        return token;
+    }
+
+    /**
+     * Look up the user of a session and extend the session.
+     *
+     * @param token session token (nullable)
+     * @return the session's user, or null if the token is unknown, revoked or expired
+     */
+    User validate(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = nowMillis();
+        if (now >= session.expiresAt) {
+            return null; // Expired; the wheel removes it
+        }
+        session.expiresAt = now + timeoutMillis;
+        return session.user;
+    }
+
+    /**
+     * End a session.
+     *
+     * @param token session token (nullable)
+     * @return true if the session existed
+     */
+    synchronized boolean revoke(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session == null) {
+            return false;
+        }
+        forget(session);
+        return true;
+    }
+
+    /**
+     * End every session of a user, e.g. after a password change.
+     *
+     * @param userID id of the user
+     * @return number of sessions ended
+     */
+    synchronized int revokeAll(String userID) {
+        List<Session> userSessions = sessionsByUser.remove(userID);
+        if (userSessions == null) {
+            return 0;
+        }
+        for (Session session : userSessions) {
+            sessions.remove(session.token, session);
+        }
+        return userSessions.size();
+    }
+
+    /**
+     * Get the number of sessions that have not been revoked or removed by the wheel.
+     *
+     * @return live session count (may include sessions expired since the last tick)
+     */
+    int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Process every tick that has elapsed since the last run: expire due sessions and move
+     * sessions that were extended to the slot of their new deadline.
+     */
+    private synchronized void advance() {
+        long now = nowMillis();
+        long lastDueTick = (now - originMillis) / TICK_MS;
+        for (; currentTick <= lastDueTick; currentTick++) {
+            List<Session> slot = wheel.get((int) (currentTick % WHEEL_SIZE));
+            List<Session> rescheduled = new ArrayList<>();
+            for (Iterator<Session> it = slot.iterator(); it.hasNext(); ) {
+                Session session = it.next();
+                if (sessions.get(session.token) != session) {
+                    it.remove(); // Revoked
+                } else if (session.expiresAt <= now) {
+                    it.remove();
+                    sessions.remove(session.token, session);
+                    forget(session);
+                } else {
+                    // Extended, or due in a later turn of the wheel
+                    it.remove();
+                    rescheduled.add(session);
+                }
+            }
+            for (Session session : rescheduled) {
+                schedule(session, currentTick + 1);
+            }
+        }
+    }
+
+    /**
+     * Put a session into the slot of its deadline tick.
+     *
+     * @param session      session to schedule
+     * @param earliestTick first tick that has not been processed yet
+     */
+    private void schedule(Session session, long earliestTick) {
+        long tick = Math.max(tickOf(session.expiresAt), earliestTick);
+        wheel.get((int) (tick % WHEEL_SIZE)).add(session);
+    }
+
+    /**
+     * Remove a session from its user's session list.
+     *
+     * @param session session that ended
+     */
+    private void forget(Session session) {
+        List<Session> userSessions = sessionsByUser.get(session.user.getUserID());
+        if (userSessions != null) {
+            userSessions.remove(session);
+            if (userSessions.isEmpty()) {
+                sessionsByUser.remove(session.user.getUserID());
+            }
+        }
+    }
+
+    /**
+     * Get the first tick at or after a clock time.
+     *
+     * @param millis clock time in milliseconds
+     * @return tick number
+     */
+    private long tickOf(long millis) {
+        return (millis - originMillis + TICK_MS - 1) / TICK_MS;
+    }
+
+    /**
+     * Read the monotonic clock.
+     *
+     * @return current time in milliseconds
+     */
+    private static long nowMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
@@ -0,0 +1,90 @@
+package control;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks shared by hashing keys onto them (lock striping).
+ * <p>
+ * Gives every record its own lock in effect without allocating one per record: two keys contend
+ * only if they hash to the same stripe, which with the default stripe count is rare. Several keys
+ * are always locked in ascending stripe order, so two threads locking overlapping key sets cannot
+ * deadlock.
+ * </p>
+ */
+final class StripedLocks {
+    /**
+     * The stripes; the length is a power of two.
+     */
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Create a set of stripes.
+     *
+     * @param count minimum number of stripes (rounded up to a power of two)
+     */
+    StripedLocks(int count) {
+        int size = 1;
+        while (size < count) {
+            size <<= 1;
+        }
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Run an action holding the stripe of one key.
+     *
+     * @param key    key to lock
+     * @param action work to do
+     * @param <T>    result type
+     * @return the action's result
+     */
+    <T> T withLock(String key, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(key)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Run an action holding the stripes of several keys, acquired in ascending stripe order.
+     *
+     * @param keys   keys to lock (duplicates and keys sharing a stripe are locked once)
+     * @param action work to do
+     * @param <T>    result type
+     * @return the action's result
+     */
+    <T> T withLocks(Collection<String> keys, Supplier<T> action) {
+        int[] order = keys.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int stripe : order) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Get the stripe a key maps to.
+     *
+     * @param key key (nullable)
+     * @return stripe index
+     */
+    private int stripeOf(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -6,9 +6,9 @@ import entity.Student;
 import entity.Withdrawal;
 
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -18,6 +18,11 @@ import java.util.stream.Stream;
  * Handles listing available internships, applying, accepting offers and requesting withdrawals.
  * Enforces business rules such as maximum applications per student and single offer acceptance.
  * </p>
+ * <p>
+ * Every change runs under the store's locks for the student and the internships it touches, and
+ * re-checks its preconditions there, so concurrent requests of the same student (or for the same
+ * internship) cannot both pass a check that only one of them should.
+ * </p>
  */
 public class StudentController extends BaseController {
     /**
@@ -35,20 +40,25 @@ public class StudentController extends BaseController {
      */
     private final Map<String, List<Withdrawal>> withdrawals;
 
+    /**
+     * Shared data store, also used for per-student lookups and index-maintaining mutations.
+     */
+    private final DataStore store;
+
     /**
      * Path to the application CSV data file.
      */
-    private static final Path applicationPath = Paths.get("data/sample_application_list.csv");
+    private static final Path applicationPath = DataStore.applicationPath;
 
     /**
      * Path to the internship CSV data file.
      */
-    private static final Path internshipPath = Paths.get("data/sample_internship_list.csv");
+    private static final Path internshipPath = DataStore.internshipPath;
 
     /**
      * Path to the withdrawal CSV data file.
      */
-    private static final Path withdrawalPath = Paths.get("data/sample_withdrawal_list.csv");
+    private static final Path withdrawalPath = DataStore.withdrawalPath;
 
     /**
      * Maximum number of active (pending or successful) applications allowed per student.
@@ -56,12 +66,13 @@ public class StudentController extends BaseController {
     private static final int maxApplication = 3;
 
     /**
-     * Construct the controller and preload internships, applications and withdrawals from CSV.
+     * Construct the controller over the shared internship, application and withdrawal tables.
      */
     public StudentController(){
-        internships = loadInternships(internshipPath);
-        applications = loadApplications(applicationPath);
-        withdrawals = loadWithdrawals(withdrawalPath);
+        store = DataStore.getInstance();
+        internships = store.getInternships();
+        applications = store.getApplications();
+        withdrawals = store.getWithdrawals();
     }
 
     /**
@@ -70,7 +81,8 @@ public class StudentController extends BaseController {
      * <p>
      * Filters out internships the student has already applied to, internships past their
      * closing date, and applies year-based level restrictions (years 1-2 can only see "Basic").
-     * All filters use case-insensitive matching.
+     * All filters use case-insensitive matching. Visibility, status, major and level are resolved
+     * through the store's bitmap index, so only those candidates are checked individually.
      * </p>
      *
      * @param student student seeking internships
@@ -79,25 +91,106 @@ public class StudentController extends BaseController {
      * @return list of internships matching eligibility and filters, sorted by title
      */
     public List<Internship> getAvailableInternships(Student student, List<String> levelFilters, List<String> companyFilters) {
+        return getAvailableInternships(student, levelFilters, companyFilters, null);
+    }
+
+    /**
+     * Get internships available to the given student, optionally narrowed down by a keyword search.
+     * <p>
+     * Same as {@link #getAvailableInternships(Student, List, List)}, except that when keywords are
+     * given only internships whose title or description match every keyword are returned, ranked
+     * by relevance instead of sorted by title. Keywords match the start of words, case-insensitively.
+     * </p>
+     *
+     * @param student student seeking internships
+     * @param levelFilters optional level filters (nullable)
+     * @param companyFilters optional company filters (nullable)
+     * @param keywords optional search keywords (nullable/blank = no keyword search)
+     * @return list of internships matching eligibility, filters and keywords
+     */
+    public List<Internship> getAvailableInternships(Student student, List<String> levelFilters,
+                                                    List<String> companyFilters, String keywords) {
         String studentMajor = student.getMajor();
-        int studentYear = student.getYearOfStudy();
-        LocalDate today = LocalDate.now(); // Get the current date once
+        boolean basicOnly = student.getYearOfStudy() <= 2;
+        boolean ranked = keywords != null && !keywords.isBlank();
+
+        Stream<Internship> stream;
+        if (ranked) {
+            // Keep the relevance order of the keyword matches, restricted to eligible internships
+            stream = store.searchInternships(keywords).stream()
+                    .filter(i -> store.isEligible(i, studentMajor, basicOnly));
+        } else {
+            // Visible, approved, matching major and (for years 1-2) "Basic" level, from the bitmap index
+            stream = store.findEligibleInternships(studentMajor, basicOnly).stream();
+        }
+        stream = stream.filter(listingFilter(student, levelFilters, companyFilters));
+
+        if (!ranked) {
+            stream = stream.sorted(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER));
+        }
+        return stream.collect(Collectors.toList());
+    }
 
-        Stream<Internship> stream = internships.values().stream()
-                .filter(Internship::isVisible)
-                .filter(i -> "Approved".equalsIgnoreCase(i.getStatus()))
-                .filter(i -> !i.getClosingDate().isBefore(today))
-                .filter(i -> !hasAlreadyApplied(student, i))
-                .filter(i -> i.getPreferredMajor() != null &&
-                        i.getPreferredMajor().equalsIgnoreCase(studentMajor))
-                .filter(i -> {
-                    String level = i.getLevel();
-                    if (studentYear <= 2) {
-                        return "Basic".equalsIgnoreCase(level);
-                    } else {
-                        return true;
-                    }
-                });
+    /**
+     * Get one page of the internships available to the given student.
+     * <p>
+     * Lists the same internships as {@link #getAvailableInternships(Student, List, List, String)}.
+     * Without keywords, pages follow title order. A page either walks the store's pre-sorted title
+     * order from the cursor onwards or, when the student's major and level match few internships,
+     * sorts just those candidates from the eligibility index; the catalogue is never sorted.
+     * </p>
+     *
+     * @param student student seeking internships
+     * @param levelFilters optional level filters (nullable)
+     * @param companyFilters optional company filters (nullable)
+     * @param keywords optional search keywords (nullable/blank = no keyword search)
+     * @param cursor cursor from the previous page, or null for the first page
+     * @param pageSize maximum number of internships per page
+     * @return the page, or null if the cursor or page size is invalid
+     */
+    public Page<Internship> getAvailableInternshipsPage(Student student, List<String> levelFilters,
+                                                        List<String> companyFilters, String keywords,
+                                                        String cursor, int pageSize) {
+        String studentMajor = student.getMajor();
+        boolean basicOnly = student.getYearOfStudy() <= 2;
+        Predicate<Internship> filter = listingFilter(student, levelFilters, companyFilters);
+        return store.pageEligibleInternships(studentMajor, basicOnly, filter, keywords, cursor, pageSize);
+    }
+
+    /**
+     * Look up an internship the student could apply to.
+     * <p>
+     * Applies the same rules as {@link #getAvailableInternships(Student, List, List)} to a single
+     * internship, so a client that only knows an internship's UUID can apply without listing first.
+     * </p>
+     *
+     * @param student student seeking the internship
+     * @param internshipUUID internship UUID string
+     * @return the internship, or null if it does not exist or is not available to the student
+     */
+    public Internship findAvailableInternship(Student student, String internshipUUID) {
+        Internship internship = internships.get(internshipUUID);
+        if (internship == null
+                || !store.isEligible(internship, student.getMajor(), student.getYearOfStudy() <= 2)
+                || !listingFilter(student, null, null).test(internship)) {
+            return null;
+        }
+        return internship;
+    }
+
+    /**
+     * Build the checks applied to eligible internships before listing them to a student: still
+     * open, not yet applied to, and matching the optional level and company filters.
+     *
+     * @param student student seeking internships
+     * @param levelFilters optional level filters (nullable)
+     * @param companyFilters optional company filters (nullable)
+     * @return predicate accepting the internships to list
+     */
+    private Predicate<Internship> listingFilter(Student student, List<String> levelFilters, List<String> companyFilters) {
+        LocalDate today = LocalDate.now(); // Get the current date once
+        Predicate<Internship> filter = i -> !i.getClosingDate().isBefore(today) // Expired since the last expiry sweep
+                && !hasAlreadyApplied(student, i);
 
         // Filter logic
         // Apply level filter if provided
@@ -106,7 +199,7 @@ public class StudentController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getLevel() != null &&
+            filter = filter.and(i -> i.getLevel() != null &&
                     normalizedFilters.contains(i.getLevel().toLowerCase()));
         }
 
@@ -116,13 +209,10 @@ public class StudentController extends BaseController {
                     .map(String::toLowerCase)
                     .collect(Collectors.toSet());
 
-            stream = stream.filter(i -> i.getCompanyName() != null &&
+            filter = filter.and(i -> i.getCompanyName() != null &&
                     normalizedFilters.contains(i.getCompanyName().toLowerCase()));
         }
-
-        return stream
-                .sorted(Comparator.comparing(Internship::getTitle, String.CASE_INSENSITIVE_ORDER))
-                .collect(Collectors.toList());
+        return filter;
     }
 
     /**
@@ -130,14 +220,12 @@ public class StudentController extends BaseController {
      *
      * @param student the student
      * @param internship the internship to check
-     * @return true if the student has an existing application for that internship
+     * @return true if the student has an existing application for that internship that was not
+     *         turned down (an unsuccessful application may be replaced by a new one)
      */
     public boolean hasAlreadyApplied(Student student, Internship internship) {
-        List<Application> appList = applications.get(internship.getUUID().toString());
-        if (appList == null) {
-            return false;
-        }
-        return appList.stream().anyMatch(app -> app.getUserId().equals(student.getUserID()));
+        Application existing = store.findApplication(internship.getUUID().toString(), student.getUserID());
+        return existing != null && !"Unsuccessful".equalsIgnoreCase(existing.getStatus());
     }
 
     /**
@@ -152,10 +240,7 @@ public class StudentController extends BaseController {
      */
     public boolean canApply(Student student) {
         // Get all applications for the student
-        List<Application> allMyApps = applications.values().stream()
-                .flatMap(List::stream)
-                .filter(app -> app.getUserId().equals(student.getUserID()))
-                .collect(Collectors.toList());
+        List<Application> allMyApps = store.getApplicationsOf(student.getUserID());
 
         // Check if they have already accepted an offer
         boolean hasAccepted = allMyApps.stream()
@@ -179,9 +264,37 @@ public class StudentController extends BaseController {
      *
      * @param student student applying
      * @param internship internship being applied to
-     * @return true when application added and CSV rewrite succeeded
+     * @return true when application added and CSV rewrite succeeded; false if the student may not apply
+     *         (any more) or has already applied
      */
     public boolean applyForInternship(Student student, Internship internship) {
+        return store.withLocks(student.getUserID(), List.of(internship.getUUID().toString()), () -> {
+            // Re-check under the locks: a concurrent request may have applied or used up the limit
+            if (!canApply(student) || hasAlreadyApplied(student, internship)) {
+                System.err.println("Error: Student " + student.getUserID() + " cannot apply for this internship.");
+                return false;
+            }
+            return submitApplication(student, internship);
+        });
+    }
+
+    /**
+     * Create and persist an application; the caller holds the student and internship locks.
+     *
+     * @param student student applying
+     * @param internship internship being applied to
+     * @return true when application added and CSV rewrite succeeded
+     */
+    private boolean submitApplication(Student student, Internship internship) {
+        // Replace an earlier unsuccessful application; it is removed first so it is not found instead
+        Application stale = store.findApplication(internship.getUUID().toString(), student.getUserID());
+        if (stale != null) {
+            store.removeApplication(stale);
+            if (!saveApplicationChanges(applicationPath, applications, List.of(), List.of(stale))) {
+                return false;
+            }
+        }
+
         // Create new Application object
         String status = "Pending"; // Default status
         String date = LocalDate.now().toString();
@@ -197,12 +310,10 @@ public class StudentController extends BaseController {
         );
 
         // Add to the in-memory map
-        String internshipId = internship.getUUID().toString();
-        applications.putIfAbsent(internshipId, new ArrayList<>());
-        applications.get(internshipId).add(application);
+        store.addApplication(application);
 
         // Save changes to CSV
-        return rewriteApplicationCSV(applicationPath, applications);
+        return saveApplicationChanges(applicationPath, applications, List.of(application), List.of());
     }
 
     /**
@@ -213,132 +324,218 @@ public class StudentController extends BaseController {
      */
     public Map<Application, Internship> getMyApplications(Student student) {
         Map<Application, Internship> myApps = new HashMap<>();
-        String studentId = student.getUserID();
 
-        // Flatten the map of lists into a single stream of all applications
-        applications.values().stream()
-                .flatMap(List::stream) // Stream<Application>
-                .filter(app -> studentId.equals(app.getUserId()))
-                .forEach(app -> {
-                    // For each of an student's applications, find the matching internship
-                    Internship internship = internships.get(app.getUUID().toString());
-                    if (internship != null) {
-                        myApps.put(app, internship);
-                    }
-                });
+        for (Application app : store.getApplicationsOf(student.getUserID())) {
+            // For each of an student's applications, find the matching internship
+            Internship internship = internships.get(app.getUUID().toString());
+            if (internship != null) {
+                myApps.put(app, internship);
+            }
+        }
         return myApps;
     }
 
     /**
      * Accept an offered application for the student: mark one application "Accepted",
      * remove other pending/successful applications, remove pending withdrawals for the student,
-     * decrement internship slots and persist all modified CSVs.
+     * reserve one of the internship's slots and persist all modified CSVs.
      * <p>
-     * If the internship slots reach 0, the status is set to "Filled" and all other pending
-     * applications for that internship are automatically marked "Unsuccessful".
+     * The slot is taken with a compare-and-set on the internship rather than under the
+     * internship's lock, so students accepting offers for the same posting do not queue behind one
+     * another; a posting can never be oversubscribed. The student that takes the last slot sets the
+     * status to "Filled" and marks all other pending applications for that internship
+     * "Unsuccessful", exactly once.
      * </p>
      *
      * @param student the student accepting an offer
      * @param appToAccept the Application being accepted
-     * @return true when all persistence operations succeed, false if student already accepted another offer
+     * @return true when all persistence operations succeed, false if student already accepted another offer,
+     *         the application is no longer a "Successful" offer or no slot is left
      */
     public boolean acceptOffer(Student student, Application appToAccept) {
+        String studentId = student.getUserID();
+        String acceptedInternshipId = appToAccept.getUUID().toString();
+        Internship acceptedInternship = internships.get(acceptedInternshipId);
+        if (acceptedInternship == null) {
+            System.err.println("CRITICAL ERROR: Could not find internship " +
+                    acceptedInternshipId + " to update slots.");
+            return false;
+        }
+
+        return store.withStudentLock(studentId, () -> {
+            // Lock the student's other internships only: everything touched on the accepted one is
+            // this student's (guarded by the student lock) or its slot count (compare-and-set)
+            Set<String> others = internshipIdsOf(studentId);
+            others.remove(acceptedInternshipId);
+            Acceptance acceptance = store.withLocks(null, others, () -> {
+                // Re-check under the locks: the offer may have been accepted, withdrawn or revised concurrently
+                if (store.findApplication(acceptedInternshipId, studentId) != appToAccept
+                        || !"Successful".equalsIgnoreCase(appToAccept.getStatus())) {
+                    System.err.println("Error: The offer is no longer available to accept.");
+                    return null;
+                }
+                return acceptOfferLocked(student, appToAccept, acceptedInternship);
+            });
+            if (acceptance == null) {
+                return false;
+            }
+
+            boolean filledSave = acceptance.slotsLeft() > 0 || markFilled(acceptedInternship);
+            boolean intSave = saveInternshipChanges(internshipPath, internships, List.of(acceptedInternship), List.of());
+            return acceptance.saved() && filledSave && intSave;
+        });
+    }
+
+    /**
+     * Outcome of accepting an offer.
+     *
+     * @param saved     whether the application and withdrawal changes were persisted
+     * @param slotsLeft slots left on the internship after the reservation
+     */
+    private record Acceptance(boolean saved, int slotsLeft) {
+    }
+
+    /**
+     * Get the internships a student has applied to or requested a withdrawal from.
+     *
+     * @param studentId student user id
+     * @return mutable set of internship UUID strings
+     */
+    private Set<String> internshipIdsOf(String studentId) {
+        Set<String> ids = new HashSet<>();
+        store.getApplicationsOf(studentId).forEach(app -> ids.add(app.getUUID().toString()));
+        store.getWithdrawalsOf(studentId).forEach(w -> ids.add(w.getUUID().toString()));
+        return ids;
+    }
+
+    /**
+     * Reserve a slot and accept an offer; the caller holds the student's lock and the locks of the
+     * student's other internships.
+     *
+     * @param student the student accepting an offer
+     * @param appToAccept the Application being accepted
+     * @param acceptedInternship the internship of that application
+     * @return the outcome, or null if student already accepted another offer or no slot is left
+     */
+    private Acceptance acceptOfferLocked(Student student, Application appToAccept, Internship acceptedInternship) {
         // Check if student has already accepted another offer
-        boolean alreadyAccepted = getMyApplications(student).keySet().stream()
+        boolean alreadyAccepted = store.getApplicationsOf(student.getUserID()).stream()
                 .anyMatch(app -> "Accepted".equalsIgnoreCase(app.getStatus()));
 
         if (alreadyAccepted) {
-            return false; // Cannot accept more than one
+            return null; // Cannot accept more than one
+        }
+
+        // Take a slot before changing anything else
+        int slotsLeft = acceptedInternship.reserveSlot();
+        if (slotsLeft < 0) {
+            System.err.println("Error: Internship " + acceptedInternship.getUUID() + " has no slots left.");
+            return null;
         }
 
+        // Track every record touched so only those need to be persisted
+        List<Application> changedApps = new ArrayList<>();
+        List<Application> removedApps = new ArrayList<>();
+        List<Withdrawal> removedWithdrawals = new ArrayList<>();
+
         // Set the chosen application to "Accepted"
         appToAccept.setStatus("Accepted");
+        changedApps.add(appToAccept);
 
-        // Remove all other "Pending" or "Successful" applications
-        // Iterate over each list in the map's values
-        for (List<Application> appList : applications.values()) {
-            // Use removeIf to safely find and remove matching applications
-            appList.removeIf(app ->
-                    app.getUserId().equals(student.getUserID()) && // Belongs to this student
-                            !app.getUUID().equals(appToAccept.getUUID()) && // NOT the one they accepted
-                            ("Pending".equalsIgnoreCase(app.getStatus()) || "Successful".equalsIgnoreCase(app.getStatus()))
-            );
-        }
-
-        // Remove all pending withdrawal requests for this student
-        boolean withdrawalsChanged = false;
-        for (List<Withdrawal> wList : withdrawals.values()) {
-            // Remove any "Pending" withdrawal request submitted by this student
-            if (wList.removeIf(w -> w.getUserId().equals(student.getUserID()) && "Pending".equalsIgnoreCase(w.getStatus()))) {
-                withdrawalsChanged = true;
+        // Remove all of this student's other "Pending" or "Successful" applications
+        for (Application app : store.getApplicationsOf(student.getUserID())) {
+            if (!app.getUUID().equals(appToAccept.getUUID()) && // NOT the one they accepted
+                    ("Pending".equalsIgnoreCase(app.getStatus()) || "Successful".equalsIgnoreCase(app.getStatus()))) {
+                removedApps.add(app);
             }
         }
+        removedApps.forEach(store::removeApplication);
 
-        // Update the Internship's slots and status
-        String acceptedInternshipId = appToAccept.getUUID().toString();
-        Internship acceptedInternship = internships.get(acceptedInternshipId);
-        boolean internshipChanged = false;
-
-        if (acceptedInternship != null) {
-            int currentSlots = acceptedInternship.getNumberOfSlots();
-            if (currentSlots > 0) {
-                acceptedInternship.setNumberOfSlots(currentSlots - 1);
-
-                // If slots are now 0, set status to "Filled"
-                if (acceptedInternship.getNumberOfSlots() == 0) {
-                    acceptedInternship.setStatus("Filled");
-
-                    // And automatically reject all other pending applications for this internship
-                    List<Application> allAppsForThisInternship = applications.get(acceptedInternshipId);
-                    if (allAppsForThisInternship != null) {
-                        for (Application app : allAppsForThisInternship) {
-                            // If it's "Pending"
-                            if ("Pending".equalsIgnoreCase(app.getStatus())) {
-                                // We don't need to check for the user, as the
-                                // user who just accepted has status "Accepted" now.
-                                app.setStatus("Unsuccessful");
-                            }
-                        }
-                    }
-                }
-
-                internshipChanged = true;
-            } else {
-                // This case (accepting an offer for an internship with 0 slots)
-                // shouldn't happen if logic is correct, but it's good to know.
-                System.err.println("Warning: Student accepted an offer for internship " +
-                        acceptedInternshipId + " which already had 0 slots.");
-                acceptedInternship.setStatus("Filled"); // Ensure it's filled
-                internshipChanged = true;
+        // Remove all pending withdrawal requests for this student
+        for (Withdrawal w : store.getWithdrawalsOf(student.getUserID())) {
+            if ("Pending".equalsIgnoreCase(w.getStatus())) {
+                removedWithdrawals.add(w);
             }
-        } else {
-            System.err.println("CRITICAL ERROR: Could not find internship " +
-                    acceptedInternshipId + " to update slots.");
         }
+        removedWithdrawals.forEach(store::removeWithdrawal);
 
-        // Save all changes to all relevant CSV files
-        boolean appSave = rewriteApplicationCSV(applicationPath, applications);
+        // Save all changes to the application and withdrawal CSV files
+        boolean appSave = saveApplicationChanges(applicationPath, applications, changedApps, removedApps);
         boolean wthSave = true;
-        boolean intSave = true;
 
-        if (withdrawalsChanged) {
-            wthSave = rewriteWithdrawalCSV(withdrawalPath, withdrawals);
+        if (!removedWithdrawals.isEmpty()) {
+            wthSave = saveWithdrawalChanges(withdrawalPath, withdrawals, List.of(), removedWithdrawals);
         }
 
-        if (internshipChanged) {
-            intSave = rewriteInternshipCSV(internshipPath, internships);
-        }
+        return new Acceptance(appSave && wthSave, slotsLeft);
+    }
 
-        return appSave && wthSave && intSave;
+    /**
+     * Set an internship whose last slot was just taken to "Filled" and automatically reject all
+     * other pending applications for it.
+     * <p>
+     * Runs under the internship's lock and re-checks the slot count there, so a slot returned by an
+     * approved withdrawal in the meantime keeps the posting open.
+     * </p>
+     *
+     * @param internship internship whose slot count reached 0
+     * @return true when the rejected applications were persisted (the caller saves the internship)
+     */
+    private boolean markFilled(Internship internship) {
+        String internshipId = internship.getUUID().toString();
+        return store.withInternshipLock(internshipId, () -> {
+            if (internship.getNumberOfSlots() > 0 || !"Approved".equalsIgnoreCase(internship.getStatus())) {
+                return true;
+            }
+            store.setInternshipStatus(internship, "Filled");
+
+            // And automatically reject all other pending applications for this internship
+            List<Application> rejected = new ArrayList<>();
+            List<NotificationInbox.Notification> notifications = new ArrayList<>();
+            for (Application app : applications.getOrDefault(internshipId, List.of())) {
+                // Accepted applications are no longer "Pending", so only other applicants match
+                if ("Pending".equalsIgnoreCase(app.getStatus())) {
+                    app.setStatus("Unsuccessful");
+                    rejected.add(app);
+                    notifications.add(new NotificationInbox.Notification(app.getUserId(),
+                            NotificationInbox.applicationDecided(internship.getTitle(), false)));
+                }
+            }
+            if (rejected.isEmpty()) {
+                return true;
+            }
+            boolean saved = saveApplicationChanges(applicationPath, applications, rejected, List.of());
+            store.getInbox().postAll(notifications);
+            return saved;
+        });
     }
 
     /**
      * Request a withdrawal for an existing application. The request is added with status "Pending".
      *
      * @param appToWithdraw the Application to withdraw
-     * @return true when the withdrawal request is saved
+     * @return true when the withdrawal request is saved; false if a request for it is already pending
      */
     public boolean requestWithdrawal(Application appToWithdraw) {
+        String internshipId = appToWithdraw.getUUID().toString();
+        return store.withLocks(appToWithdraw.getUserId(), List.of(internshipId), () -> {
+            // Re-check under the locks: a concurrent request may have been filed already
+            Withdrawal existing = store.findWithdrawal(internshipId, appToWithdraw.getUserId());
+            if (existing != null && "Pending".equalsIgnoreCase(existing.getStatus())) {
+                System.err.println("Error: A withdrawal request for this internship is already pending.");
+                return false;
+            }
+            return submitWithdrawal(appToWithdraw);
+        });
+    }
+
+    /**
+     * Create and persist a withdrawal request; the caller holds the student and internship locks.
+     *
+     * @param appToWithdraw the Application to withdraw
+     * @return true when the withdrawal request is saved
+     */
+    private boolean submitWithdrawal(Application appToWithdraw) {
         // Create a new Withdrawal object
         Withdrawal withdrawal = new Withdrawal(
                 appToWithdraw.getUUID(),
@@ -352,12 +549,10 @@ public class StudentController extends BaseController {
         );
 
         // Add it to the withdrawals map
-        String internshipId = appToWithdraw.getUUID().toString();
-        withdrawals.putIfAbsent(internshipId, new ArrayList<>());
-        withdrawals.get(internshipId).add(withdrawal);
+        store.addWithdrawal(withdrawal);
 
         // Save the withdrawals file
-        return rewriteWithdrawalCSV(withdrawalPath, withdrawals);
+        return saveWithdrawalChanges(withdrawalPath, withdrawals, List.of(withdrawal), List.of());
     }
 
     /**
@@ -367,160 +562,24 @@ public class StudentController extends BaseController {
      * @return set of internship UUID strings with pending withdrawals for the student
      */
     public Set<String> getPendingWithdrawalRequests(Student student) {
-        return withdrawals.values().stream()
-                .flatMap(List::stream)
-                .filter(w -> w.getUserId().equals(student.getUserID()))
+        return store.getWithdrawalsOf(student.getUserID()).stream()
                 .filter(w -> "Pending".equalsIgnoreCase(w.getStatus()))
                 .map(w -> w.getUUID().toString()) // Get the Internship UUID
                 .collect(Collectors.toSet());
     }
 
     /**
-     * Produce student notifications (approved/rejected application or withdrawal outcomes).
+     * Get the student's unread notifications (application and withdrawal outcomes).
      * <p>
-     * Side-effects: removes application/withdrawal entries that have been resolved (rejected
-     * applications and approved/rejected withdrawals) and persists changes to CSV files.
-     * Applications with pending withdrawal requests are skipped to avoid duplicate notifications.
+     * Messages are posted to the student's inbox when a decision is made, so this costs
+     * O(unread) instead of a scan of the student's records, and no record is changed. Each
+     * message is returned once.
      * </p>
      *
      * @param student the student to check notifications for
      * @return list of notification messages (may be empty)
      */
     public List<String> checkNotifications(Student student) {
-        List<String> notifications = new ArrayList<>();
-        String studentID = student.getUserID();
-
-        // Lists to store IDs of items to remove *after* iteration is complete
-        // This avoids a ConcurrentModificationException
-        List<String[]> applicationsToRemove = new ArrayList<>();
-        List<String[]> withdrawalsToRemove = new ArrayList<>();
-
-        // --- A. PRE-STEP: Populate Withdrawal Request IDs for the student ---
-        // Get all internship IDs for which this student has a withdrawal request
-        Set<String> withdrawalRequestIds = withdrawals.values().stream()
-                .flatMap(List::stream) // Flatten Stream<List<Withdrawal>> to Stream<Withdrawal>
-                .filter(w -> w.getUserId().equals(studentID))
-                .map(w -> w.getUUID().toString()) // Get the internship ID (UUID)
-                .collect(Collectors.toSet());
-
-        // --- 1. Check withdrawal request updates (Approved/Rejected) ---
-        // Iterate over all withdrawals from the in-memory map
-        withdrawals.values().stream()
-                .flatMap(List::stream)
-                .filter(w -> w.getUserId().equals(studentID))
-                .forEach(withdrawal -> {
-                    String status = withdrawal.getStatus();
-                    String internshipId = withdrawal.getUUID().toString();
-                    Internship internship = internships.get(internshipId);
-                    String internshipTitle = (internship != null) ? internship.getTitle() : "[Unknown Internship]";
-
-                    if (status.equalsIgnoreCase("Approved")) {
-                        notifications.add("Your withdrawal request for Internship: '" + internshipTitle + "' has been approved.");
-                        // Mark both the withdrawal and the original application for removal
-                        applicationsToRemove.add(new String[]{internshipId, studentID});
-                        withdrawalsToRemove.add(new String[]{internshipId, studentID});
-                    } else if (status.equalsIgnoreCase("Rejected")) {
-                        notifications.add("Your withdrawal request for Internship: '" + internshipTitle + "' has been rejected. Your original application status is restored.");
-                        // Mark only the withdrawal request for removal
-                        withdrawalsToRemove.add(new String[]{internshipId, studentID});
-                    }
-                });
-
-        // --- 2. Check application status updates (Approved/Rejected) ---
-        // Iterate over all applications from the in-memory map
-        applications.values().stream()
-                .flatMap(List::stream)
-                .filter(app -> app.getUserId().equals(studentID))
-                .forEach(application -> {
-                    String status = application.getStatus();
-                    String internshipId = application.getUUID().toString();
-
-                    // Skip this application if a withdrawal request was found for it (handled in step 1)
-                    if (withdrawalRequestIds.contains(internshipId)) {
-                        return;
-                    }
-
-                    Internship internship = internships.get(internshipId);
-                    String internshipTitle = (internship != null) ? internship.getTitle() : "[Unknown Internship]";
-
-                    if (status.equalsIgnoreCase("Successful")) {
-                        notifications.add("Your application for Internship: " + internshipTitle + " has been approved.");
-                    } else if (status.equalsIgnoreCase("Unsuccessful")) {
-                        notifications.add("Your application for Internship: " + internshipTitle + " has been rejected.");
-                        // Mark the rejected application for removal
-                        applicationsToRemove.add(new String[]{internshipId, studentID});
-                    }
-                });
-
-        // --- 3. Perform all removals AFTER iterations are complete ---
-
-        // Use a Set to avoid removing from the same list multiple times if (e.g.) two
-        // rejected apps for the same internship were found (which shouldn't happen, but is safe)
-        Set<String> modifiedAppInternshipIds = new HashSet<>();
-        Set<String> modifiedWithdrawalInternshipIds = new HashSet<>();
-
-        for (String[] app : applicationsToRemove) {
-            if (removeApplicationInternal(app[0], app[1])) {
-                modifiedAppInternshipIds.add(app[0]);
-            }
-        }
-
-        for (String[] withdrawal : withdrawalsToRemove) {
-            if (removeWithdrawalInternal(withdrawal[0], withdrawal[1])) {
-                modifiedWithdrawalInternshipIds.add(withdrawal[0]);
-            }
-        }
-
-        // --- 4. Rewrite CSV files only if changes were made ---
-
-        // Check if any lists that were modified still exist (they might be empty now)
-        // and rewrite the whole file.
-        if (!modifiedAppInternshipIds.isEmpty()) {
-            rewriteApplicationCSV(applicationPath, applications);
-        }
-
-        if (!modifiedWithdrawalInternshipIds.isEmpty()) {
-            rewriteWithdrawalCSV(withdrawalPath, withdrawals);
-        }
-
-        return notifications;
-    }
-
-    /**
-     * Internal helper to remove a specific application from the in-memory map.
-     * <p>
-     * Does not persist changes; caller must rewrite CSV afterward.
-     * </p>
-     *
-     * @param internshipId internship UUID string
-     * @param studentId student user id
-     * @return true if an application was removed, false if not found
-     */
-    private boolean removeApplicationInternal(String internshipId, String studentId) {
-        List<Application> appList = applications.get(internshipId);
-        if (appList != null) {
-            // Use removeIf to find and remove the matching application
-            return appList.removeIf(app -> app.getUserId().equals(studentId));
-        }
-        return false;
-    }
-
-    /**
-     * Internal helper to remove a specific withdrawal request from the in-memory map.
-     * <p>
-     * Does not persist changes; caller must rewrite CSV afterward.
-     * </p>
-     *
-     * @param internshipId internship UUID string
-     * @param studentId student user id
-     * @return true if a withdrawal was removed, false if not found
-     */
-    private boolean removeWithdrawalInternal(String internshipId, String studentId) {
-        List<Withdrawal> withdrawalList = withdrawals.get(internshipId);
-        if (withdrawalList != null) {
-            // Use removeIf to find and remove the matching withdrawal request
-            return withdrawalList.removeIf(w -> w.getUserId().equals(studentId));
-        }
-        return false;
+        return store.getInbox().readUnread(student.getUserID());
     }
 }
@@ -0,0 +1,287 @@
+package control;
+
+import entity.Student;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk import of students from a roster CSV.
+ * <p>
+ * The roster has the student table's columns ({@code StudentID,Name,Major,Year,Email[,Password]})
+ * with plain-text passwords; a blank password means the default {@value #DEFAULT_PASSWORD}. The
+ * file is streamed in chunks of {@value #CHUNK_SIZE} rows, and each chunk is validated and hashed
+ * on one of a pool of import threads (one per core) while the next chunk is read. Rows using the
+ * default password all share one hash computed up front, so only rows with their own password cost
+ * a PBKDF2 derivation. The valid students are merged into the student table under their account
+ * locks and persisted with a single write. Rows are rejected if malformed, duplicated within the roster, or already registered.
+ * </p>
+ */
+final class StudentImporter {
+    /**
+     * Password given to rows without one.
+     */
+    static final String DEFAULT_PASSWORD = "password";
+
+    /**
+     * Number of rows validated and hashed by one task.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    /**
+     * Expected student id format, e.g. U2310001A.
+     */
+    private static final Pattern STUDENT_ID_PATTERN = Pattern.compile("^[A-Z]\\d{7}[A-Z]$");
+
+    /**
+     * Highest valid year of study.
+     */
+    private static final int MAX_YEAR = 4;
+
+    /**
+     * Number of import threads.
+     */
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Used to hash the roster's passwords in the stored format.
+     */
+    private final AuthenticationController auth = new AuthenticationController();
+
+    /**
+     * Fields of one roster row as read.
+     *
+     * @param line line number in the roster
+     * @param cols row fields
+     */
+    private record RawRow(int line, String[] cols) {
+    }
+
+    /**
+     * Outcome of one roster row: the student to add, or the reason it was rejected.
+     *
+     * @param line      line number in the roster
+     * @param student   validated student (null if rejected)
+     * @param rejection reason for rejection (null if valid)
+     */
+    private record Row(int line, Student student, String rejection) {
+    }
+
+    /**
+     * Import every valid student of a roster file.
+     *
+     * @param roster roster CSV to import
+     * @return import result, or null if the roster cannot be read or the students cannot be persisted
+     *         (the error is reported and no student is added)
+     */
+    ImportResult importRoster(Path roster) {
+        if (!Files.exists(roster)) {
+            System.err.println("Roster not found: " + roster);
+            return null;
+        }
+        try {
+            return importRoster(CsvReader.open(roster));
+        } catch (IOException e) {
+            System.err.println("Failed to read roster: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Import every valid student of a roster given as CSV text, e.g. uploaded in a request body.
+     *
+     * @param roster roster CSV content (closed when the import ends)
+     * @return import result, or null if the roster cannot be read or the students cannot be persisted
+     *         (the error is reported and no student is added)
+     */
+    ImportResult importRoster(Reader roster) {
+        return importRoster(new CsvReader(roster));
+    }
+
+    /**
+     * Import every valid student read by a tokenizer.
+     *
+     * @param csv tokenizer over the roster (closed when the import ends)
+     * @return import result, or null if the roster cannot be read or the students cannot be persisted
+     */
+    private ImportResult importRoster(CsvReader csv) {
+        long start = System.nanoTime();
+        AtomicInteger hashes = new AtomicInteger(1);
+        String defaultHash = auth.hashPassword(DEFAULT_PASSWORD);
+
+        List<CompletableFuture<List<Row>>> chunks = new ArrayList<>();
+        int rowsRead = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "ipms-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Bounds the chunks read ahead of the hashing threads
+        Semaphore inFlight = new Semaphore(THREADS * 2);
+        try (CsvReader reader = csv) {
+            List<RawRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            int line = 0;
+            String[] cols;
+            while ((cols = reader.readRecord()) != null) {
+                line++;
+                if (line == 1 && cols[0].equalsIgnoreCase("StudentID")) {
+                    continue; // Header
+                }
+                if (cols.length == 1 && cols[0].isEmpty()) {
+                    continue; // Blank line
+                }
+                rowsRead++;
+                chunk.add(new RawRow(line, cols));
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.add(submit(executor, inFlight, chunk, defaultHash, hashes));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(submit(executor, inFlight, chunk, defaultHash, hashes));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read roster: " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Roster import interrupted.");
+            return null;
+        } finally {
+            executor.shutdown();
+        }
+
+        // Resolve duplicates within the roster in roster order, so the first occurrence wins
+        List<Row> candidates = new ArrayList<>();
+        List<String> rejections = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (CompletableFuture<List<Row>> future : chunks) {
+            for (Row row : future.join()) {
+                if (row.rejection() != null) {
+                    rejections.add("line " + row.line() + ": " + row.rejection());
+                } else if (!seen.add(row.student().getUserID())) {
+                    rejections.add("line " + row.line() + ": duplicate student ID " + row.student().getUserID());
+                } else {
+                    candidates.add(row);
+                }
+            }
+        }
+
+        // Merge under the account locks of the imported IDs (the store's striped student locks), so
+        // a concurrent import or account change of the same ID cannot run between the check and the add
+        DataStore store = DataStore.getInstance();
+        List<Student> added = new ArrayList<>();
+        boolean saved = store.withUserLocks(seen, () -> {
+            Map<String, Student> students = store.getStudents();
+            for (Row row : candidates) {
+                if (students.containsKey(row.student().getUserID())) {
+                    rejections.add("line " + row.line() + ": student " + row.student().getUserID() + " already exists");
+                } else {
+                    added.add(row.student());
+                }
+            }
+            added.forEach(store::addStudent);
+            if (!TablePersistence.saveStudents(DataStore.studentPath, students, added)) {
+                added.forEach(store::removeStudent);
+                return false;
+            }
+            return true;
+        });
+        if (!saved) {
+            return null;
+        }
+        return new ImportResult(rowsRead, added.size(), rejections, hashes.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * Validate and hash a chunk of rows on the import pool.
+     *
+     * @param executor    import pool
+     * @param inFlight    permits limiting the chunks waiting or running
+     * @param chunk       rows to process
+     * @param defaultHash shared hash of the default password
+     * @param hashes      counter of hashes computed
+     * @return future completed with the chunk's outcomes in roster order
+     * @throws InterruptedException if interrupted while waiting for a permit
+     */
+    private CompletableFuture<List<Row>> submit(ExecutorService executor, Semaphore inFlight, List<RawRow> chunk,
+                                                String defaultHash, AtomicInteger hashes) throws InterruptedException {
+        inFlight.acquire();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                List<Row> rows = new ArrayList<>(chunk.size());
+                for (RawRow raw : chunk) {
+                    rows.add(parseRow(raw, defaultHash, hashes));
+                }
+                return rows;
+            } finally {
+                inFlight.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * Validate one roster row and build its student.
+     *
+     * @param raw         row as read
+     * @param defaultHash shared hash of the default password
+     * @param hashes      counter of hashes computed
+     * @return the row's outcome
+     */
+    private Row parseRow(RawRow raw, String defaultHash, AtomicInteger hashes) {
+        int line = raw.line();
+        String[] cols = raw.cols();
+        int columns = cols.length;
+        if (columns != 5 && columns != 6) {
+            return new Row(line, null, "expected 5 or 6 columns but found " + columns);
+        }
+        String id = cols[0];
+        String name = cols[1];
+        String major = cols[2];
+        String email = cols[4];
+        String password = columns == 6 ? cols[5] : "";
+        if (!STUDENT_ID_PATTERN.matcher(id).matches()) {
+            return new Row(line, null, "invalid student ID '" + id + "'");
+        }
+        if (name.isEmpty()) {
+            return new Row(line, null, "missing name");
+        }
+        if (major.isEmpty()) {
+            return new Row(line, null, "missing major");
+        }
+        int year;
+        try {
+            year = Integer.parseInt(cols[3]);
+        } catch (NumberFormatException e) {
+            return new Row(line, null, "invalid year '" + cols[3] + "'");
+        }
+        if (year < 1 || year > MAX_YEAR) {
+            return new Row(line, null, "year must be between 1 and " + MAX_YEAR);
+        }
+        if (!AuthenticationController.Email_PATTERN.matcher(email).matches()) {
+            return new Row(line, null, "invalid email '" + email + "'");
+        }
+
+        String hash;
+        if (password.isEmpty() || password.equals(DEFAULT_PASSWORD)) {
+            hash = defaultHash;
+        } else {
+            hash = auth.hashPassword(password);
+            hashes.incrementAndGet();
+        }
+        return new Row(line, new Student(id, name, hash, email, year, major), null);
+    }
+}
@@ -0,0 +1,1165 @@
+package control;
+
+import entity.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * CSV persistence of the tables: loading them (with journals, parallel parsing and binary
+ * snapshots as configured) and writing changes back (full rewrites, write-behind or journal records).
+ * <p>
+ * The {@link DataStore} uses it to load the tables and persist its expiry sweeps, the role
+ * controllers reach it through {@link BaseController}, and the other writers (password rehashing,
+ * roster import) call it directly.
+ * </p>
+ */
+final class TablePersistence {
+    /**
+     * Whether mutations are appended to per-table change journals instead of rewriting the whole CSV.
+     * Enabled by starting the JVM with {@code -Dipms.journal=true}.
+     */
+    static final boolean JOURNAL_MODE = Boolean.getBoolean("ipms.journal");
+
+    /**
+     * Number of journal records after which a table's journal is compacted back into its CSV snapshot.
+     */
+    private static final int JOURNAL_COMPACTION_THRESHOLD = 500;
+
+    /**
+     * Whether large internship/application tables are memory-mapped and parsed in parallel chunks.
+     * Enabled by starting the JVM with {@code -Dipms.parallelLoad=true}.
+     */
+    static final boolean PARALLEL_LOAD = Boolean.getBoolean("ipms.parallelLoad");
+
+    /**
+     * Files smaller than this are always read sequentially; splitting them costs more than it saves.
+     */
+    private static final long PARALLEL_LOAD_MIN_BYTES = 1 << 20;
+
+    /**
+     * Whether loaded tables are cached as binary snapshots next to the CSVs and read back from them
+     * while they are up to date. Enabled by starting the JVM with {@code -Dipms.snapshot=true}.
+     */
+    static final boolean SNAPSHOT_MODE = Boolean.getBoolean("ipms.snapshot");
+
+    /**
+     * Whether full CSV rewrites are deferred to a background thread and coalesced per table.
+     * Enabled by starting the JVM with {@code -Dipms.writeBehind=true}; see {@link WriteBehindFlusher}.
+     */
+    static final boolean WRITE_BEHIND = Boolean.getBoolean("ipms.writeBehind");
+
+    /**
+     * Table path -> monitor serializing immediate rewrites of that table.
+     */
+    private static final Map<Path, Object> TABLE_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * Utility class; not instantiable.
+     */
+    private TablePersistence() {
+    }
+
+    /**
+     * Escape and quote a string for safe CSV output.
+     *
+     * @param s original string (may be null)
+     * @return a CSV-safe string (quotes doubled and field quoted when necessary)
+     */
+    static String escapeCSV(String s) {
+        if (s == null) s = "";
+        String out = s.replace("\"", "\"\"");
+        if (out.contains(",") || out.contains("\"") || out.contains("\n") || out.contains("\r")) {
+            out = "\"" + out + "\"";
+        }
+        return out;
+    }
+
+    /**
+     * Read the data rows of a CSV table and apply any pending journal records on top of them.
+     * <p>
+     * The file is tokenized in a single pass by {@link CsvReader}, so quoted fields may contain
+     * commas and line breaks. The header record is skipped and rows without the expected number of
+     * columns are ignored. When the table has a journal, rows are matched by their leading key columns: a PUT record
+     * replaces (or appends) the row with the same key and a DEL record removes it. A table that fails its
+     * checksum is read from its previous generation instead (see {@link AtomicCsvFile#resolveForRead}).
+     * </p>
+     *
+     * @param csvPath    path to the CSV snapshot
+     * @param columns    number of columns in a valid row
+     * @param keyColumns number of leading columns that identify a row
+     * @return unquoted rows in file order
+     * @throws IOException if the snapshot or its journal cannot be read
+     */
+    static List<String[]> readRows(Path csvPath, int columns, int keyColumns) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CsvReader reader = CsvReader.open(AtomicCsvFile.resolveForRead(csvPath))) {
+            reader.readRecord(); // Skip header
+            String[] cols;
+            while ((cols = reader.readRecord()) != null) {
+                if (cols.length == columns) {
+                    rows.add(cols);
+                }
+            }
+        }
+
+        return applyJournal(csvPath, rows, columns, keyColumns);
+    }
+
+    /**
+     * Read a CSV table as chunks of rows so that each chunk can be turned into objects independently.
+     * <p>
+     * In parallel load mode, files of at least 1 MB are memory-mapped and tokenized in chunks on the
+     * fork-join pool (see {@link MappedCsvLoader}); otherwise the whole table is returned as one chunk
+     * read by {@link #readRows}. Chunks are in file order. If the table has a journal, the chunks are
+     * flattened so the journal can be replayed and the result is returned as a single chunk.
+     * </p>
+     *
+     * @param csvPath    path to the CSV snapshot
+     * @param columns    number of columns in a valid row
+     * @param keyColumns number of leading columns that identify a row
+     * @return unquoted rows grouped in chunks, in file order
+     * @throws IOException if the snapshot or its journal cannot be read
+     */
+    static List<List<String[]>> readRowChunks(Path csvPath, int columns, int keyColumns) throws IOException {
+        if (!PARALLEL_LOAD || Files.size(csvPath) < PARALLEL_LOAD_MIN_BYTES || Files.size(csvPath) > Integer.MAX_VALUE) {
+            return List.of(readRows(csvPath, columns, keyColumns));
+        }
+
+        int chunkCount = Runtime.getRuntime().availableProcessors() * 4;
+        List<List<String[]>> chunks = MappedCsvLoader.readChunks(AtomicCsvFile.resolveForRead(csvPath), columns, chunkCount);
+
+        if (ChangeJournal.forTable(csvPath).size() == 0) {
+            return chunks;
+        }
+        List<String[]> rows = new ArrayList<>();
+        chunks.forEach(rows::addAll);
+        return List.of(applyJournal(csvPath, rows, columns, keyColumns));
+    }
+
+    /**
+     * Apply a table's pending journal records on top of rows read from its CSV snapshot.
+     *
+     * @param csvPath    path to the CSV snapshot
+     * @param rows       snapshot rows in file order
+     * @param columns    number of columns in a valid row
+     * @param keyColumns number of leading columns that identify a row
+     * @return rows after replay (the input list itself when there is no journal)
+     * @throws IOException if the journal cannot be read
+     */
+    private static List<String[]> applyJournal(Path csvPath, List<String[]> rows, int columns, int keyColumns) throws IOException {
+        List<String[]> records = ChangeJournal.forTable(csvPath).readRecords();
+        if (records.isEmpty()) {
+            return rows;
+        }
+
+        // Replay the journal by key, keeping the snapshot's row order
+        Map<String, String[]> rowsByKey = new LinkedHashMap<>();
+        for (String[] row : rows) {
+            rowsByKey.put(rowKey(row, keyColumns), row);
+        }
+        for (String[] record : records) {
+            String[] fields = Arrays.copyOfRange(record, 1, record.length);
+            if (ChangeJournal.PUT.equals(record[0]) && fields.length == columns) {
+                rowsByKey.put(rowKey(fields, keyColumns), fields);
+            } else if (ChangeJournal.DEL.equals(record[0]) && fields.length == keyColumns) {
+                rowsByKey.remove(rowKey(fields, keyColumns));
+            }
+        }
+        return new ArrayList<>(rowsByKey.values());
+    }
+
+    /**
+     * Build the lookup key of a row from its leading key columns.
+     *
+     * @param row        unquoted row fields
+     * @param keyColumns number of leading columns forming the key
+     * @return key string
+     */
+    private static String rowKey(String[] row, int keyColumns) {
+        return String.join("\u0001", Arrays.copyOf(row, keyColumns));
+    }
+
+    // Methods to read in CSV files
+    /**
+     * Load students from the given CSV path into a map keyed by student id.
+     *
+     * @param csvPath path to the student CSV file
+     * @return map of student id -> Student or null on read error
+     */
+    static Map<String, Student> loadStudents(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Student CSV not found: " + csvPath);
+            return null;
+        }
+
+        Map<String, Student> students = new HashMap<>();
+
+        List<Student> snapshot = readSnapshot(csvPath, BinarySnapshot.STUDENTS);
+        if (snapshot != null) {
+            snapshot.forEach(student -> students.put(student.getUserID(), student));
+            return students;
+        }
+
+        try {
+            for (String[] cols : readRows(csvPath, 6, 1)) {
+                String id = cols[0];
+                String name = cols[1];
+                String major = cols[2];
+                int year = Integer.parseInt(cols[3]);
+                String email = cols[4];
+                String pw = cols[5];
+                pw = pw.isEmpty() ? "password" : pw;
+
+                Student student = new Student(id, name, pw, email, year, major);
+                students.put(id, student);
+            }
+
+            writeSnapshot(csvPath, BinarySnapshot.STUDENTS, students.values());
+            return students;
+        } catch (IOException e) {
+            System.err.println("Failed to read student CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Load career centre staff entries from CSV into a map keyed by staff id.
+     *
+     * @param csvPath path to the staff CSV file
+     * @return map of staff id -> CareerCenterStaff or null on error
+     */
+    static Map<String, CareerCenterStaff> loadStaffs(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Staff CSV not found: " + csvPath);
+            return null;
+        }
+
+        Map<String, CareerCenterStaff> staffs = new HashMap<>();
+
+        List<CareerCenterStaff> snapshot = readSnapshot(csvPath, BinarySnapshot.STAFFS);
+        if (snapshot != null) {
+            snapshot.forEach(staff -> staffs.put(staff.getUserID(), staff));
+            return staffs;
+        }
+
+        try {
+            for (String[] cols : readRows(csvPath, 6, 1)) {
+                String id = cols[0];
+                String name = cols[1];
+                String role = cols[2];
+                String department = cols[3];
+                String email = cols[4];
+                String pw = cols[5];
+                pw = pw.isEmpty() ? "password" : pw;
+
+                CareerCenterStaff staff = new CareerCenterStaff(id, name, pw, email, department, role);
+                staffs.put(id, staff);
+            }
+
+            writeSnapshot(csvPath, BinarySnapshot.STAFFS, staffs.values());
+            return staffs;
+        } catch (IOException e) {
+            System.err.println("Failed to read staff CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Load company representatives from CSV into a map keyed by representative id/email.
+     *
+     * @param csvPath path to the company representative CSV file
+     * @return map of companyRep id/email -> CompanyRepresentative or null on error
+     */
+    static Map<String, CompanyRepresentative> loadCompanyReps(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Company representative CSV not found: " + csvPath);
+            return null;
+        }
+
+        Map<String, CompanyRepresentative> companyReps = new HashMap<>();
+
+        List<CompanyRepresentative> snapshot = readSnapshot(csvPath, BinarySnapshot.COMPANY_REPS);
+        if (snapshot != null) {
+            snapshot.forEach(companyRep -> companyReps.put(companyRep.getUserID(), companyRep));
+            return companyReps;
+        }
+
+        try {
+            for (String[] cols : readRows(csvPath, 8, 1)) {
+                String id = cols[0];
+                String name = cols[1];
+                String companyName = cols[2];
+                String department = cols[3];
+                String position = cols[4];
+                String email = cols[5];
+                String status = cols[6];
+                String pw = cols[7];
+                pw = pw.isEmpty() ? "password" : pw;
+
+                CompanyRepresentative companyRep = new CompanyRepresentative(id, name, pw, email, companyName, department, position, status);
+                companyReps.put(id, companyRep);
+            }
+
+            writeSnapshot(csvPath, BinarySnapshot.COMPANY_REPS, companyReps.values());
+            return companyReps;
+        } catch (IOException e) {
+            System.err.println("Failed to read company representative CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Load internships from CSV into a map keyed by UUID string.
+     *
+     * @param csvPath path to the internship CSV
+     * @return map of uuid -> Internship or null on error
+     */
+    static Map<String, Internship> loadInternships(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Internship CSV not found: " + csvPath);
+            return null;
+        }
+
+        List<Internship> snapshot = readSnapshot(csvPath, BinarySnapshot.INTERNSHIPS);
+        if (snapshot != null) {
+            Map<String, Internship> internships = new HashMap<>();
+            snapshot.forEach(internship -> internships.put(internship.getUUID().toString(), internship));
+            return internships;
+        }
+
+        try {
+            // Chunks are converted independently (in parallel for large files) and merged in file order
+            List<Map<String, Internship>> parts = readRowChunks(csvPath, 12, 1).parallelStream()
+                    .map(TablePersistence::toInternships)
+                    .collect(Collectors.toList());
+
+            Map<String, Internship> internships = new HashMap<>();
+            parts.forEach(internships::putAll);
+
+            writeSnapshot(csvPath, BinarySnapshot.INTERNSHIPS, internships.values());
+            return internships;
+        } catch (IOException e) {
+            System.err.println("Failed to read internship CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Convert internship rows into a map keyed by UUID string.
+     *
+     * @param rows unquoted internship rows
+     * @return map of uuid -> Internship
+     */
+    private static Map<String, Internship> toInternships(List<String[]> rows) {
+        Map<String, Internship> internships = new HashMap<>();
+        for (String[] cols : rows) {
+            String id = cols[0];
+            String title = cols[1];
+            String description = cols[2];
+            String level = cols[3];
+            String preferredMajor = cols[4];
+            LocalDate openingDate = LocalDate.parse(cols[5]); // Assumes valid format
+            LocalDate closingDate = LocalDate.parse(cols[6]); // Assumes valid format
+            String status = cols[7];
+            String companyName = cols[8];
+            String representatives = cols[9];
+            int numberOfSlots = Integer.parseInt(cols[10]);
+            boolean visibility = Boolean.parseBoolean(cols[11]);
+
+            Internship internship = new Internship(UUID.fromString(id), title, description, level, preferredMajor, openingDate, closingDate, status, companyName, representatives, numberOfSlots, visibility);
+            internships.put(id, internship);
+        }
+        return internships;
+    }
+
+    /**
+     * Load applications grouped by internship UUID into a map.
+     *
+     * @param csvPath path to the application CSV
+     * @return map of internship UUID -> list of Application objects or null on error
+     */
+    static Map<String, List<Application>> loadApplications(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Application CSV not found: " + csvPath);
+            return null;
+        }
+
+        List<Application> snapshot = readSnapshot(csvPath, BinarySnapshot.APPLICATIONS);
+        if (snapshot != null) {
+            return groupByInternship(snapshot, Application::getUUID, Application::getUserId);
+        }
+
+        try {
+            // Rows are keyed by internship UUID + student id. Chunks are grouped independently
+            // (in parallel for large files) and merged in file order.
+            List<Map<String, List<Application>>> parts = readRowChunks(csvPath, 8, 2).parallelStream()
+                    .map(TablePersistence::toApplications)
+                    .collect(Collectors.toList());
+
+            Map<String, List<Application>> merged = new HashMap<>();
+            for (Map<String, List<Application>> part : parts) {
+                part.forEach((internshipId, list) ->
+                        merged.computeIfAbsent(internshipId, k -> new ArrayList<>()).addAll(list));
+            }
+            Map<String, List<Application>> applications = new HashMap<>();
+            merged.forEach((internshipId, list) ->
+                    applications.put(internshipId, new ApplicantList<>(Application::getUserId, list)));
+
+            writeSnapshot(csvPath, BinarySnapshot.APPLICATIONS, flatten(applications));
+            return applications;
+        } catch (IOException e) {
+            System.err.println("Failed to read application CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Convert application rows into lists grouped by internship UUID.
+     *
+     * @param rows unquoted application rows
+     * @return map of internship UUID -> list of Application objects
+     */
+    private static Map<String, List<Application>> toApplications(List<String[]> rows) {
+        Map<String, List<Application>> applications = new HashMap<>();
+        for (String[] cols : rows) {
+            // This is the Internship's UUID, used as the key for the map
+            String internshipId = cols[0];
+            UUID appUuid = UUID.fromString(internshipId);
+
+            String userId = cols[1];
+            String name = cols[2];
+            String email = cols[3];
+            String major = cols[4];
+            int year = Integer.parseInt(cols[5]);
+            String submittedDate = cols[6];
+            String status = cols[7];
+
+            Application application = new Application(appUuid, status, submittedDate, userId, name, email, major, year);
+
+            // Add it to the map, grouped by its Internship ID
+            applications.putIfAbsent(internshipId, new ArrayList<>());
+            applications.get(internshipId).add(application);
+        }
+        return applications;
+    }
+
+    /**
+     * Load withdrawal requests grouped by internship UUID into a map.
+     *
+     * @param csvPath path to the withdrawal CSV
+     * @return map of internship UUID -> list of Withdrawal objects or null on error
+     */
+    static Map<String, List<Withdrawal>> loadWithdrawals(Path csvPath) {
+        if (!Files.exists(csvPath)) {
+            System.err.println("Withdrawal CSV not found: " + csvPath);
+            return null;
+        }
+
+        List<Withdrawal> snapshot = readSnapshot(csvPath, BinarySnapshot.WITHDRAWALS);
+        if (snapshot != null) {
+            return groupByInternship(snapshot, Withdrawal::getUUID, Withdrawal::getUserId);
+        }
+
+        Map<String, List<Withdrawal>> grouped = new HashMap<>();
+
+        try {
+            // Rows are keyed by internship UUID + student id
+            for (String[] cols : readRows(csvPath, 8, 2)) {
+                // This is the Internship's UUID
+                String internshipId = cols[0];
+                UUID withUuid = UUID.fromString(internshipId);
+
+                String userId = cols[1];
+                String name = cols[2];
+                String email = cols[3];
+                String major = cols[4];
+                int year = Integer.parseInt(cols[5]);
+                String submittedDate = cols[6];
+                String status = cols[7];
+
+                Withdrawal withdrawal = new Withdrawal(withUuid, status, submittedDate, userId, name, email, major, year);
+
+                // Add it to the map, grouped by its Internship ID
+                grouped.computeIfAbsent(internshipId, k -> new ArrayList<>()).add(withdrawal);
+            }
+
+            // Build each internship's list once rather than copying it on every add
+            Map<String, List<Withdrawal>> withdrawals = new HashMap<>();
+            grouped.forEach((internshipId, list) ->
+                    withdrawals.put(internshipId, new ApplicantList<>(Withdrawal::getUserId, list)));
+
+            writeSnapshot(csvPath, BinarySnapshot.WITHDRAWALS, flatten(withdrawals));
+            return withdrawals;
+        } catch (IOException e) {
+            System.err.println("Failed to read withdrawal CSV: " + e.getMessage());
+            return null;
+        }
+    }
+
+
+    /**
+     * Read a table from its binary snapshot when snapshot mode is on and the snapshot is up to date.
+     *
+     * @param csvPath path of the CSV table
+     * @param codec   snapshot codec of the table
+     * @param <T>     row type
+     * @return snapshot rows, or null when the CSV must be parsed instead
+     */
+    private static <T> List<T> readSnapshot(Path csvPath, BinarySnapshot.Codec<T> codec) {
+        if (!SNAPSHOT_MODE) {
+            return null;
+        }
+        try {
+            return BinarySnapshot.readIfFresh(csvPath, codec);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot for " + csvPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Store a freshly loaded table as a binary snapshot (snapshot mode only).
+     * <p>
+     * Failures are reported but do not affect loading; the CSV remains authoritative.
+     * </p>
+     *
+     * @param csvPath path of the CSV table
+     * @param codec   snapshot codec of the table
+     * @param rows    loaded rows
+     * @param <T>     row type
+     */
+    private static <T> void writeSnapshot(Path csvPath, BinarySnapshot.Codec<T> codec, Collection<T> rows) {
+        if (!SNAPSHOT_MODE) {
+            return;
+        }
+        try {
+            BinarySnapshot.write(csvPath, codec, rows);
+        } catch (IOException e) {
+            System.err.println("Failed to write snapshot for " + csvPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Group records by the internship UUID they belong to, keeping their order.
+     *
+     * @param records      records in file order
+     * @param internshipId function returning a record's internship UUID
+     * @param studentId    function returning a record's student id (for {@link ApplicantList} lookups)
+     * @param <T>          record type
+     * @return map of internship UUID string -> records
+     */
+    private static <T> Map<String, List<T>> groupByInternship(List<T> records, Function<T, UUID> internshipId,
+                                                              Function<T, String> studentId) {
+        Map<UUID, List<T>> byUuid = new LinkedHashMap<>();
+        for (T record : records) {
+            byUuid.computeIfAbsent(internshipId.apply(record), k -> new ArrayList<>()).add(record);
+        }
+        // Format each UUID once rather than once per record, and build each list once
+        Map<String, List<T>> grouped = new HashMap<>();
+        byUuid.forEach((uuid, list) -> grouped.put(uuid.toString(), new ApplicantList<>(studentId, list)));
+        return grouped;
+    }
+
+    /**
+     * Flatten records grouped by internship into a single list.
+     *
+     * @param grouped map of internship UUID -> records
+     * @param <T>     record type
+     * @return all records
+     */
+    private static <T> List<T> flatten(Map<String, List<T>> grouped) {
+        List<T> all = new ArrayList<>();
+        grouped.values().forEach(all::addAll);
+        return all;
+    }
+
+    // Methods to write to CSV files
+    /**
+     * Persist the provided students map to the CSV file.
+     *
+     * @param csvPath path to write
+     * @param students map of student id -> Student
+     * @return true when write succeeds, false on error
+     */
+    static boolean rewriteStudentCSV(Path csvPath, Map<String, Student> students) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("StudentID,Name,Major,Year,Email,Password");
+
+        // Add data lines from in-memory list
+        for (Student student : students.values()) {
+            lines.add(studentRow(student));
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite student CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persist staff entries to CSV.
+     *
+     * @param csvPath path to write
+     * @param staffs map of staff id -> CareerCenterStaff
+     * @return true when write succeeds
+     */
+    static boolean rewriteStaffCSV(Path csvPath, Map<String, CareerCenterStaff> staffs) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("StaffID,Name,Role,Department,Email,Password");
+
+        // Add data lines from in-memory list
+        for (CareerCenterStaff staff : staffs.values()) {
+            lines.add(staffRow(staff));
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite staff CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persist company representatives to CSV.
+     *
+     * @param csvPath path to write
+     * @param companyReps map of id -> CompanyRepresentative
+     * @return true on success
+     */
+    static boolean rewriteCompanyRepCSV(Path csvPath, Map<String, CompanyRepresentative> companyReps) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("CompanyRepID,Name,CompanyName,Department,Position,Email,Status,Password");
+
+        // Add data lines from in-memory list
+        for (CompanyRepresentative companyRep : companyReps.values()) {
+            lines.add(companyRepRow(companyRep));
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite company representative CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persist internships map to CSV.
+     *
+     * @param csvPath path to write
+     * @param internships map of uuid -> Internship
+     * @return true on success
+     */
+    static boolean rewriteInternshipCSV(Path csvPath, Map<String, Internship> internships) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("UUID,Title,Description,Level,PreferredMajor,OpeningDate,ClosingDate,Status,CompanyName,Representatives,NumberOfSlots,Visibility");
+
+        // Add data lines from in-memory map
+        for (Internship internship : internships.values()) {
+            lines.add(internshipRow(internship));
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite internship CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persist application lists grouped by internship to CSV.
+     *
+     * @param csvPath path to write
+     * @param applications map of internship uuid -> list of Application
+     * @return true on success
+     */
+    static boolean rewriteApplicationCSV(Path csvPath, Map<String, List<Application>> applications) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("UUID,UserId,Name,Email,Major,Year,SubmittedDate,Status");
+
+        // Add data lines from in-memory map
+        for (Map.Entry<String, List<Application>> entry : applications.entrySet()) {
+            for (Application application : entry.getValue()) {
+                lines.add(applicationRow(application));
+            }
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite application CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Persist withdrawal lists grouped by internship to CSV.
+     *
+     * @param csvPath path to write
+     * @param withdrawals map of internship uuid -> list of Withdrawal
+     * @return true on success
+     */
+    static boolean rewriteWithdrawalCSV(Path csvPath, Map<String, List<Withdrawal>> withdrawals) {
+        List<String> lines = new ArrayList<>();
+        // Add header
+        lines.add("UUID,UserId,Name,Email,Major,Year,SubmittedDate,Status");
+
+        // Add data lines from in-memory map
+        for (Map.Entry<String, List<Withdrawal>> entry : withdrawals.entrySet()) {
+            for (Withdrawal withdrawal : entry.getValue()) {
+                lines.add(withdrawalRow(withdrawal));
+            }
+        }
+
+        // Atomically replace the file (see AtomicCsvFile)
+        try {
+            AtomicCsvFile.write(csvPath, lines);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to rewrite withdrawal CSV: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Methods to persist individual changes
+    /**
+     * Persist a changed student record.
+     * <p>
+     * In journal mode only the changed row is appended to the table's journal; otherwise the
+     * whole CSV is rewritten, immediately or (in write-behind mode) by the next background flush.
+     * </p>
+     *
+     * @param csvPath  path of the student CSV
+     * @param students map of student id -> Student (used for full rewrites and compaction)
+     * @param changed  the student that was added or modified
+     * @return true on success
+     */
+    static boolean saveStudent(Path csvPath, Map<String, Student> students, Student changed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteStudentCSV(csvPath, students));
+        }
+        return appendToJournal(csvPath, List.of(putRecord(studentRow(changed))),
+                () -> rewriteStudentCSV(csvPath, students));
+    }
+
+    /**
+     * Persist several changed students at once: one journal append or one full rewrite for the whole batch.
+     *
+     * @param csvPath path of the CSV
+     * @param students  map of id -> Student
+     * @param changed the students that were added or modified
+     * @return true on success
+     */
+    static boolean saveStudents(Path csvPath, Map<String, Student> students, Collection<? extends Student> changed) {
+        if (changed.isEmpty()) {
+            return true;
+        }
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteStudentCSV(csvPath, students));
+        }
+        List<String> records = new ArrayList<>(changed.size());
+        for (Student record : changed) {
+            records.add(putRecord(studentRow(record)));
+        }
+        return appendToJournal(csvPath, records, () -> rewriteStudentCSV(csvPath, students));
+    }
+
+    /**
+     * Persist a changed staff record (journaled or full rewrite, see {@link #saveStudent}).
+     *
+     * @param csvPath path of the staff CSV
+     * @param staffs  map of staff id -> CareerCenterStaff
+     * @param changed the staff member that was added or modified
+     * @return true on success
+     */
+    static boolean saveStaff(Path csvPath, Map<String, CareerCenterStaff> staffs, CareerCenterStaff changed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteStaffCSV(csvPath, staffs));
+        }
+        return appendToJournal(csvPath, List.of(putRecord(staffRow(changed))),
+                () -> rewriteStaffCSV(csvPath, staffs));
+    }
+
+    /**
+     * Persist several changed staff members at once: one journal append or one full rewrite for the whole batch.
+     *
+     * @param csvPath path of the CSV
+     * @param staffs  map of id -> CareerCenterStaff
+     * @param changed the staff members that were added or modified
+     * @return true on success
+     */
+    static boolean saveStaffs(Path csvPath, Map<String, CareerCenterStaff> staffs, Collection<? extends CareerCenterStaff> changed) {
+        if (changed.isEmpty()) {
+            return true;
+        }
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteStaffCSV(csvPath, staffs));
+        }
+        List<String> records = new ArrayList<>(changed.size());
+        for (CareerCenterStaff record : changed) {
+            records.add(putRecord(staffRow(record)));
+        }
+        return appendToJournal(csvPath, records, () -> rewriteStaffCSV(csvPath, staffs));
+    }
+
+    /**
+     * Persist a changed company representative record (journaled or full rewrite, see {@link #saveStudent}).
+     *
+     * @param csvPath     path of the company representative CSV
+     * @param companyReps map of id -> CompanyRepresentative
+     * @param changed     the representative that was added or modified
+     * @return true on success
+     */
+    static boolean saveCompanyRep(Path csvPath, Map<String, CompanyRepresentative> companyReps, CompanyRepresentative changed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteCompanyRepCSV(csvPath, companyReps));
+        }
+        return appendToJournal(csvPath, List.of(putRecord(companyRepRow(changed))),
+                () -> rewriteCompanyRepCSV(csvPath, companyReps));
+    }
+
+    /**
+     * Persist several changed representatives at once: one journal append or one full rewrite for the whole batch.
+     *
+     * @param csvPath path of the CSV
+     * @param companyReps  map of id -> CompanyRepresentative
+     * @param changed the representatives that were added or modified
+     * @return true on success
+     */
+    static boolean saveCompanyReps(Path csvPath, Map<String, CompanyRepresentative> companyReps, Collection<? extends CompanyRepresentative> changed) {
+        if (changed.isEmpty()) {
+            return true;
+        }
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteCompanyRepCSV(csvPath, companyReps));
+        }
+        List<String> records = new ArrayList<>(changed.size());
+        for (CompanyRepresentative record : changed) {
+            records.add(putRecord(companyRepRow(record)));
+        }
+        return appendToJournal(csvPath, records, () -> rewriteCompanyRepCSV(csvPath, companyReps));
+    }
+
+    /**
+     * Persist added/modified and removed internships (journaled or full rewrite, see {@link #saveStudent}).
+     *
+     * @param csvPath     path of the internship CSV
+     * @param internships map of uuid -> Internship
+     * @param changed     internships that were added or modified
+     * @param removed     internships that were removed from the map
+     * @return true on success
+     */
+    static boolean saveInternshipChanges(Path csvPath, Map<String, Internship> internships,
+                                         Collection<Internship> changed, Collection<Internship> removed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteInternshipCSV(csvPath, internships));
+        }
+        // Rows are formatted under the journal lock: slot counts change without the internship lock,
+        // so a record appended later must never carry an older count
+        return appendToJournal(csvPath, () -> {
+            List<String> records = new ArrayList<>();
+            for (Internship internship : changed) {
+                records.add(putRecord(internshipRow(internship)));
+            }
+            for (Internship internship : removed) {
+                records.add(deleteRecord(internship.getUUID().toString()));
+            }
+            return records;
+        }, () -> rewriteInternshipCSV(csvPath, internships));
+    }
+
+    /**
+     * Persist added/modified and removed applications (journaled or full rewrite, see {@link #saveStudent}).
+     *
+     * @param csvPath      path of the application CSV
+     * @param applications map of internship uuid -> list of Application
+     * @param changed      applications that were added or modified
+     * @param removed      applications that were removed from their lists
+     * @return true on success
+     */
+    static boolean saveApplicationChanges(Path csvPath, Map<String, List<Application>> applications,
+                                          Collection<Application> changed, Collection<Application> removed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteApplicationCSV(csvPath, applications));
+        }
+        List<String> records = new ArrayList<>();
+        for (Application application : changed) {
+            records.add(putRecord(applicationRow(application)));
+        }
+        for (Application application : removed) {
+            records.add(deleteRecord(application.getUUID().toString(), application.getUserId()));
+        }
+        return appendToJournal(csvPath, records, () -> rewriteApplicationCSV(csvPath, applications));
+    }
+
+    /**
+     * Persist added/modified and removed withdrawal requests (journaled or full rewrite, see {@link #saveStudent}).
+     *
+     * @param csvPath     path of the withdrawal CSV
+     * @param withdrawals map of internship uuid -> list of Withdrawal
+     * @param changed     withdrawals that were added or modified
+     * @param removed     withdrawals that were removed from their lists
+     * @return true on success
+     */
+    static boolean saveWithdrawalChanges(Path csvPath, Map<String, List<Withdrawal>> withdrawals,
+                                         Collection<Withdrawal> changed, Collection<Withdrawal> removed) {
+        if (!JOURNAL_MODE) {
+            return persistTable(csvPath, () -> rewriteWithdrawalCSV(csvPath, withdrawals));
+        }
+        List<String> records = new ArrayList<>();
+        for (Withdrawal withdrawal : changed) {
+            records.add(putRecord(withdrawalRow(withdrawal)));
+        }
+        for (Withdrawal withdrawal : removed) {
+            records.add(deleteRecord(withdrawal.getUUID().toString(), withdrawal.getUserId()));
+        }
+        return appendToJournal(csvPath, records, () -> rewriteWithdrawalCSV(csvPath, withdrawals));
+    }
+
+    /**
+     * Rewrite a whole table now, or mark it dirty for the background flusher in write-behind mode.
+     * Immediate rewrites of one table are serialized, so concurrent writers never interleave on its file.
+     *
+     * @param csvPath path of the CSV
+     * @param rewrite full rewrite of the table from the in-memory map
+     * @return true when the table was written or queued
+     */
+    private static boolean persistTable(Path csvPath, BooleanSupplier rewrite) {
+        if (!WRITE_BEHIND) {
+            synchronized (tableLock(csvPath)) {
+                return rewrite.getAsBoolean();
+            }
+        }
+        WriteBehindFlusher.getInstance().markDirty(csvPath, rewrite);
+        return true;
+    }
+
+    /**
+     * Append records to a table's journal and compact it into the CSV once it grows past the threshold.
+     *
+     * @param csvPath    path of the CSV snapshot
+     * @param records    journal records to append
+     * @param compaction full rewrite of the snapshot from the in-memory map
+     * @return true when the records were appended (and compaction, if triggered, succeeded)
+     */
+    private static boolean appendToJournal(Path csvPath, List<String> records, BooleanSupplier compaction) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        return appendToJournal(csvPath, () -> records, compaction);
+    }
+
+    /**
+     * Append records formatted while holding the table's journal lock, so appends of one record are in
+     * the order its state was read.
+     *
+     * @param csvPath    path of the CSV snapshot
+     * @param records    formats the journal records to append
+     * @param compaction full rewrite of the snapshot from the in-memory map
+     * @return true when the records were appended (and compaction, if triggered, succeeded)
+     */
+    private static boolean appendToJournal(Path csvPath, Supplier<List<String>> records, BooleanSupplier compaction) {
+        ChangeJournal journal = ChangeJournal.forTable(csvPath);
+        // Held across compaction so no record is appended between the rewrite and the clear
+        synchronized (journal) {
+            List<String> formatted = records.get();
+            if (formatted.isEmpty()) {
+                return true;
+            }
+            try {
+                journal.append(formatted);
+                if (journal.size() < JOURNAL_COMPACTION_THRESHOLD) {
+                    return true;
+                }
+                // The snapshot now contains every journaled change, so the journal can be dropped
+                if (!compaction.getAsBoolean()) {
+                    return false;
+                }
+                journal.clear();
+                return true;
+            } catch (IOException e) {
+                System.err.println("Failed to write journal for " + csvPath + ": " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Get the monitor serializing immediate rewrites of a table.
+     *
+     * @param csvPath path of the CSV
+     * @return lock object shared by every controller writing that table
+     */
+    private static Object tableLock(Path csvPath) {
+        return TABLE_LOCKS.computeIfAbsent(csvPath.toAbsolutePath().normalize(), path -> new Object());
+    }
+
+    /**
+     * Build a PUT journal record for a full CSV row.
+     *
+     * @param row CSV row as produced by the *Row helpers
+     * @return journal record
+     */
+    private static String putRecord(String row) {
+        return ChangeJournal.PUT + "," + row;
+    }
+
+    /**
+     * Build a DEL journal record from the key columns of a removed row.
+     *
+     * @param keys key column values
+     * @return journal record
+     */
+    private static String deleteRecord(String... keys) {
+        StringBuilder sb = new StringBuilder(ChangeJournal.DEL);
+        for (String key : keys) {
+            sb.append(',').append(escapeCSV(key));
+        }
+        return sb.toString();
+    }
+
+    // CSV row serialisation
+    /**
+     * Format a student as a CSV row (StudentID,Name,Major,Year,Email,Password).
+     *
+     * @param student student to format
+     * @return CSV row
+     */
+    private static String studentRow(Student student) {
+        return String.join(",",
+                escapeCSV(student.getUserID()),
+                escapeCSV(student.getName()),
+                escapeCSV(student.getMajor()),
+                escapeCSV(String.valueOf(student.getYearOfStudy())), // Convert int year to String
+                escapeCSV(student.getEmail()),
+                escapeCSV(student.getPasswordHash()) // Use the (potentially new) password
+        );
+    }
+
+    /**
+     * Format a staff member as a CSV row (StaffID,Name,Role,Department,Email,Password).
+     *
+     * @param staff staff member to format
+     * @return CSV row
+     */
+    private static String staffRow(CareerCenterStaff staff) {
+        return String.join(",",
+                escapeCSV(staff.getUserID()),
+                escapeCSV(staff.getName()),
+                escapeCSV(staff.getRole()),
+                escapeCSV(staff.getStaffDepartment()),
+                escapeCSV(staff.getEmail()),
+                escapeCSV(staff.getPasswordHash()) // Use the (potentially new) password
+        );
+    }
+
+    /**
+     * Format a company representative as a CSV row
+     * (CompanyRepID,Name,CompanyName,Department,Position,Email,Status,Password).
+     *
+     * @param companyRep representative to format
+     * @return CSV row
+     */
+    private static String companyRepRow(CompanyRepresentative companyRep) {
+        return String.join(",",
+                escapeCSV(companyRep.getUserID()),
+                escapeCSV(companyRep.getName()),
+                escapeCSV(companyRep.getCompanyName()),
+                escapeCSV(companyRep.getDepartment()),
+                escapeCSV(companyRep.getPosition()),
+                escapeCSV(companyRep.getEmail()),
+                escapeCSV(companyRep.getStatus()),
+                escapeCSV(companyRep.getPasswordHash())
+        );
+    }
+
+    /**
+     * Format an internship as a CSV row (see the internship CSV header for column order).
+     *
+     * @param internship internship to format
+     * @return CSV row
+     */
+    private static String internshipRow(Internship internship) {
+        return String.join(",",
+                escapeCSV(internship.getUUID().toString()),
+                escapeCSV(internship.getTitle()),
+                escapeCSV(internship.getDescription()),
+                escapeCSV(internship.getLevel()),
+                escapeCSV(internship.getPreferredMajor()),
+                escapeCSV(internship.getOpeningDate().toString()),
+                escapeCSV(internship.getClosingDate().toString()),
+                escapeCSV(internship.getStatus()),
+                escapeCSV(internship.getCompanyName()),
+                escapeCSV(internship.getRepresentatives()),
+                escapeCSV(String.valueOf(internship.getNumberOfSlots())),
+                escapeCSV(String.valueOf(internship.isVisible())) // "true" or "false"
+        );
+    }
+
+    /**
+     * Format an application as a CSV row (UUID,UserId,Name,Email,Major,Year,SubmittedDate,Status).
+     *
+     * @param application application to format
+     * @return CSV row
+     */
+    private static String applicationRow(Application application) {
+        return String.join(",",
+                escapeCSV(application.getUUID().toString()), // 0: UUID (which is the InternshipUUID)
+                escapeCSV(application.getUserId()),          // 1: UserId
+                escapeCSV(application.getName()),            // 2: Name
+                escapeCSV(application.getEmail()),           // 3: Email
+                escapeCSV(application.getMajor()),           // 4: Major
+                escapeCSV(String.valueOf(application.getYear())), // 5: Year
+                escapeCSV(application.getSubmittedDate()),     // 6: SubmittedDate
+                escapeCSV(application.getStatus())             // 7: Status
+        );
+    }
+
+    /**
+     * Format a withdrawal request as a CSV row (UUID,UserId,Name,Email,Major,Year,SubmittedDate,Status).
+     *
+     * @param withdrawal withdrawal to format
+     * @return CSV row
+     */
+    private static String withdrawalRow(Withdrawal withdrawal) {
+        return String.join(",",
+                escapeCSV(withdrawal.getUUID().toString()), // 0: UUID (which is the InternshipUUID)
+                escapeCSV(withdrawal.getUserId()),          // 1: UserId
+                escapeCSV(withdrawal.getName()),            // 2: Name
+                escapeCSV(withdrawal.getEmail()),           // 3: Email
+                escapeCSV(withdrawal.getMajor()),           // 4: Major
+                escapeCSV(String.valueOf(withdrawal.getYear())), // 5: Year
+                escapeCSV(withdrawal.getSubmittedDate()),     // 6: SubmittedDate
+                escapeCSV(withdrawal.getStatus())             // 7: Status
+        );
+    }
+}
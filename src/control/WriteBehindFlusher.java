@@ -0,0 +1,210 @@
+package control;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Background writer that defers and coalesces full table rewrites.
+ * <p>
+ * Saving a table only marks it dirty together with the rewrite that persists it. A daemon thread
+ * flushes all dirty tables every {@code ipms.flushIntervalMs} milliseconds (default 1000), or as
+ * soon as {@code ipms.flushBatchSize} changes (default 50) are pending. However many changes a
+ * table receives between two flushes, it is written once. A rewrite that fails, or that trips over
+ * a concurrent modification of the in-memory map, leaves the table dirty for the next flush.
+ * {@link #flush()} writes everything synchronously and is also run from a shutdown hook.
+ * </p>
+ */
+final class WriteBehindFlusher {
+    /**
+     * Maximum time a change may wait before being written.
+     */
+    private static final long FLUSH_INTERVAL_MS = Math.max(1, Long.getLong("ipms.flushIntervalMs", 1000));
+
+    /**
+     * Number of pending changes that triggers a flush before the interval elapses.
+     */
+    private static final int FLUSH_BATCH_SIZE = Math.max(1, Integer.getInteger("ipms.flushBatchSize", 50));
+
+    /**
+     * The single flusher instance, created on first use.
+     */
+    private static WriteBehindFlusher instance;
+
+    /**
+     * Dirty tables in the order they were first changed, each with the rewrite that persists it.
+     */
+    private final Map<Path, BooleanSupplier> dirtyTables = new LinkedHashMap<>();
+
+    /**
+     * Number of changes made since the dirty tables were last written.
+     */
+    private int pendingChanges;
+
+    /**
+     * Time (System.nanoTime) at which the oldest pending change was made.
+     */
+    private long oldestPendingNanos;
+
+    /**
+     * Whether an early (batch size) flush has already been submitted.
+     */
+    private boolean flushRequested;
+
+    /**
+     * Serializes flushes so the background thread and an explicit flush never write concurrently.
+     */
+    private final Object flushLock = new Object();
+
+    /**
+     * Daemon thread running periodic and early flushes.
+     */
+    private final ScheduledExecutorService executor;
+
+    // Metrics, guarded by this
+    private long flushCount;
+    private long tablesWritten;
+    private long changesWritten;
+    private long failedWrites;
+    private long lastLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalLatencyNanos;
+
+    /**
+     * Get the shared flusher, starting its background thread on the first call.
+     *
+     * @return the process-wide flusher
+     */
+    static synchronized WriteBehindFlusher getInstance() {
+        if (instance == null) {
+            instance = new WriteBehindFlusher();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the periodic flush thread and register the shutdown flush.
+     */
+    private WriteBehindFlusher() {
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ipms-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "ipms-write-behind-shutdown"));
+    }
+
+    /**
+     * Record a change to a table; the table will be rewritten by a later flush.
+     * <p>
+     * A newer rewrite for the same table replaces the queued one, so repeated changes coalesce into
+     * a single write.
+     * </p>
+     *
+     * @param csvPath table that changed
+     * @param rewrite full rewrite of the table from its in-memory map
+     */
+    synchronized void markDirty(Path csvPath, BooleanSupplier rewrite) {
+        if (dirtyTables.isEmpty()) {
+            oldestPendingNanos = System.nanoTime();
+        }
+        dirtyTables.put(csvPath, rewrite);
+        pendingChanges++;
+        if (pendingChanges >= FLUSH_BATCH_SIZE && !flushRequested) {
+            flushRequested = true;
+            try {
+                executor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                flushRequested = false; // Shutting down: the shutdown flush picks the change up
+            }
+        }
+    }
+
+    /**
+     * Write every dirty table now and wait for the writes to finish.
+     *
+     * @return true when all pending changes are on disk
+     */
+    boolean flush() {
+        synchronized (flushLock) {
+            Map<Path, BooleanSupplier> batch;
+            int changes;
+            synchronized (this) {
+                flushRequested = false;
+                if (dirtyTables.isEmpty()) {
+                    return true;
+                }
+                batch = new LinkedHashMap<>(dirtyTables);
+                changes = pendingChanges;
+                dirtyTables.clear();
+                pendingChanges = 0;
+            }
+
+            long start = System.nanoTime();
+            int written = 0;
+            int failed = 0;
+            for (Map.Entry<Path, BooleanSupplier> entry : batch.entrySet()) {
+                boolean success;
+                try {
+                    success = entry.getValue().getAsBoolean();
+                } catch (RuntimeException e) {
+                    // The map was modified while being written; that change has re-marked the table
+                    System.err.println("Deferred write of " + entry.getKey() + " interrupted: " + e);
+                    success = false;
+                }
+                if (success) {
+                    written++;
+                } else {
+                    failed++;
+                    requeue(entry.getKey(), entry.getValue());
+                }
+            }
+            long latency = System.nanoTime() - start;
+
+            synchronized (this) {
+                flushCount++;
+                tablesWritten += written;
+                changesWritten += changes;
+                failedWrites += failed;
+                lastLatencyNanos = latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                totalLatencyNanos += latency;
+            }
+            return failed == 0;
+        }
+    }
+
+    /**
+     * Put a table whose rewrite failed back in the queue unless a newer change already did.
+     *
+     * @param csvPath table to retry
+     * @param rewrite rewrite that failed
+     */
+    private synchronized void requeue(Path csvPath, BooleanSupplier rewrite) {
+        if (dirtyTables.isEmpty()) {
+            oldestPendingNanos = System.nanoTime();
+        }
+        if (dirtyTables.putIfAbsent(csvPath, rewrite) == null) {
+            pendingChanges++;
+        }
+    }
+
+    /**
+     * Take a snapshot of the flush statistics and current backlog.
+     *
+     * @return metrics snapshot
+     */
+    synchronized FlushMetrics getMetrics() {
+        long oldestPendingMillis = dirtyTables.isEmpty()
+                ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestPendingNanos);
+        return new FlushMetrics(flushCount, tablesWritten, changesWritten, failedWrites,
+                lastLatencyNanos, maxLatencyNanos, totalLatencyNanos,
+                dirtyTables.size(), pendingChanges, oldestPendingMillis);
+    }
+}
@@ -2,14 +2,20 @@ package entity;
 
 import java.util.UUID;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents an internship posting created by a company representative.
  * <p>
  * Contains identifying UUID, descriptive fields (title/description/level/preferredMajor),
- * availability dates, status ("Pending", "Approved", "Rejected", "Filled"),
+ * availability dates, status ("Pending", "Approved", "Rejected", "Filled", "Closed"),
  * company and representative info, slot count and visibility flag.
  * </p>
+ * <p>
+ * The slot count is atomic: {@link #reserveSlot()} and {@link #releaseSlot()} take and return a slot
+ * with a compare-and-set, so concurrent acceptances can neither oversubscribe a posting nor lose
+ * a decrement, and exactly one caller observes the count reaching zero (or leaving it).
+ * </p>
  */
 public class Internship {
     /**
@@ -65,7 +71,7 @@ public class Internship {
     /**
      * Number of available slots (max 10).
      */
-    private int numberOfSlots;
+    private final AtomicInteger numberOfSlots;
 
     /**
      * Visibility flag indicating whether the posting is visible to students.
@@ -101,7 +107,7 @@ public class Internship {
         this.status = status;
         this.companyName = companyName;
         this.representatives = representatives;
-        this.numberOfSlots = numberOfSlots;
+        this.numberOfSlots = new AtomicInteger(numberOfSlots);
         this.visibility = visibility;
     }
 
@@ -282,7 +288,7 @@ public class Internship {
      * @return slot count
      */
     public int getNumberOfSlots() {
-        return numberOfSlots;
+        return numberOfSlots.get();
     }
 
     /**
@@ -291,7 +297,34 @@ public class Internship {
      * @param numberOfSlots new slot count
      */
     public void setNumberOfSlots(int numberOfSlots) {
-        this.numberOfSlots = numberOfSlots;
+        this.numberOfSlots.set(numberOfSlots);
+    }
+
+    /**
+     * Take one slot if any is left.
+     *
+     * @return number of slots left after the reservation (0 for the caller that took the last slot),
+     *         or -1 if no slot was available
+     */
+    public int reserveSlot() {
+        while (true) {
+            int slots = numberOfSlots.get();
+            if (slots <= 0) {
+                return -1;
+            }
+            if (numberOfSlots.compareAndSet(slots, slots - 1)) {
+                return slots - 1;
+            }
+        }
+    }
+
+    /**
+     * Return one slot, e.g. after an accepted placement was withdrawn.
+     *
+     * @return number of slots available afterwards (1 for the caller that reopened a full posting)
+     */
+    public int releaseSlot() {
+        return numberOfSlots.incrementAndGet();
     }
 
     /**
@@ -0,0 +1,379 @@
+package control;
+
+import entity.Application;
+import entity.Internship;
+import entity.Student;
+import entity.Withdrawal;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test of applying, accepting offers and withdrawing under contention.
+ * <p>
+ * The project has no test framework, so this is a runnable program. Each round imports a fresh
+ * set of students and creates a few approved internships with fewer slots than students. All
+ * students apply to every internship at once (plus one duplicate attempt each); representatives
+ * then mark the applications "Successful" while the students race to accept an offer, some of
+ * them withdraw, and staff approve the withdrawals, returning their slots. Once the round is quiet
+ * it checks that:
+ * </p>
+ * <ul>
+ *     <li>no internship has more held offers (accepted and not withdrawn) than slots, and held
+ *     offers plus the slots left add up to the slots it was created with;</li>
+ *     <li>each student has at most one accepted offer, in the table and in the per-student index;</li>
+ *     <li>no duplicate application was stored.</li>
+ * </ul>
+ * <p>
+ * It adds students and internships to the tables in {@code data/} of the working directory, so
+ * run it from a scratch copy of that directory and confirm with {@code --scratch}:
+ * </p>
+ * <pre>
+ * javac -d out $(find src -name "*.java")
+ * javac -cp out -d test-out $(find test -name "*.java")
+ * mkdir -p /tmp/ipms-stress &amp;&amp; cp -r data /tmp/ipms-stress/ &amp;&amp; cd /tmp/ipms-stress
+ * java -Dipms.writeBehind=true -cp PROJECT/out:PROJECT/test-out control.ConcurrencyStressTest --scratch [rounds]
+ * </pre>
+ * <p>
+ * The exit status is 1 if any check failed.
+ * </p>
+ */
+public class ConcurrencyStressTest {
+    /**
+     * Students imported per round.
+     */
+    private static final int STUDENTS = 64;
+
+    /**
+     * Internships created per round; every student applies to all of them (the application limit is 3).
+     */
+    private static final int INTERNSHIPS = 3;
+
+    /**
+     * Slots of each internship.
+     */
+    private static final int SLOTS = 4;
+
+    /**
+     * Every n-th student withdraws after accepting an offer.
+     */
+    private static final int WITHDRAW_EVERY = 4;
+
+    /**
+     * Worker threads.
+     */
+    private static final int THREADS = 16;
+
+    /**
+     * Company of the stress internships.
+     */
+    private static final String COMPANY = "Stress Test Co";
+
+    private final DataStore store = DataStore.getInstance();
+    private final StudentController studentController = new StudentController();
+    private final CompanyRepresentativeController repController = new CompanyRepresentativeController();
+    private final CareerCenterStaffController staffController = new CareerCenterStaffController();
+
+    /**
+     * Number of failed checks.
+     */
+    private int failures;
+
+    /**
+     * Run the stress test.
+     *
+     * @param args {@code --scratch} and optionally the number of rounds (default 5)
+     * @throws Exception if a round cannot be set up
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !args[0].equals("--scratch")) {
+            System.err.println("Usage: ConcurrencyStressTest --scratch [rounds]");
+            System.err.println("Adds students and internships to ./data; run it from a scratch copy.");
+            System.exit(2);
+        }
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        ConcurrencyStressTest test = new ConcurrencyStressTest();
+        // Random block of student IDs so repeated runs on the same copy do not collide
+        int base = ThreadLocalRandom.current().nextInt(1_000, 9_000) * 1_000;
+        for (int round = 0; round < rounds; round++) {
+            test.runRound(round, base + round * STUDENTS);
+        }
+        test.store.flush();
+
+        if (test.failures > 0) {
+            System.out.println("FAILED: " + test.failures + " check(s) failed.");
+            System.exit(1);
+        }
+        System.out.println("OK: " + rounds + " round(s) passed.");
+        System.exit(0); // Background flusher and sweep threads are daemons, but do not wait for them
+    }
+
+    /**
+     * Run one round and check its invariants.
+     *
+     * @param round     round number
+     * @param firstId   numeric part of the round's first student ID
+     * @throws Exception if the round cannot be set up
+     */
+    private void runRound(int round, int firstId) throws Exception {
+        List<Student> students = importStudents(firstId);
+        List<Internship> internships = createInternships(round);
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            // 1. Everyone applies to every internship at once, plus one duplicate each
+            AtomicInteger duplicatesStored = new AtomicInteger();
+            List<Future<?>> applies = new ArrayList<>();
+            for (Student student : students) {
+                applies.add(executor.submit(() -> {
+                    for (Internship internship : internships) {
+                        studentController.applyForInternship(student, internship);
+                    }
+                    Internship again = internships.get(ThreadLocalRandom.current().nextInt(internships.size()));
+                    if (studentController.applyForInternship(student, again)) {
+                        duplicatesStored.incrementAndGet();
+                    }
+                }));
+            }
+            waitFor(applies);
+            check(duplicatesStored.get() == 0, "round " + round + ": " + duplicatesStored.get() + " duplicate application(s) stored");
+            for (Internship internship : internships) {
+                int count = store.getApplications().getOrDefault(internship.getUUID().toString(), List.of()).size();
+                check(count == STUDENTS, "round " + round + ": " + internship.getTitle() + " has " + count
+                        + " applications, expected " + STUDENTS);
+            }
+
+            // 2. Offers are made while students accept, withdraw and staff approve withdrawals
+            AtomicBoolean studentsDone = new AtomicBoolean();
+            List<Future<?>> work = new ArrayList<>();
+            for (Internship internship : internships) {
+                String internshipId = internship.getUUID().toString();
+                for (Student student : students) {
+                    work.add(executor.submit(() ->
+                            repController.updateApplicationStatus(internshipId, student.getUserID(), "Successful")));
+                }
+            }
+            for (int i = 0; i < students.size(); i++) {
+                Student student = students.get(i);
+                boolean withdraws = i % WITHDRAW_EVERY == 0;
+                work.add(executor.submit(() -> acceptAnOffer(student, withdraws)));
+            }
+            Future<?> staff = executor.submit(() -> approveWithdrawals(studentsDone));
+            waitFor(work);
+            studentsDone.set(true);
+            staff.get();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        int accepted = checkInvariants(round, students, internships);
+        System.out.printf("Round %d: %d students, %d held offers of %d slots, %.1f ms%n",
+                round, students.size(), accepted, INTERNSHIPS * SLOTS, (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Import the round's students.
+     *
+     * @param firstId numeric part of the first student ID
+     * @return imported students
+     */
+    private List<Student> importStudents(int firstId) {
+        StringBuilder roster = new StringBuilder("StudentID,Name,Major,Year,Email\n");
+        for (int i = 0; i < STUDENTS; i++) {
+            String id = String.format("S%07dT", firstId + i);
+            roster.append(id).append(",Stress Student ").append(i).append(",CSC,3,")
+                    .append(id.toLowerCase()).append("@e.ntu.edu.sg\n");
+        }
+        ImportResult result = staffController.importStudents(new StringReader(roster.toString()));
+        if (result == null || result.getImported() != STUDENTS) {
+            throw new IllegalStateException("Could not import stress students: "
+                    + (result == null ? "import failed" : result.getRejections()));
+        }
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(store.getStudents().get(String.format("S%07dT", firstId + i)));
+        }
+        return students;
+    }
+
+    /**
+     * Create and approve the round's internships.
+     *
+     * @param round round number
+     * @return approved internships
+     */
+    private List<Internship> createInternships(int round) {
+        String tag = "Stress " + System.nanoTime() + "-" + round + "-";
+        String opening = LocalDate.now().minusDays(1).toString();
+        String closing = LocalDate.now().plusDays(30).toString();
+        List<Internship> created = new ArrayList<>();
+        for (int i = 0; i < INTERNSHIPS; i++) {
+            String title = tag + i;
+            if (!repController.createInternship(title, "Stress test posting", "Basic", "CSC",
+                    opening, closing, COMPANY, "stress-rep", SLOTS)) {
+                throw new IllegalStateException("Could not create internship " + title);
+            }
+            Internship internship = store.getInternships().values().stream()
+                    .filter(candidate -> title.equals(candidate.getTitle()))
+                    .findFirst()
+                    .orElseThrow();
+            staffController.approveInternship(internship);
+            created.add(internship);
+        }
+        return created;
+    }
+
+    /**
+     * Keep trying to accept one of the student's offers until one is accepted or none is left,
+     * then optionally request a withdrawal of the accepted one.
+     *
+     * @param student   the student
+     * @param withdraws whether to withdraw after accepting
+     */
+    private void acceptAnOffer(Student student, boolean withdraws) {
+        while (true) {
+            boolean open = false;
+            for (Application app : store.getApplicationsOf(student.getUserID())) {
+                String status = app.getStatus();
+                if ("Accepted".equalsIgnoreCase(status)) {
+                    if (withdraws) {
+                        studentController.requestWithdrawal(app);
+                    }
+                    return;
+                }
+                if ("Successful".equalsIgnoreCase(status)) {
+                    if (studentController.acceptOffer(student, app)) {
+                        open = true; // Loop once more to find it accepted
+                        break;
+                    }
+                } else if ("Pending".equalsIgnoreCase(status)) {
+                    open = true; // Offer not made yet
+                }
+            }
+            if (!open) {
+                return; // Every application was decided against the student or removed
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Approve pending withdrawal requests until the students are done and none is left.
+     *
+     * @param studentsDone set once every student task has finished
+     */
+    private void approveWithdrawals(AtomicBoolean studentsDone) {
+        while (true) {
+            boolean done = studentsDone.get();
+            List<Withdrawal> pending = staffController.getPendingWithdrawals();
+            for (Withdrawal withdrawal : pending) {
+                staffController.approveWithdrawal(withdrawal);
+            }
+            if (done && pending.isEmpty()) {
+                return;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Check the round's invariants.
+     *
+     * @param round       round number
+     * @param students    the round's students
+     * @param internships the round's internships
+     * @return number of held offers
+     */
+    private int checkInvariants(int round, List<Student> students, List<Internship> internships) {
+        int total = 0;
+        for (Internship internship : internships) {
+            String internshipId = internship.getUUID().toString();
+            int accepted = 0;
+            for (Application app : store.getApplications().getOrDefault(internshipId, List.of())) {
+                if (holdsOffer(app)) {
+                    accepted++;
+                }
+            }
+            int left = internship.getNumberOfSlots();
+            check(accepted <= SLOTS, "round " + round + ": " + internship.getTitle() + " has " + accepted
+                    + " held offers for " + SLOTS + " slots");
+            check(left >= 0, "round " + round + ": " + internship.getTitle() + " has " + left + " slots left");
+            check(accepted + left == SLOTS, "round " + round + ": " + internship.getTitle() + " has " + accepted
+                    + " held offers and " + left + " slots left, expected " + SLOTS + " in total");
+            total += accepted;
+        }
+
+        for (Student student : students) {
+            int inIndex = 0;
+            for (Application app : store.getApplicationsOf(student.getUserID())) {
+                if ("Accepted".equalsIgnoreCase(app.getStatus())) {
+                    inIndex++;
+                }
+            }
+            int inTable = 0;
+            for (Map.Entry<String, List<Application>> entry : store.getApplications().entrySet()) {
+                Application app = store.findApplication(entry.getKey(), student.getUserID());
+                if (app != null && "Accepted".equalsIgnoreCase(app.getStatus())) {
+                    inTable++;
+                }
+            }
+            check(inIndex <= 1, "round " + round + ": " + student.getUserID() + " has " + inIndex + " accepted offers");
+            check(inIndex == inTable, "round " + round + ": " + student.getUserID() + " has " + inIndex
+                    + " accepted offers in the index but " + inTable + " in the table");
+        }
+        return total;
+    }
+
+    /**
+     * Whether an application is an accepted offer that still holds a slot, i.e. no withdrawal of
+     * it has been approved.
+     *
+     * @param app application
+     * @return true if the application holds a slot
+     */
+    private boolean holdsOffer(Application app) {
+        if (!"Accepted".equalsIgnoreCase(app.getStatus())) {
+            return false;
+        }
+        Withdrawal withdrawal = store.findWithdrawal(app.getUUID().toString(), app.getUserId());
+        return withdrawal == null || !"Approved".equalsIgnoreCase(withdrawal.getStatus());
+    }
+
+    /**
+     * Wait for tasks, failing on the first exception.
+     *
+     * @param futures tasks
+     * @throws Exception if a task failed
+     */
+    private static void waitFor(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * Record a check.
+     *
+     * @param ok      whether the check passed
+     * @param message failure description
+     */
+    private void check(boolean ok, String message) {
+        if (!ok) {
+            failures++;
+            System.out.println("FAIL: " + message);
+        }
+    }
+}